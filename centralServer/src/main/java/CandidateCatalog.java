@@ -0,0 +1,328 @@
+import CandidateNotification.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CandidateCatalog - Catálogo de candidatos versionado
+ *
+ * Cada publicación con contenido distinto genera una versión nueva (monótona y
+ * basada en el reloj, para no repetir versiones entre reinicios). A partir de la
+ * versión que reporta cada máquina se responde "sin cambios", un delta con los
+ * candidatos agregados/modificados y los eliminados, o la lista completa si la
+ * versión base ya no está en el historial.
+ *
+ * Cada versión es una instantánea inmutable construida una sola vez por carga de
+ * candidatos (incluida la respuesta de getCurrentCandidates) y se reemplaza de forma
+ * atómica; las lecturas devuelven siempre los mismos objetos sin copiar ni ordenar.
+ */
+public class CandidateCatalog {
+    private static final int MAX_HISTORY = 16;
+    private static final CandidateData[] NO_CANDIDATES = new CandidateData[0];
+    private static final String[] NO_IDS = new String[0];
+    private static final CandidateData BLANK_VOTE = createBlankVote();
+    // Después de las constantes: el constructor usa NO_CANDIDATES
+    private static final CandidateCatalog instance = new CandidateCatalog();
+
+    /**
+     * Una versión publicada del catálogo (inmutable)
+     */
+    private static class Version {
+        final long version;
+        final long timestamp;
+        final CandidateData[] candidates;
+        final List<CandidateData> list;
+        final CandidateListResponse response;
+        final Map<String, CandidateData> byId;
+        // Actualizaciones ya calculadas hacia esta versión, por versión base
+        final ConcurrentHashMap<Long, CandidateCatalogUpdate> updates = new ConcurrentHashMap<>();
+
+        Version(long version, long timestamp, CandidateData[] candidates) {
+            this.version = version;
+            this.timestamp = timestamp;
+            this.candidates = candidates;
+            this.list = Collections.unmodifiableList(Arrays.asList(candidates));
+            this.response = new CandidateListResponse(candidates, candidates.length, timestamp);
+            Map<String, CandidateData> map = new HashMap<>(candidates.length * 2);
+            for (CandidateData c : candidates) {
+                map.put(c.candidateId, c);
+            }
+            this.byId = Collections.unmodifiableMap(map);
+        }
+    }
+
+    private final LinkedHashMap<Long, Version> history = new LinkedHashMap<>();
+    private volatile Version current = new Version(0, System.currentTimeMillis(), NO_CANDIDATES);
+
+    // Métricas de ancho de banda
+    private final LongAdder unchangedServed = new LongAdder();
+    private final LongAdder deltaServed = new LongAdder();
+    private final LongAdder fullServed = new LongAdder();
+    private final LongAdder candidatesSent = new LongAdder();
+    private final LongAdder candidatesIfFull = new LongAdder();
+
+    private CandidateCatalog() {
+    }
+
+    public static CandidateCatalog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Construir la instantánea desde el CandidateManager (activos por posición + voto en blanco) y publicarla
+     */
+    public long publish(CandidateManager candidateManager) {
+        List<CandidateManager.Candidate> active = candidateManager.getActiveCandidates();
+        CandidateData[] array = new CandidateData[active.size() + 1];
+        int i = 0;
+        for (CandidateManager.Candidate candidate : active) {
+            array[i++] = toCandidateData(candidate, candidateManager.getParty(candidate.partyId));
+        }
+        array[i] = BLANK_VOTE;
+        return publish(array);
+    }
+
+    /**
+     * Publicar la lista de candidatos; solo genera versión nueva si el contenido cambió
+     */
+    private synchronized long publish(CandidateData[] array) {
+        Version previous = current;
+        if (previous.version != 0 && Arrays.equals(previous.candidates, array)) {
+            return previous.version;
+        }
+
+        long now = System.currentTimeMillis();
+        return install(new Version(Math.max(previous.version + 1, now), now, array));
+    }
+
+    /**
+     * Reflejar una actualización recibida de otro catálogo (relay departamental),
+     * conservando su número de versión. false si el delta no aplica sobre la versión local.
+     * Una actualización más vieja que la local (entrega fuera de orden) se ignora.
+     */
+    public synchronized boolean applyUpstream(CandidateCatalogUpdate update) {
+        Version local = current;
+        if (update.version < local.version) {
+            return true;
+        }
+        switch (update.kind) {
+            case Unchanged:
+                return update.version == local.version;
+            case Delta:
+                if (update.baseVersion != local.version) {
+                    return false;
+                }
+                Map<String, CandidateData> merged = new HashMap<>(local.byId);
+                for (String removedId : update.removed) {
+                    merged.remove(removedId);
+                }
+                for (CandidateData c : update.candidates) {
+                    merged.put(c.candidateId, c);
+                }
+                install(new Version(update.version, update.updateTimestamp, sortedByPosition(merged.values())));
+                return true;
+            default:
+                if (update.version > local.version) {
+                    install(new Version(update.version, update.updateTimestamp, sortedByPosition(Arrays.asList(update.candidates))));
+                }
+                return true;
+        }
+    }
+
+    private static CandidateData[] sortedByPosition(Collection<CandidateData> candidates) {
+        CandidateData[] array = candidates.toArray(NO_CANDIDATES);
+        Arrays.sort(array, Comparator.comparingInt(c -> c.position));
+        return array;
+    }
+
+    private synchronized long install(Version next) {
+        history.put(next.version, next);
+        while (history.size() > MAX_HISTORY) {
+            history.remove(history.keySet().iterator().next());
+        }
+        current = next;
+
+        System.out.println("[CandidateCatalog] Nueva versión " + next.version + " con " + next.candidates.length + " candidatos");
+        return next.version;
+    }
+
+    /**
+     * Actualización necesaria para llevar una máquina desde knownVersion a la versión actual
+     */
+    public CandidateCatalogUpdate updateFor(long knownVersion) {
+        Version target = current;
+        // Versiones desconocidas comparten la misma respuesta completa (clave 0)
+        long base = knownVersion == target.version || inHistory(knownVersion) ? knownVersion : 0;
+        CandidateCatalogUpdate update = target.updates.computeIfAbsent(base, b -> buildUpdate(b, target));
+
+        switch (update.kind) {
+            case Unchanged: unchangedServed.increment(); break;
+            case Delta: deltaServed.increment(); break;
+            default: fullServed.increment(); break;
+        }
+        candidatesSent.add(update.candidates.length);
+        candidatesIfFull.add(target.candidates.length);
+        return update;
+    }
+
+    private synchronized boolean inHistory(long version) {
+        return version > 0 && history.containsKey(version);
+    }
+
+    private CandidateCatalogUpdate buildUpdate(long knownVersion, Version target) {
+        if (knownVersion == target.version) {
+            return newUpdate(CatalogUpdateKind.Unchanged, knownVersion, target, NO_CANDIDATES, NO_IDS);
+        }
+
+        Version base;
+        synchronized (this) {
+            base = knownVersion > 0 ? history.get(knownVersion) : null;
+        }
+        if (base == null) {
+            return newUpdate(CatalogUpdateKind.Full, knownVersion, target, target.candidates, NO_IDS);
+        }
+
+        List<CandidateData> changed = new ArrayList<>();
+        for (CandidateData c : target.candidates) {
+            if (!c.equals(base.byId.get(c.candidateId))) {
+                changed.add(c);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String id : base.byId.keySet()) {
+            if (!target.byId.containsKey(id)) {
+                removed.add(id);
+            }
+        }
+
+        // Si el delta no ahorra nada, enviar la lista completa
+        if (changed.size() >= target.candidates.length) {
+            return newUpdate(CatalogUpdateKind.Full, knownVersion, target, target.candidates, NO_IDS);
+        }
+        return newUpdate(CatalogUpdateKind.Delta, knownVersion, target,
+                changed.toArray(NO_CANDIDATES), removed.toArray(NO_IDS));
+    }
+
+    private static CandidateCatalogUpdate newUpdate(CatalogUpdateKind kind, long baseVersion, Version target,
+                                                    CandidateData[] candidates, String[] removed) {
+        CandidateCatalogUpdate update = new CandidateCatalogUpdate();
+        update.kind = kind;
+        update.baseVersion = baseVersion;
+        update.version = target.version;
+        update.updateTimestamp = target.timestamp;
+        update.candidates = candidates;
+        update.removed = removed;
+        update.totalCandidates = target.candidates.length;
+        return update;
+    }
+
+    private static CandidateData toCandidateData(CandidateManager.Candidate candidate, CandidateManager.PoliticalParty party) {
+        CandidateData info = new CandidateData();
+        info.candidateId = candidate.id;
+        info.firstName = candidate.firstName;
+        info.lastName = candidate.lastName;
+        info.fullName = candidate.fullName;
+        info.position = candidate.position;
+        info.photo = candidate.photo;
+        info.biography = candidate.biography;
+        info.isActive = candidate.isActive;
+
+        if (party != null) {
+            info.partyId = party.id;
+            info.partyName = party.name;
+            info.partyColor = party.color;
+            info.partyIdeology = party.ideology;
+            info.partyLogo = party.logo;
+        }
+        return info;
+    }
+
+    private static CandidateData createBlankVote() {
+        CandidateData blankVote = new CandidateData();
+        blankVote.candidateId = "blank";
+        blankVote.firstName = "VOTO";
+        blankVote.lastName = "EN BLANCO";
+        blankVote.fullName = "VOTO EN BLANCO";
+        blankVote.position = 999;
+        blankVote.photo = "📊";
+        blankVote.biography = "Opción para votantes que no desean elegir candidato específico";
+        blankVote.isActive = true;
+        blankVote.partyId = "blank";
+        blankVote.partyName = "Voto en Blanco";
+        blankVote.partyColor = "#CCCCCC";
+        blankVote.partyIdeology = "Ninguna";
+        blankVote.partyLogo = "📊";
+        return blankVote;
+    }
+
+    public long getVersion() {
+        return current.version;
+    }
+
+    /**
+     * true si el candidato está en la versión publicada actual
+     */
+    public boolean contains(String candidateId) {
+        return current.byId.containsKey(candidateId);
+    }
+
+    public long getTimestamp() {
+        return current.timestamp;
+    }
+
+    /**
+     * Candidatos de la versión actual (lista inmutable compartida)
+     */
+    public List<CandidateData> getCandidates() {
+        return current.list;
+    }
+
+    /**
+     * Respuesta prearmada de getCurrentCandidates para la versión actual
+     */
+    public CandidateListResponse getCurrentResponse() {
+        return current.response;
+    }
+
+    public CatalogStats getStats() {
+        return new CatalogStats(current.version, current.candidates.length, unchangedServed.sum(),
+                deltaServed.sum(), fullServed.sum(), candidatesSent.sum(), candidatesIfFull.sum());
+    }
+
+    /**
+     * Estadísticas del catálogo
+     */
+    public static class CatalogStats {
+        public final long version;
+        public final int candidates;
+        public final long unchangedServed;
+        public final long deltaServed;
+        public final long fullServed;
+        public final long candidatesSent;
+        public final long candidatesIfFull;
+
+        public CatalogStats(long version, int candidates, long unchangedServed, long deltaServed,
+                            long fullServed, long candidatesSent, long candidatesIfFull) {
+            this.version = version;
+            this.candidates = candidates;
+            this.unchangedServed = unchangedServed;
+            this.deltaServed = deltaServed;
+            this.fullServed = fullServed;
+            this.candidatesSent = candidatesSent;
+            this.candidatesIfFull = candidatesIfFull;
+        }
+
+        public double getSavingsPercent() {
+            return candidatesIfFull == 0 ? 0.0 : (candidatesIfFull - candidatesSent) * 100.0 / candidatesIfFull;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Catalog{versión=%d, candidatos=%d, sin cambios=%d, deltas=%d, completas=%d, " +
+                            "candidatos enviados=%d de %d (ahorro %.1f%%)}",
+                    version, candidates, unchangedServed, deltaServed, fullServed,
+                    candidatesSent, candidatesIfFull, getSavingsPercent());
+        }
+    }
+}
@@ -0,0 +1,496 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * CandidateImporter - Importación masiva de candidatos desde CSV y Excel (.xlsx)
+ *
+ * - CSV: parser RFC 4180 de una sola pasada (campos entre comillas, comillas dobles
+ *   escapadas y saltos de línea dentro de comillas).
+ * - XLSX: lectura en streaming (SAX) de la primera hoja y de sharedStrings, sin
+ *   cargar el libro completo en memoria ni depender de Apache POI.
+ *
+ * Las filas se leen en orden, se validan en paralelo y el resultado se entrega
+ * completo; CandidateManager lo aplica en un único reemplazo atómico. Un candidateId
+ * o una posición repetidos en el archivo se reportan como duplicados.
+ *
+ * Columnas: candidateId,firstName,lastName,partyId,partyName,position[,photo,biography,isActive]
+ * (la primera fila es encabezado solo si sus seis primeras columnas son esos nombres).
+ */
+public class CandidateImporter {
+    private static final int REQUIRED_COLUMNS = 6;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    // Nombres de columna normalizados (minúsculas, sin espacios ni separadores)
+    private static final String[] HEADER_COLUMNS = {"candidateid", "firstname", "lastname", "partyid", "partyname", "position"};
+
+    /**
+     * Fila cruda leída del archivo
+     */
+    public static class Row {
+        public final int lineNumber;
+        public final String[] fields;
+
+        Row(int lineNumber, String[] fields) {
+            this.lineNumber = lineNumber;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Fila validada: candidato y partido, o el motivo del rechazo
+     */
+    public static class ValidatedRow {
+        public final int lineNumber;
+        public final CandidateManager.Candidate candidate;
+        public final String partyName;
+        public final String error;
+
+        ValidatedRow(int lineNumber, CandidateManager.Candidate candidate, String partyName, String error) {
+            this.lineNumber = lineNumber;
+            this.candidate = candidate;
+            this.partyName = partyName;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Resultado de una importación
+     */
+    public static class ImportResult {
+        public final List<CandidateManager.Candidate> candidates = new ArrayList<>();
+        public final Map<String, String> partyNames = new LinkedHashMap<>();
+        public final List<String> errors = new ArrayList<>();
+        public int rowsRead;
+        public int rejected;
+        public int duplicates;
+        public boolean headerSkipped;
+        public long readMillis;
+        public long validateMillis;
+
+        @Override
+        public String toString() {
+            return String.format("Import{filas=%d, válidas=%d, rechazadas=%d (duplicadas=%d), partidos=%d, lectura=%dms, validación=%dms}",
+                    rowsRead, candidates.size(), rejected, duplicates, partyNames.size(), readMillis, validateMillis);
+        }
+    }
+
+    /**
+     * Importar un archivo .csv o .xlsx
+     */
+    public static ImportResult importFile(File file) throws Exception {
+        long start = System.currentTimeMillis();
+        List<Row> rows = file.getName().toLowerCase().endsWith(".xlsx") ? readXlsx(file) : readCsv(file);
+        long read = System.currentTimeMillis();
+
+        ImportResult result = validate(rows);
+        result.readMillis = read - start;
+        result.validateMillis = System.currentTimeMillis() - read;
+        return result;
+    }
+
+    // ============================================================================
+    // VALIDACIÓN
+    // ============================================================================
+
+    private static ImportResult validate(List<Row> rows) {
+        ImportResult result = new ImportResult();
+        result.rowsRead = rows.size();
+
+        int first = 0;
+        if (!rows.isEmpty() && isHeader(rows.get(0).fields)) {
+            result.headerSkipped = true;
+            first = 1;
+        }
+
+        // Validación en paralelo; el resultado conserva el orden del archivo
+        ValidatedRow[] validated = new ValidatedRow[rows.size()];
+        IntStream.range(first, rows.size()).parallel().forEach(i -> validated[i] = validateRow(rows.get(i)));
+
+        // Línea donde apareció primero cada candidateId y cada posición
+        Map<String, Integer> idLines = new HashMap<>();
+        Map<Integer, Integer> positionLines = new HashMap<>();
+
+        for (int i = first; i < validated.length; i++) {
+            ValidatedRow row = validated[i];
+            String error = row.error;
+            if (error == null) {
+                Integer idLine = idLines.putIfAbsent(row.candidate.id, row.lineNumber);
+                Integer positionLine = positionLines.putIfAbsent(row.candidate.position, row.lineNumber);
+                if (idLine != null) {
+                    error = "candidateId '" + row.candidate.id + "' duplicado (ya en línea " + idLine + ")";
+                } else if (positionLine != null) {
+                    error = "posición " + row.candidate.position + " duplicada (ya en línea " + positionLine + ")";
+                }
+                if (error != null) {
+                    result.duplicates++;
+                }
+            }
+            if (error != null) {
+                result.rejected++;
+                if (result.errors.size() < MAX_REPORTED_ERRORS) {
+                    result.errors.add("Línea " + row.lineNumber + ": " + error);
+                }
+                continue;
+            }
+            result.candidates.add(row.candidate);
+            result.partyNames.putIfAbsent(row.candidate.partyId, row.partyName);
+        }
+        return result;
+    }
+
+    private static boolean isHeader(String[] fields) {
+        if (fields.length < HEADER_COLUMNS.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER_COLUMNS.length; i++) {
+            String normalized = fields[i].toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            if (!HEADER_COLUMNS[i].equals(normalized)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ValidatedRow validateRow(Row row) {
+        String[] f = row.fields;
+        if (f.length < REQUIRED_COLUMNS) {
+            return rejected(row, "faltan columnas (" + f.length + " de " + REQUIRED_COLUMNS + ")");
+        }
+
+        String candidateId = f[0].trim();
+        String firstName = f[1].trim();
+        String lastName = f[2].trim();
+        String partyId = f[3].trim();
+        String partyName = f[4].trim();
+        if (candidateId.isEmpty() || firstName.isEmpty() || lastName.isEmpty() || partyId.isEmpty() || partyName.isEmpty()) {
+            return rejected(row, "campos obligatorios vacíos");
+        }
+
+        int position;
+        try {
+            position = parsePosition(f[5].trim());
+        } catch (NumberFormatException e) {
+            return rejected(row, "posición '" + f[5].trim() + "' no es un número");
+        }
+
+        String photo = optional(f, 6, "👤");
+        String biography = optional(f, 7, "Sin biografía disponible");
+        // Celda ausente o vacía (coma final, columna I en blanco) → activo por defecto
+        boolean isActive = Boolean.parseBoolean(optional(f, 8, "true"));
+
+        CandidateManager.Candidate candidate = new CandidateManager.Candidate(candidateId, firstName, lastName,
+                partyId, position, photo, biography, isActive);
+        return new ValidatedRow(row.lineNumber, candidate, partyName, null);
+    }
+
+    /**
+     * Excel guarda los números como "5" o "5.0"
+     */
+    private static int parsePosition(String value) {
+        if (value.endsWith(".0")) {
+            value = value.substring(0, value.length() - 2);
+        }
+        return Integer.parseInt(value);
+    }
+
+    private static String optional(String[] fields, int index, String defaultValue) {
+        if (fields.length <= index) return defaultValue;
+        String value = fields[index].trim();
+        return value.isEmpty() ? defaultValue : value;
+    }
+
+    private static ValidatedRow rejected(Row row, String error) {
+        return new ValidatedRow(row.lineNumber, null, null, error);
+    }
+
+    // ============================================================================
+    // CSV
+    // ============================================================================
+
+    /**
+     * Leer CSV completo (RFC 4180); las líneas vacías se omiten
+     */
+    public static List<Row> readCsv(File file) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            boolean fieldWasQuoted = false;
+            int line = 1;
+            int rowLine = 1;
+            int c;
+
+            while ((c = reader.read()) != -1) {
+                char ch = (char) c;
+                if (inQuotes) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            if (next != -1) reader.reset();
+                        }
+                    } else {
+                        if (ch == '\n') line++;
+                        field.append(ch);
+                    }
+                } else if (ch == '"' && field.toString().trim().isEmpty()) {
+                    field.setLength(0);
+                    inQuotes = true;
+                    fieldWasQuoted = true;
+                } else if (ch == ',') {
+                    fields.add(fieldWasQuoted ? field.toString() : field.toString().trim());
+                    field.setLength(0);
+                    fieldWasQuoted = false;
+                } else if (ch == '\n' || ch == '\r') {
+                    if (ch == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') reader.reset();
+                    }
+                    fields.add(fieldWasQuoted ? field.toString() : field.toString().trim());
+                    addRow(rows, rowLine, fields);
+                    fields.clear();
+                    field.setLength(0);
+                    fieldWasQuoted = false;
+                    rowLine = ++line;
+                } else if (!fieldWasQuoted) {
+                    field.append(ch);
+                }
+            }
+
+            if (field.length() > 0 || !fields.isEmpty()) {
+                fields.add(fieldWasQuoted ? field.toString() : field.toString().trim());
+                addRow(rows, rowLine, fields);
+            }
+        }
+        return rows;
+    }
+
+    private static void addRow(List<Row> rows, int lineNumber, List<String> fields) {
+        if (fields.size() == 1 && fields.get(0).isEmpty()) {
+            return;
+        }
+        String[] values = fields.toArray(new String[0]);
+        if (values.length > 0 && rows.isEmpty() && values[0].startsWith("\uFEFF")) {
+            values[0] = values[0].substring(1); // BOM de Excel
+        }
+        rows.add(new Row(lineNumber, values));
+    }
+
+    /**
+     * Escapar un campo para escribirlo en CSV
+     */
+    public static String csvField(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    // ============================================================================
+    // XLSX (SAX)
+    // ============================================================================
+
+    /**
+     * Leer la primera hoja de un .xlsx en streaming.
+     * El archivo viene de fuera (consola o CentralAdmin.loadCandidates): sin DOCTYPE ni
+     * entidades externas (XXE) y con los límites de FEATURE_SECURE_PROCESSING.
+     */
+    public static List<Row> readXlsx(File file) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(false);
+        factory.setXIncludeAware(false);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        SAXParser parser = factory.newSAXParser();
+
+        try (ZipFile zip = new ZipFile(file)) {
+            List<String> sharedStrings = new ArrayList<>();
+            ZipEntry shared = zip.getEntry("xl/sharedStrings.xml");
+            if (shared != null) {
+                try (InputStream in = new BufferedInputStream(zip.getInputStream(shared))) {
+                    parser.parse(in, new SharedStringsHandler(sharedStrings));
+                }
+            }
+
+            ZipEntry sheet = firstSheet(zip);
+            if (sheet == null) {
+                throw new IOException("El libro no contiene hojas");
+            }
+
+            List<Row> rows = new ArrayList<>();
+            parser.reset();
+            try (InputStream in = new BufferedInputStream(zip.getInputStream(sheet))) {
+                parser.parse(in, new SheetHandler(sharedStrings, rows));
+            }
+            return rows;
+        }
+    }
+
+    private static ZipEntry firstSheet(ZipFile zip) {
+        ZipEntry sheet = zip.getEntry("xl/worksheets/sheet1.xml");
+        if (sheet != null) return sheet;
+
+        ZipEntry first = null;
+        for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
+            ZipEntry entry = e.nextElement();
+            String name = entry.getName();
+            if (name.startsWith("xl/worksheets/") && name.endsWith(".xml") && name.indexOf('/', 14) < 0 &&
+                    (first == null || name.compareTo(first.getName()) < 0)) {
+                first = entry;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Tabla de textos compartidos (xl/sharedStrings.xml)
+     */
+    private static class SharedStringsHandler extends DefaultHandler {
+        private final List<String> strings;
+        private final StringBuilder text = new StringBuilder();
+        private boolean inText;
+
+        SharedStringsHandler(List<String> strings) {
+            this.strings = strings;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("si".equals(qName)) {
+                text.setLength(0);
+            } else if ("t".equals(qName)) {
+                inText = true;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if ("t".equals(qName)) {
+                inText = false;
+            } else if ("si".equals(qName)) {
+                strings.add(text.toString());
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) text.append(ch, start, length);
+        }
+    }
+
+    /**
+     * Filas de una hoja: <row r="n"><c r="B3" t="s"><v>..</v></c>...</row>
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final List<String> sharedStrings;
+        private final List<Row> rows;
+        private final List<String> cells = new ArrayList<>();
+        private final StringBuilder value = new StringBuilder();
+        private int rowNumber;
+        private int column;
+        private String cellType;
+        private boolean inValue;
+
+        SheetHandler(List<String> sharedStrings, List<Row> rows) {
+            this.sharedStrings = sharedStrings;
+            this.rows = rows;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (qName) {
+                case "row":
+                    cells.clear();
+                    String r = attributes.getValue("r");
+                    rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : cells.size();
+                    cellType = attributes.getValue("t");
+                    value.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    inValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (qName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "c":
+                    while (cells.size() < column) cells.add("");
+                    cells.add(column, cellValue());
+                    break;
+                case "row":
+                    boolean empty = true;
+                    for (String cell : cells) {
+                        if (!cell.trim().isEmpty()) {
+                            empty = false;
+                            break;
+                        }
+                    }
+                    if (!empty) rows.add(new Row(rowNumber, cells.toArray(new String[0])));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) value.append(ch, start, length);
+        }
+
+        private String cellValue() {
+            String raw = value.toString();
+            if ("s".equals(cellType)) {
+                // <v> vacío o no numérico: celda sin texto en lugar de abortar la lectura
+                try {
+                    int index = Integer.parseInt(raw.trim());
+                    return index >= 0 && index < sharedStrings.size() ? sharedStrings.get(index) : "";
+                } catch (NumberFormatException e) {
+                    return "";
+                }
+            }
+            if ("b".equals(cellType)) {
+                return "1".equals(raw.trim()) ? "true" : "false";
+            }
+            return raw;
+        }
+
+        private static int columnIndex(String ref) {
+            int index = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char ch = ref.charAt(i);
+                if (ch < 'A' || ch > 'Z') break;
+                index = index * 26 + (ch - 'A' + 1);
+            }
+            return index - 1;
+        }
+    }
+}
@@ -1,17 +1,18 @@
 import java.io.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
  * CandidateManager - Gestor centralizado de candidatos y partidos políticos
  * Carga información desde archivo Excel y mantiene persistencia
+ *
+ * Candidatos y partidos viven en un estado inmutable que se reemplaza completo
+ * en cada carga: los lectores nunca ven una importación a medias.
  */
 public class CandidateManager {
     private static final CandidateManager instance = new CandidateManager();
-    private final Map<String, Candidate> candidates = new ConcurrentHashMap<>();
-    private final Map<String, PoliticalParty> parties = new ConcurrentHashMap<>();
+    private volatile State state;
     private final File candidatesFile = new File("config/db/candidates.csv");
     private final File partiesFile = new File("config/db/parties.csv");
     private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
@@ -67,17 +68,43 @@ public class CandidateManager {
         }
     }
 
+    /**
+     * Estado inmutable: candidatos, partidos y activos ya ordenados por posición
+     */
+    private static class State {
+        final Map<String, Candidate> candidates;
+        final Map<String, PoliticalParty> parties;
+        final List<Candidate> activeCandidates;
+
+        State(Map<String, Candidate> candidates, Map<String, PoliticalParty> parties) {
+            this.candidates = Collections.unmodifiableMap(candidates);
+            this.parties = Collections.unmodifiableMap(parties);
+            List<Candidate> active = new ArrayList<>();
+            for (Candidate c : candidates.values()) {
+                if (c.isActive) active.add(c);
+            }
+            active.sort(Comparator.comparingInt(c -> c.position));
+            this.activeCandidates = Collections.unmodifiableList(active);
+        }
+    }
+
     private CandidateManager() {
         File parentDir = candidatesFile.getParentFile();
         if (parentDir != null && !parentDir.exists()) {
             parentDir.mkdirs();
         }
 
+        Map<String, Candidate> candidates = new HashMap<>();
+        Map<String, PoliticalParty> parties = new HashMap<>();
+
         // Inicializar candidatos por defecto si no existen archivos
-        initializeDefaultCandidates();
+        initializeDefaultCandidates(candidates, parties);
 
         // Cargar datos existentes
-        loadExistingData();
+        loadPartiesFromFile(parties);
+        loadCandidatesFromFile(candidates);
+
+        state = new State(candidates, parties);
 
         System.out.println("[CandidateManager] Inicializado con " + candidates.size() +
                 " candidatos y " + parties.size() + " partidos");
@@ -88,203 +115,128 @@ public class CandidateManager {
     }
 
     /**
-     * Cargar candidatos desde archivo Excel
+     * Cargar candidatos desde archivo Excel (.xlsx)
      */
     public boolean loadCandidatesFromExcel(String excelFilePath) {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("[" + timestamp + "] [CandidateManager] Cargando candidatos desde Excel: " + excelFilePath);
 
-        try {
-            File excelFile = new File(excelFilePath);
-            if (!excelFile.exists()) {
-                System.err.println("[CandidateManager] Archivo Excel no encontrado: " + excelFilePath);
-                return false;
-            }
-
-            return parseExcelFile(excelFile);
-
-        } catch (Exception e) {
-            System.err.println("[CandidateManager] Error cargando Excel: " + e.getMessage());
-            e.printStackTrace();
+        if (excelFilePath.toLowerCase().endsWith(".xls")) {
+            System.err.println("[CandidateManager] Formato .xls (Excel 97-2003) no soportado; guarde el archivo como .xlsx o .csv");
             return false;
         }
+        return importCandidates(excelFilePath);
     }
 
     /**
-     * Parsear archivo Excel usando Apache POI
+     * Cargar candidatos desde archivo CSV
      */
-    private boolean parseExcelFile(File excelFile) {
-        try {
-            System.out.println("[CandidateManager] ⚠️  Apache POI no disponible, usando formato CSV como alternativa");
-            System.out.println("[CandidateManager] Para cargar desde Excel, convierta el archivo a CSV primero");
-
-            if (excelFile.getName().toLowerCase().endsWith(".csv")) {
-                return loadCandidatesFromCSV(excelFile.getAbsolutePath());
-            }
-
-            return false;
-
-        } catch (Exception e) {
-            System.err.println("[CandidateManager] Error parseando Excel: " + e.getMessage());
-            return false;
-        }
+    public boolean loadCandidatesFromCSV(String csvFilePath) {
+        String timestamp = LocalDateTime.now().format(timeFormatter);
+        System.out.println("[" + timestamp + "] [CandidateManager] Cargando candidatos desde CSV: " + csvFilePath);
+        return importCandidates(csvFilePath);
     }
 
-
     /**
-     * Cargar candidatos desde archivo CSV (alternativa temporal)
+     * Leer, validar y aplicar la importación completa en un solo reemplazo del estado
      */
-    public boolean loadCandidatesFromCSV(String csvFilePath) {
+    private boolean importCandidates(String filePath) {
         String timestamp = LocalDateTime.now().format(timeFormatter);
-        System.out.println("[" + timestamp + "] [CandidateManager] Cargando candidatos desde CSV: " + csvFilePath);
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(csvFilePath))) {
-            String line;
-            boolean isFirstLine = true;
-            int candidatesLoaded = 0;
-            int partiesLoaded = 0;
-            int lineNumber = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-
-                if (line.trim().isEmpty()) continue;
-
-                if (isFirstLine) {
-                    isFirstLine = false;
-
-                    String lowerLine = line.toLowerCase();
-                    if (lowerLine.contains("candidateid") || lowerLine.contains("candidate_id") ||
-                            lowerLine.contains("firstname") || lowerLine.contains("lastname") ||
-                            lowerLine.contains("position") || lowerLine.contains("party")) {
-
-                        System.out.println("[CandidateManager] Detectados encabezados en línea 1, saltando...");
-                        System.out.println("[CandidateManager] Encabezados: " + line);
-                        continue;
-                    } else {
-                        System.out.println("[CandidateManager] No se detectaron encabezados, procesando línea 1 como datos");
-                    }
-                }
-
-                String[] parts = line.split(",");
-
-                if (parts.length < 6) {
-                    System.err.println("[CandidateManager] Línea " + lineNumber + " inválida (faltan columnas): " + line);
-                    System.err.println("[CandidateManager] Se esperan al menos 6 columnas: candidateId,firstName,lastName,partyId,partyName,position");
-                    continue;
-                }
-
-                try {
-                    String candidateId = cleanField(parts[0]);
-                    String firstName = cleanField(parts[1]);
-                    String lastName = cleanField(parts[2]);
-                    String partyId = cleanField(parts[3]);
-                    String partyName = cleanField(parts[4]);
+        File file = new File(filePath);
+        if (!file.exists()) {
+            System.err.println("[CandidateManager] Archivo no encontrado: " + filePath);
+            return false;
+        }
 
-                    String positionStr = cleanField(parts[5]);
-                    int position;
-                    try {
-                        position = Integer.parseInt(positionStr);
-                    } catch (NumberFormatException e) {
-                        System.err.println("[CandidateManager] Error en línea " + lineNumber +
-                                ": No se pudo convertir posición '" + positionStr + "' a número");
-                        System.err.println("[CandidateManager] Línea completa: " + line);
-                        continue;
-                    }
+        CandidateImporter.ImportResult result;
+        try {
+            result = CandidateImporter.importFile(file);
+        } catch (Exception e) {
+            System.err.println("[CandidateManager] Error leyendo " + file.getName() + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
 
-                    // Campos opcionales con valores por defecto
-                    String photo = parts.length > 6 ? cleanField(parts[6]) : "👤";
-                    String biography = parts.length > 7 ? cleanField(parts[7]) : "Sin biografía disponible";
-                    boolean isActive = parts.length > 8 ? Boolean.parseBoolean(cleanField(parts[8])) : true;
-
-                    // Validar que los campos obligatorios no estén vacíos
-                    if (candidateId.isEmpty() || firstName.isEmpty() || lastName.isEmpty() ||
-                            partyId.isEmpty() || partyName.isEmpty()) {
-                        System.err.println("[CandidateManager] Línea " + lineNumber +
-                                " tiene campos obligatorios vacíos, saltando...");
-                        continue;
-                    }
+        if (result.headerSkipped) {
+            System.out.println("[CandidateManager] Detectados encabezados en línea 1, saltando...");
+        }
+        for (String error : result.errors) {
+            System.err.println("[CandidateManager] " + error);
+        }
+        if (result.rejected > result.errors.size()) {
+            System.err.println("[CandidateManager] ... y " + (result.rejected - result.errors.size()) + " filas rechazadas más");
+        }
 
-                    // Crear/actualizar partido
-                    if (!parties.containsKey(partyId)) {
-                        PoliticalParty party = new PoliticalParty(partyId, partyName, null, null, null);
-                        parties.put(partyId, party);
-                        partiesLoaded++;
-                        System.out.println("[CandidateManager] Nuevo partido creado: " + partyName + " (" + partyId + ")");
-                    }
+        // Un archivo con IDs o posiciones repetidos es ambiguo: no se aplica nada
+        if (result.duplicates > 0) {
+            System.err.println("[CandidateManager] ❌ " + file.getName() + " tiene " + result.duplicates +
+                    " filas con candidateId o posición duplicados; no se cargó ningún candidato");
+            return false;
+        }
 
-                    // Crear/actualizar candidato
-                    Candidate candidate = new Candidate(candidateId, firstName, lastName,
-                            partyId, position, photo, biography, isActive);
-                    candidates.put(candidateId, candidate);
-                    candidatesLoaded++;
+        // Éxito si se cargó al menos un candidato; si no, el estado actual no se toca
+        if (result.candidates.isEmpty()) {
+            System.err.println("[CandidateManager] ❌ Ningún candidato válido en " + file.getName() +
+                    ". Se esperan al menos 6 columnas: candidateId,firstName,lastName,partyId,partyName,position");
+            return false;
+        }
 
-                    System.out.println("[CandidateManager] Candidato cargado: " +
-                            firstName + " " + lastName + " (" + partyName + ") - Posición " + position);
+        int partiesLoaded;
+        synchronized (this) {
+            State current = state;
+            Map<String, Candidate> candidates = new HashMap<>(current.candidates);
+            Map<String, PoliticalParty> parties = new HashMap<>(current.parties);
 
-                } catch (Exception e) {
-                    System.err.println("[CandidateManager] Error procesando línea " + lineNumber + ": " + e.getMessage());
-                    System.err.println("[CandidateManager] Línea problemática: " + line);
-                    System.err.println("[CandidateManager] Continuando con siguiente línea...");
-                    continue;
-                }
+            int before = parties.size();
+            for (Map.Entry<String, String> party : result.partyNames.entrySet()) {
+                parties.putIfAbsent(party.getKey(), new PoliticalParty(party.getKey(), party.getValue(), null, null, null));
             }
+            partiesLoaded = parties.size() - before;
+            for (Candidate candidate : result.candidates) {
+                candidates.put(candidate.id, candidate);
+            }
+
+            state = new State(candidates, parties);
 
             // Persistir cambios
             saveCandidatesToFile();
             savePartiesToFile();
-
-            System.out.println("[" + timestamp + "] [CandidateManager] ✅ Carga completada:");
-            System.out.println("   Candidatos cargados: " + candidatesLoaded);
-            System.out.println("   Partidos cargados: " + partiesLoaded);
-            System.out.println("   Total candidatos activos: " + getActiveCandidates().size());
-
-            return candidatesLoaded > 0; // Éxito si se cargó al menos un candidato
-
-        } catch (Exception e) {
-            System.err.println("[CandidateManager] Error cargando CSV: " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
-    }
 
-    /**
-     * Limpiar campo CSV (remover espacios y comillas)
-     */
-    private String cleanField(String field) {
-        if (field == null) return "";
-        return field.trim().replaceAll("^\"|\"$", ""); // Remover comillas del inicio y final
+        System.out.println("[" + timestamp + "] [CandidateManager] ✅ Carga completada: " + result);
+        System.out.println("   Candidatos cargados: " + result.candidates.size());
+        System.out.println("   Partidos nuevos: " + partiesLoaded);
+        System.out.println("   Total candidatos activos: " + getActiveCandidates().size());
+
+        return true;
     }
 
     /**
      * Obtener candidato por ID
      */
     public Candidate getCandidate(String candidateId) {
-        return candidates.get(candidateId);
+        return state.candidates.get(candidateId);
     }
 
     /**
      * Obtener partido por ID
      */
     public PoliticalParty getParty(String partyId) {
-        return parties.get(partyId);
+        return state.parties.get(partyId);
     }
 
     /**
-     * Obtener todos los candidatos activos
+     * Obtener todos los candidatos activos (ordenados por posición, lista inmutable)
      */
     public List<Candidate> getActiveCandidates() {
-        return candidates.values().stream()
-                .filter(c -> c.isActive)
-                .sorted((a, b) -> Integer.compare(a.position, b.position))
-                .collect(java.util.stream.Collectors.toList());
+        return state.activeCandidates;
     }
 
     /**
      * Obtener todos los partidos
      */
     public List<PoliticalParty> getAllParties() {
-        return new ArrayList<>(parties.values());
+        return new ArrayList<>(state.parties.values());
     }
 
     /**
@@ -315,6 +267,8 @@ public class CandidateManager {
     public void printCandidatesInfo() {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("\n[" + timestamp + "] [CandidateManager] === INFORMACIÓN DE CANDIDATOS ===");
+        State current = state;
+        Map<String, Candidate> candidates = current.candidates;
 
         if (candidates.isEmpty()) {
             System.out.println("📊 No hay candidatos registrados");
@@ -325,7 +279,7 @@ public class CandidateManager {
         System.out.println("🗳️  CANDIDATOS REGISTRADOS:");
         System.out.println("   " + "─".repeat(80));
 
-        List<Candidate> activeCandidates = getActiveCandidates();
+        List<Candidate> activeCandidates = current.activeCandidates;
 
         for (Candidate candidate : activeCandidates) {
             PoliticalParty party = getParty(candidate.partyId);
@@ -340,10 +294,10 @@ public class CandidateManager {
         System.out.println("📊 RESUMEN:");
         System.out.println("   Total candidatos: " + candidates.size());
         System.out.println("   Candidatos activos: " + activeCandidates.size());
-        System.out.println("   Partidos políticos: " + parties.size());
+        System.out.println("   Partidos políticos: " + current.parties.size());
 
         System.out.println("\n🏛️  PARTIDOS POLÍTICOS:");
-        for (PoliticalParty party : getAllParties()) {
+        for (PoliticalParty party : current.parties.values()) {
             long candidateCount = candidates.values().stream()
                     .filter(c -> c.partyId.equals(party.id) && c.isActive)
                     .count();
@@ -356,7 +310,7 @@ public class CandidateManager {
     /**
      * Inicializar candidatos por defecto
      */
-    private void initializeDefaultCandidates() {
+    private void initializeDefaultCandidates(Map<String, Candidate> candidates, Map<String, PoliticalParty> parties) {
         // Partidos por defecto
         parties.put("party001", new PoliticalParty("party001", "Partido Azul", "#0066CC", "Centro-derecha", "🔵"));
         parties.put("party002", new PoliticalParty("party002", "Partido Verde", "#00AA44", "Ecologista", "🟢"));
@@ -370,24 +324,18 @@ public class CandidateManager {
         candidates.put("candidate004", new Candidate("candidate004", "Ana", "Martínez", "party004", 4, "👩‍⚖️", "Abogada constitucionalista", true));
     }
 
-    /**
-     * Cargar datos existentes desde archivos
-     */
-    private void loadExistingData() {
-        loadPartiesFromFile();
-        loadCandidatesFromFile();
-    }
-
     /**
      * Guardar candidatos a archivo
      */
     private void saveCandidatesToFile() {
         try (PrintWriter writer = new PrintWriter(new FileWriter(candidatesFile))) {
             writer.println("candidateId,firstName,lastName,partyId,position,photo,biography,isActive");
-            for (Candidate candidate : candidates.values()) {
+            for (Candidate candidate : state.candidates.values()) {
                 writer.println(String.format("%s,%s,%s,%s,%d,%s,\"%s\",%s",
-                        candidate.id, candidate.firstName, candidate.lastName, candidate.partyId,
-                        candidate.position, candidate.photo, candidate.biography, candidate.isActive));
+                        CandidateImporter.csvField(candidate.id), CandidateImporter.csvField(candidate.firstName),
+                        CandidateImporter.csvField(candidate.lastName), CandidateImporter.csvField(candidate.partyId),
+                        candidate.position, CandidateImporter.csvField(candidate.photo),
+                        candidate.biography.replace("\"", "\"\""), candidate.isActive));
             }
         } catch (IOException e) {
             System.err.println("[CandidateManager] Error guardando candidatos: " + e.getMessage());
@@ -400,9 +348,11 @@ public class CandidateManager {
     private void savePartiesToFile() {
         try (PrintWriter writer = new PrintWriter(new FileWriter(partiesFile))) {
             writer.println("partyId,name,color,ideology,logo");
-            for (PoliticalParty party : parties.values()) {
+            for (PoliticalParty party : state.parties.values()) {
                 writer.println(String.format("%s,\"%s\",%s,\"%s\",%s",
-                        party.id, party.name, party.color, party.ideology, party.logo));
+                        CandidateImporter.csvField(party.id), party.name.replace("\"", "\"\""),
+                        CandidateImporter.csvField(party.color), party.ideology.replace("\"", "\"\""),
+                        CandidateImporter.csvField(party.logo)));
             }
         } catch (IOException e) {
             System.err.println("[CandidateManager] Error guardando partidos: " + e.getMessage());
@@ -412,31 +362,23 @@ public class CandidateManager {
     /**
      * Cargar candidatos desde archivo
      */
-    private void loadCandidatesFromFile() {
+    private void loadCandidatesFromFile(Map<String, Candidate> candidates) {
         if (!candidatesFile.exists()) return;
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(candidatesFile))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // Saltar encabezados
-                }
-                if (line.trim().isEmpty()) continue;
-
-                String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)"); // Split considerando comillas
+        try {
+            List<CandidateImporter.Row> rows = CandidateImporter.readCsv(candidatesFile);
+            for (int i = 1; i < rows.size(); i++) { // Saltar encabezados
+                String[] parts = rows.get(i).fields;
                 if (parts.length >= 8) {
-                    String id = parts[0].trim();
-                    String firstName = parts[1].trim();
-                    String lastName = parts[2].trim();
-                    String partyId = parts[3].trim();
-                    int position = Integer.parseInt(parts[4].trim());
-                    String photo = parts[5].trim();
-                    String biography = parts[6].trim().replaceAll("^\"|\"$", ""); // Remover comillas
-                    boolean isActive = Boolean.parseBoolean(parts[7].trim());
-
-                    candidates.put(id, new Candidate(id, firstName, lastName, partyId, position, photo, biography, isActive));
+                    try {
+                        String id = parts[0].trim();
+                        candidates.put(id, new Candidate(id, parts[1].trim(), parts[2].trim(), parts[3].trim(),
+                                Integer.parseInt(parts[4].trim()), parts[5].trim(), parts[6].trim(),
+                                Boolean.parseBoolean(parts[7].trim())));
+                    } catch (NumberFormatException e) {
+                        System.err.println("[CandidateManager] Línea " + rows.get(i).lineNumber + " de " +
+                                candidatesFile.getName() + " inválida: " + e.getMessage());
+                    }
                 }
             }
         } catch (IOException e) {
@@ -447,32 +389,20 @@ public class CandidateManager {
     /**
      * Cargar partidos desde archivo
      */
-    private void loadPartiesFromFile() {
+    private void loadPartiesFromFile(Map<String, PoliticalParty> parties) {
         if (!partiesFile.exists()) return;
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(partiesFile))) {
-            String line;
-            boolean isFirstLine = true;
-            while ((line = reader.readLine()) != null) {
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // Saltar encabezados
-                }
-                if (line.trim().isEmpty()) continue;
-
-                String[] parts = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        try {
+            List<CandidateImporter.Row> rows = CandidateImporter.readCsv(partiesFile);
+            for (int i = 1; i < rows.size(); i++) { // Saltar encabezados
+                String[] parts = rows.get(i).fields;
                 if (parts.length >= 5) {
                     String id = parts[0].trim();
-                    String name = parts[1].trim().replaceAll("^\"|\"$", "");
-                    String color = parts[2].trim();
-                    String ideology = parts[3].trim().replaceAll("^\"|\"$", "");
-                    String logo = parts[4].trim();
-
-                    parties.put(id, new PoliticalParty(id, name, color, ideology, logo));
+                    parties.put(id, new PoliticalParty(id, parts[1].trim(), parts[2].trim(), parts[3].trim(), parts[4].trim()));
                 }
             }
         } catch (IOException e) {
             System.err.println("[CandidateManager] Error cargando partidos: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,17 @@
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import CandidateNotification.*;
+import com.zeroc.Ice.OperationMode;
+import com.zeroc.Ice.OutputStream;
 
 /**
  * CandidateNotificationManager - Sistema de notificaciones push para actualización de candidatos
@@ -12,14 +20,21 @@ import CandidateNotification.*;
 public class CandidateNotificationManager {
     private static final CandidateNotificationManager instance = new CandidateNotificationManager();
     private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final String ON_CATALOG_UPDATED = "onCatalogUpdated";
 
     // Registry de VotingMachines conectadas
     private final ConcurrentHashMap<String, VotingMachineCallbackPrx> connectedMachines = new ConcurrentHashMap<>();
+    // Versión del catálogo que tiene cada máquina (la reportada al registrarse o la última entregada)
+    private final ConcurrentHashMap<String, Long> machineVersions = new ConcurrentHashMap<>();
+    private final CandidateCatalog catalog = CandidateCatalog.getInstance();
     private final CopyOnWriteArrayList<CandidateUpdateListener> listeners = new CopyOnWriteArrayList<>();
 
-    // Cache de candidatos para envío rápido
-    private volatile List<CandidateData> currentCandidates = new ArrayList<>();
-    private volatile long lastUpdateTimestamp = System.currentTimeMillis();
+    // Fan-out asíncrono: ventana de envíos en vuelo y timeout por máquina
+    private volatile int maxInFlight = 256;
+    private volatile int machineTimeoutMillis = 5000;
+    private volatile FanOutResult lastFanOut;
+    private volatile int healthCheckBudgetMillis = 5000;
+    private volatile HealthSweepResult lastHealthSweep;
 
     private CandidateNotificationManager() {
         System.out.println("[CandidateNotificationManager] Sistema de notificaciones inicializado");
@@ -30,34 +45,53 @@ public class CandidateNotificationManager {
     }
 
     /**
-     * Registrar una VotingMachine para recibir notificaciones
+     * Configurar desde propiedades Ice (Notification.MaxInFlight, Notification.MachineTimeout,
+     * Notification.HealthCheckBudget)
      */
-    public synchronized void registerVotingMachine(String machineId, VotingMachineCallbackPrx callback) {
-        String timestamp = LocalDateTime.now().format(timeFormatter);
-
-        try {
-            // Verificar que la máquina esté activa
-            callback.ice_ping();
+    public void configure(com.zeroc.Ice.Properties properties) {
+        maxInFlight = Math.max(1, properties.getPropertyAsIntWithDefault("Notification.MaxInFlight", maxInFlight));
+        machineTimeoutMillis = Math.max(100, properties.getPropertyAsIntWithDefault("Notification.MachineTimeout", machineTimeoutMillis));
+        healthCheckBudgetMillis = Math.max(100, properties.getPropertyAsIntWithDefault("Notification.HealthCheckBudget", machineTimeoutMillis));
+        System.out.println("[CandidateNotificationManager] Fan-out: " + maxInFlight + " envíos en vuelo, timeout " +
+                machineTimeoutMillis + "ms por máquina");
+    }
 
-            connectedMachines.put(machineId, callback);
-            System.out.println("[" + timestamp + "] [CandidateNotificationManager] VotingMachine registrada: " + machineId);
-            System.out.println("[" + timestamp + "] [CandidateNotificationManager] Total máquinas conectadas: " + connectedMachines.size());
+    /**
+     * Registrar una VotingMachine para recibir notificaciones.
+     * Sin bloqueo global: el registro son dos escrituras en mapas concurrentes y el
+     * envío inicial del catálogo se hace después, sin frenar otros registros.
+     * Si el envío inicial falla el registro se deshace y la excepción llega al llamador.
+     */
+    public void registerVotingMachine(String machineId, VotingMachineCallbackPrx callback, long knownVersion)
+            throws Exception {
+        String timestamp = LocalDateTime.now().format(timeFormatter);
 
-            // Enviar candidatos actuales inmediatamente
-            sendCandidatesToMachine(machineId, callback);
+        machineVersions.put(machineId, knownVersion);
+        connectedMachines.put(machineId, callback);
 
+        try {
+            // Enviar lo que le falte del catálogo (si ya está al día basta con verificar que responde)
+            sendCatalogUpdate(machineId, callback, knownVersion);
         } catch (Exception e) {
+            if (connectedMachines.remove(machineId, callback)) {
+                machineVersions.remove(machineId);
+            }
             System.err.println("[" + timestamp + "] [CandidateNotificationManager] Error registrando máquina " + machineId + ": " + e.getMessage());
+            throw e;
         }
+
+        System.out.println("[" + timestamp + "] [CandidateNotificationManager] VotingMachine registrada: " + machineId +
+                " (total conectadas: " + connectedMachines.size() + ")");
     }
 
     /**
      * Desregistrar VotingMachine
      */
-    public synchronized void unregisterVotingMachine(String machineId) {
+    public void unregisterVotingMachine(String machineId) {
         String timestamp = LocalDateTime.now().format(timeFormatter);
 
         VotingMachineCallbackPrx removed = connectedMachines.remove(machineId);
+        machineVersions.remove(machineId);
         if (removed != null) {
             System.out.println("[" + timestamp + "] [CandidateNotificationManager] VotingMachine desregistrada: " + machineId);
             System.out.println("[" + timestamp + "] [CandidateNotificationManager] Total máquinas conectadas: " + connectedMachines.size());
@@ -71,109 +105,174 @@ public class CandidateNotificationManager {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("[" + timestamp + "] [CandidateNotificationManager] 🔄 Iniciando notificación de actualización de candidatos");
 
-        // Preparar datos de candidatos
-        currentCandidates = prepareCandidateData(candidateManager);
-        lastUpdateTimestamp = System.currentTimeMillis();
+        // Preparar datos de candidatos y publicar nueva versión del catálogo
+        publishCatalog(candidateManager);
+        notifyCatalogChanged();
+    }
 
-        System.out.println("[" + timestamp + "] [CandidateNotificationManager] Candidatos preparados: " + currentCandidates.size());
+    /**
+     * Enviar la versión actual del catálogo a las máquinas (o relays) que no la tengan
+     */
+    public void notifyCatalogChanged() {
+        String timestamp = LocalDateTime.now().format(timeFormatter);
+        System.out.println("[" + timestamp + "] [CandidateNotificationManager] Candidatos preparados: " + catalog.getCandidates().size() +
+                " (versión " + catalog.getVersion() + ")");
         System.out.println("[" + timestamp + "] [CandidateNotificationManager] Notificando a " + connectedMachines.size() + " máquinas...");
 
-        // Notificar a todas las máquinas conectadas
-        int successCount = 0;
-        int failureCount = 0;
-        List<String> failedMachines = new ArrayList<>();
-
-        for (Map.Entry<String, VotingMachineCallbackPrx> entry : connectedMachines.entrySet()) {
-            String machineId = entry.getKey();
-            VotingMachineCallbackPrx callback = entry.getValue();
-
-            try {
-                sendCandidatesToMachine(machineId, callback);
-                successCount++;
-                System.out.println("[" + timestamp + "] [CandidateNotificationManager] ✅ Notificado a: " + machineId);
-
-            } catch (Exception e) {
-                failureCount++;
-                failedMachines.add(machineId);
-                System.err.println("[" + timestamp + "] [CandidateNotificationManager] ❌ Error notificando a " + machineId + ": " + e.getMessage());
-            }
-        }
+        FanOutResult result = fanOut();
+        lastFanOut = result;
 
         // Limpiar máquinas que fallaron (probablemente desconectadas)
-        for (String failedMachine : failedMachines) {
-            unregisterVotingMachine(failedMachine);
+        for (Map.Entry<String, VotingMachineCallbackPrx> failed : result.failedMachines.entrySet()) {
+            if (connectedMachines.remove(failed.getKey(), failed.getValue())) {
+                machineVersions.remove(failed.getKey());
+                System.out.println("[" + timestamp + "] [CandidateNotificationManager] VotingMachine desregistrada: " + failed.getKey());
+            }
         }
 
         // Notificar a listeners internos
         notifyListeners();
 
         System.out.println("[" + timestamp + "] [CandidateNotificationManager] 📊 Notificación completada:");
-        System.out.println("   ✅ Exitosas: " + successCount);
-        System.out.println("   ❌ Fallidas: " + failureCount);
+        System.out.println("   ✅ Exitosas: " + result.successCount.get() + " (delta: " + result.deltaCount.get() +
+                ", completas: " + result.fullCount.get() + ", ya al día: " + result.upToDate + ")");
+        System.out.println("   ❌ Fallidas: " + result.failedMachines.size());
+        System.out.println("   📦 Payloads serializados: " + result.encodedPayloads + " (" + result.encodedBytes +
+                " bytes) para " + result.targets + " máquinas");
+        if (!result.failedMachines.isEmpty()) {
+            for (String error : result.errors) {
+                System.err.println("      " + error);
+            }
+        }
+        System.out.println("   ⏱️  Duración total: " + result.elapsedMillis + " ms (máquina más lenta: " +
+                result.slowestMillis.get() + " ms)");
         System.out.println("   🔗 Máquinas activas: " + connectedMachines.size());
     }
 
+    public long getCatalogVersion() {
+        return catalog.getVersion();
+    }
+
     /**
-     * Enviar candidatos a una máquina específica
+     * Construir y publicar la instantánea del catálogo desde el CandidateManager
      */
-    private void sendCandidatesToMachine(String machineId, VotingMachineCallbackPrx callback) throws Exception {
-        CandidateUpdateNotification notification = new CandidateUpdateNotification();
-        notification.updateTimestamp = lastUpdateTimestamp;
-        notification.candidates = currentCandidates.toArray(new CandidateData[0]);
-        notification.totalCandidates = currentCandidates.size();
-
-        callback.onCandidatesUpdated(notification);
+    public long publishCatalog(CandidateManager candidateManager) {
+        return catalog.publish(candidateManager);
     }
 
     /**
-     * Preparar datos de candidatos para envío
+     * Envío asíncrono a todas las máquinas con ventana acotada.
+     * El tiempo total depende de la máquina más lenta (o del timeout), no de la suma.
+     * Cada máquina recibe solo lo que le falta según su versión del catálogo; cada
+     * actualización distinta se serializa una sola vez y se reenvía con ice_invoke.
      */
-    private List<CandidateData> prepareCandidateData(CandidateManager candidateManager) {
-        List<CandidateData> candidateList = new ArrayList<>();
-
-        for (CandidateManager.Candidate candidate : candidateManager.getActiveCandidates()) {
-            CandidateManager.PoliticalParty party = candidateManager.getParty(candidate.partyId);
-
-            CandidateData info = new CandidateData();
-            info.candidateId = candidate.id;
-            info.firstName = candidate.firstName;
-            info.lastName = candidate.lastName;
-            info.fullName = candidate.fullName;
-            info.position = candidate.position;
-            info.photo = candidate.photo;
-            info.biography = candidate.biography;
-            info.isActive = candidate.isActive;
-
-            if (party != null) {
-                info.partyId = party.id;
-                info.partyName = party.name;
-                info.partyColor = party.color;
-                info.partyIdeology = party.ideology;
-                info.partyLogo = party.logo;
+    private FanOutResult fanOut() {
+        long currentVersion = catalog.getVersion();
+        Map<String, VotingMachineCallbackPrx> targets = new HashMap<>();
+        int upToDate = 0;
+        for (Map.Entry<String, VotingMachineCallbackPrx> entry : connectedMachines.entrySet()) {
+            if (machineVersions.getOrDefault(entry.getKey(), 0L) == currentVersion) {
+                upToDate++;
+            } else {
+                targets.put(entry.getKey(), entry.getValue());
             }
+        }
 
-            candidateList.add(info);
+        FanOutResult result = new FanOutResult(targets.size());
+        result.upToDate = upToDate;
+        // Las actualizaciones son objetos compartidos por versión base: se codifican una vez por instancia
+        Map<CandidateCatalogUpdate, byte[]> payloads = new IdentityHashMap<>();
+        Semaphore window = new Semaphore(maxInFlight);
+        CountDownLatch done = new CountDownLatch(targets.size());
+        int timeout = machineTimeoutMillis;
+        long start = System.currentTimeMillis();
+
+        for (Map.Entry<String, VotingMachineCallbackPrx> entry : targets.entrySet()) {
+            String machineId = entry.getKey();
+            VotingMachineCallbackPrx callback = entry.getValue();
+
+            try {
+                // Cada envío en vuelo termina como máximo en `timeout`, así que la ventana siempre avanza
+                if (!window.tryAcquire(timeout * 2L, TimeUnit.MILLISECONDS)) {
+                    result.recordFailure(machineId, callback, "ventana de envío agotada");
+                    done.countDown();
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.recordFailure(machineId, callback, "interrumpido");
+                done.countDown();
+                continue;
+            }
+
+            long sentAt = System.currentTimeMillis();
+            try {
+                CandidateCatalogUpdate update = catalog.updateFor(machineVersions.getOrDefault(machineId, 0L));
+                byte[] payload = payloads.get(update);
+                if (payload == null) {
+                    payload = encodeUpdate(callback, update);
+                    payloads.put(update, payload);
+                    result.encodedPayloads++;
+                    result.encodedBytes += payload.length;
+                }
+                callback.ice_invocationTimeout(timeout)
+                        .ice_invokeAsync(ON_CATALOG_UPDATED, OperationMode.Idempotent, payload)
+                        .whenComplete((invokeResult, error) -> {
+                            window.release();
+                            result.slowestMillis.accumulateAndGet(System.currentTimeMillis() - sentAt, Math::max);
+                            if (error == null && !invokeResult.returnValue) {
+                                result.recordFailure(machineId, callback, "excepción de usuario en " + ON_CATALOG_UPDATED);
+                            } else if (error == null) {
+                                result.successCount.incrementAndGet();
+                                (update.kind == CatalogUpdateKind.Delta ? result.deltaCount : result.fullCount).incrementAndGet();
+                                machineVersions.computeIfPresent(machineId, (id, v) -> Math.max(v, update.version));
+                            } else {
+                                result.recordFailure(machineId, callback, error.getClass().getSimpleName() +
+                                        (error.getMessage() != null ? ": " + error.getMessage() : ""));
+                            }
+                            done.countDown();
+                        });
+            } catch (Exception e) {
+                window.release();
+                result.recordFailure(machineId, callback, e.getMessage());
+                done.countDown();
+            }
         }
 
-        // Agregar opción de voto en blanco
-        CandidateData blankVote = new CandidateData();
-        blankVote.candidateId = "blank";
-        blankVote.firstName = "VOTO";
-        blankVote.lastName = "EN BLANCO";
-        blankVote.fullName = "VOTO EN BLANCO";
-        blankVote.position = 999;
-        blankVote.photo = "📊";
-        blankVote.biography = "Opción para votantes que no desean elegir candidato específico";
-        blankVote.isActive = true;
-        blankVote.partyId = "blank";
-        blankVote.partyName = "Voto en Blanco";
-        blankVote.partyColor = "#CCCCCC";
-        blankVote.partyIdeology = "Ninguna";
-        blankVote.partyLogo = "📊";
+        try {
+            if (!done.await(timeout * 2L, TimeUnit.MILLISECONDS)) {
+                System.err.println("[CandidateNotificationManager] ⚠️ Fan-out terminó con " + done.getCount() + " envíos sin respuesta");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
-        candidateList.add(blankVote);
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
 
-        return candidateList;
+    /**
+     * Serializar la actualización con la misma codificación que usaría el proxy generado
+     */
+    private static byte[] encodeUpdate(VotingMachineCallbackPrx callback, CandidateCatalogUpdate update) {
+        OutputStream out = new OutputStream(callback.ice_getCommunicator(), callback.ice_getEncodingVersion());
+        out.startEncapsulation();
+        CandidateCatalogUpdate.ice_write(out, update);
+        out.endEncapsulation();
+        return out.finished();
+    }
+
+    /**
+     * Enviar a una máquina lo que le falta desde knownVersion
+     */
+    private void sendCatalogUpdate(String machineId, VotingMachineCallbackPrx callback, long knownVersion) throws Exception {
+        CandidateCatalogUpdate update = catalog.updateFor(knownVersion);
+        if (update.kind != CatalogUpdateKind.Unchanged) {
+            callback.ice_invocationTimeout(machineTimeoutMillis).onCatalogUpdated(update);
+        } else {
+            callback.ice_invocationTimeout(machineTimeoutMillis).ice_ping();
+        }
+        machineVersions.computeIfPresent(machineId, (id, v) -> Math.max(v, update.version));
     }
 
     /**
@@ -189,7 +288,7 @@ public class CandidateNotificationManager {
     private void notifyListeners() {
         for (CandidateUpdateListener listener : listeners) {
             try {
-                listener.onCandidatesUpdated(currentCandidates);
+                listener.onCandidatesUpdated(catalog.getCandidates());
             } catch (Exception e) {
                 System.err.println("[CandidateNotificationManager] Error notificando listener: " + e.getMessage());
             }
@@ -203,8 +302,18 @@ public class CandidateNotificationManager {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("\n[" + timestamp + "] [CandidateNotificationManager] === ESTADO DE CONECTIVIDAD ===");
         System.out.println("Máquinas conectadas: " + connectedMachines.size());
-        System.out.println("Última actualización: " + new Date(lastUpdateTimestamp));
-        System.out.println("Candidatos en cache: " + currentCandidates.size());
+        System.out.println("Última actualización: " + new Date(catalog.getTimestamp()));
+        System.out.println("Candidatos en cache: " + catalog.getCandidates().size());
+        System.out.println("Catálogo: " + catalog.getStats());
+        System.out.println("Ventana de fan-out: " + maxInFlight + " | timeout por máquina: " + machineTimeoutMillis + " ms");
+        FanOutResult last = lastFanOut;
+        if (last != null) {
+            System.out.println("Último fan-out: " + last);
+        }
+        HealthSweepResult sweep = lastHealthSweep;
+        if (sweep != null) {
+            System.out.println("Último health check: " + sweep);
+        }
 
         if (!connectedMachines.isEmpty()) {
             System.out.println("\nMáquinas activas:");
@@ -216,33 +325,157 @@ public class CandidateNotificationManager {
     }
 
     /**
-     * Verificar conectividad de máquinas registradas
+     * Verificar conectividad de máquinas registradas: pings asíncronos concurrentes
+     * (ventana Notification.MaxInFlight) con presupuesto total Notification.HealthCheckBudget.
+     * El presupuesto limita cuándo se puede enviar un ping, no cuánto se le espera: cada ping
+     * tiene al menos Notification.MachineTimeout, así una máquina sana enviada al final del
+     * barrido no se declara muerta. Las que no responden antes del cierre quedan sin verificar.
      */
-    public void healthCheck() {
+    public HealthSweepResult healthCheck() {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("[" + timestamp + "] [CandidateNotificationManager] Ejecutando health check...");
 
-        List<String> disconnectedMachines = new ArrayList<>();
+        Map<String, VotingMachineCallbackPrx> targets = new HashMap<>(connectedMachines);
+        HealthSweepResult result = new HealthSweepResult(targets.size());
+        Semaphore window = new Semaphore(maxInFlight);
+        CountDownLatch done = new CountDownLatch(targets.size());
+        int budget = healthCheckBudgetMillis;
+        int pingTimeout = machineTimeoutMillis;
+        long start = System.currentTimeMillis();
+        long deadline = start + budget;
 
-        for (Map.Entry<String, VotingMachineCallbackPrx> entry : connectedMachines.entrySet()) {
+        for (Map.Entry<String, VotingMachineCallbackPrx> entry : targets.entrySet()) {
             String machineId = entry.getKey();
             VotingMachineCallbackPrx callback = entry.getValue();
 
+            long remaining = deadline - System.currentTimeMillis();
+            try {
+                if (remaining <= 0 || !window.tryAcquire(remaining, TimeUnit.MILLISECONDS)) {
+                    // Presupuesto agotado antes de poder enviar: no se decide nada sobre esta máquina
+                    result.notChecked.incrementAndGet();
+                    done.countDown();
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.notChecked.incrementAndGet();
+                done.countDown();
+                continue;
+            }
+
             try {
-                callback.ice_ping();
-                System.out.println("[" + timestamp + "] [CandidateNotificationManager] ✅ " + machineId + " - CONECTADA");
+                int timeout = (int) Math.max(pingTimeout, deadline - System.currentTimeMillis());
+                callback.ice_invocationTimeout(timeout)
+                        .ice_pingAsync()
+                        .whenComplete((ok, error) -> {
+                            window.release();
+                            if (error == null) {
+                                result.recordAlive();
+                            } else {
+                                result.recordDead(machineId, callback);
+                            }
+                            done.countDown();
+                        });
             } catch (Exception e) {
-                System.out.println("[" + timestamp + "] [CandidateNotificationManager] ❌ " + machineId + " - DESCONECTADA");
-                disconnectedMachines.add(machineId);
+                window.release();
+                result.recordDead(machineId, callback);
+                done.countDown();
+            }
+        }
+
+        try {
+            // El último ping pudo salir justo al final del presupuesto con su timeout completo
+            done.await(Math.max(0, deadline - System.currentTimeMillis()) + pingTimeout + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        result.close();
+        result.elapsedMillis = System.currentTimeMillis() - start;
+
+        // Limpiar máquinas desconectadas (solo si no se volvieron a registrar con otro proxy)
+        for (Map.Entry<String, VotingMachineCallbackPrx> dead : result.deadMachines.entrySet()) {
+            if (connectedMachines.remove(dead.getKey(), dead.getValue())) {
+                machineVersions.remove(dead.getKey());
+                System.out.println("[" + timestamp + "] [CandidateNotificationManager] ❌ " + dead.getKey() + " - DESCONECTADA");
             }
         }
+        lastHealthSweep = result;
+
+        System.out.println("[" + timestamp + "] [CandidateNotificationManager] Health check completado: " + result +
+                " | máquinas activas: " + connectedMachines.size());
+        return result;
+    }
+
+    /**
+     * Resultado de un barrido de health check
+     */
+    public static class HealthSweepResult {
+        public final int targets;
+        public final AtomicInteger alive = new AtomicInteger(0);
+        public final AtomicInteger notChecked = new AtomicInteger(0);
+        public final Map<String, VotingMachineCallbackPrx> deadMachines = new ConcurrentHashMap<>();
+        public volatile long elapsedMillis;
+        private boolean closed;
+
+        HealthSweepResult(int targets) {
+            this.targets = targets;
+        }
+
+        synchronized void recordAlive() {
+            if (!closed) alive.incrementAndGet();
+        }
+
+        synchronized void recordDead(String machineId, VotingMachineCallbackPrx callback) {
+            if (!closed) deadMachines.put(machineId, callback);
+        }
 
-        // Limpiar máquinas desconectadas
-        for (String machineId : disconnectedMachines) {
-            unregisterVotingMachine(machineId);
+        /**
+         * Cerrar el barrido: los pings sin respuesta todavía cuentan como sin verificar
+         */
+        synchronized void close() {
+            closed = true;
+            notChecked.addAndGet(targets - alive.get() - deadMachines.size() - notChecked.get());
         }
 
-        System.out.println("[" + timestamp + "] [CandidateNotificationManager] Health check completado. Máquinas activas: " + connectedMachines.size());
+        @Override
+        public String toString() {
+            return String.format("HealthSweep{máquinas=%d, vivas=%d, muertas=%d, sin verificar=%d, duración=%dms}",
+                    targets, alive.get(), deadMachines.size(), notChecked.get(), elapsedMillis);
+        }
+    }
+
+    /**
+     * Resultado de un fan-out de notificaciones
+     */
+    public static class FanOutResult {
+        public final int targets;
+        public final AtomicInteger successCount = new AtomicInteger(0);
+        public final AtomicInteger deltaCount = new AtomicInteger(0);
+        public final AtomicInteger fullCount = new AtomicInteger(0);
+        public volatile int upToDate;
+        public final AtomicLong slowestMillis = new AtomicLong(0);
+        public final Map<String, VotingMachineCallbackPrx> failedMachines = new ConcurrentHashMap<>();
+        public final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        public volatile long elapsedMillis;
+        public int encodedPayloads;
+        public long encodedBytes;
+
+        FanOutResult(int targets) {
+            this.targets = targets;
+        }
+
+        void recordFailure(String machineId, VotingMachineCallbackPrx callback, String reason) {
+            failedMachines.put(machineId, callback);
+            errors.add(machineId + ": " + reason);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("FanOut{máquinas=%d, exitosas=%d (delta=%d, completas=%d), al día=%d, fallidas=%d, " +
+                            "payloads=%d (%d bytes), duración=%dms, más lenta=%dms}",
+                    targets, successCount.get(), deltaCount.get(), fullCount.get(), upToDate,
+                    failedMachines.size(), encodedPayloads, encodedBytes, elapsedMillis, slowestMillis.get());
+        }
     }
 
     public interface CandidateUpdateListener {
@@ -0,0 +1,176 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CandidateRegistry - Internado de IDs de candidato a ordinales compactos
+ *
+ * Cada ID de candidato ("candidate001", "blank", ...) recibe un ordinal pequeño y
+ * estable que es lo que se guarda en memoria, en los conteos y en el archivo de
+ * votos. El String solo se usa para mostrar y en las operaciones Slice existentes.
+ * La tabla se persiste en config/db/candidate-ordinals.csv y solo crece, así un
+ * ordinal escrito en disco siempre significa el mismo candidato. Por eso los IDs que
+ * llegan de los clientes se validan contra el catálogo antes de internarlos
+ * (VoteCommitPipeline) y aquí se rechazan los que romperían el formato del archivo.
+ */
+public class CandidateRegistry {
+    private static final CandidateRegistry instance = new CandidateRegistry();
+
+    // Prefijo de los ordinales en el archivo de votos (distingue "#3" de un ID numérico "3")
+    public static final char ORDINAL_PREFIX = '#';
+
+    private final File file = new File("config/db/candidate-ordinals.csv");
+    private final ConcurrentHashMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[0];
+
+    private CandidateRegistry() {
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+
+        load();
+        if (ids.length == 0) {
+            register("blank");
+        }
+
+        System.out.println("[CandidateRegistry] " + ids.length + " candidatos internados");
+    }
+
+    public static CandidateRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Ordinal del candidato; si es nuevo se le asigna el siguiente. UncheckedIOException si
+     * no se pudo escribir en disco (el ordinal no se asigna: un voto no puede apuntar a él)
+     */
+    public int ordinalOf(String candidateId) {
+        Integer ordinal = ordinals.get(candidateId);
+        return ordinal != null ? ordinal : register(candidateId);
+    }
+
+    /**
+     * Ordinal ya asignado, o -1 si el ID nunca se internó (no crea entradas)
+     */
+    public int lookup(String candidateId) {
+        Integer ordinal = ordinals.get(candidateId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * ID del candidato para mostrar o para las operaciones Slice
+     */
+    public String idOf(int ordinal) {
+        String[] snapshot = ids;
+        return ordinal >= 0 && ordinal < snapshot.length ? snapshot[ordinal] : null;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Leer un candidato del archivo de votos: "#n" es ordinal, cualquier otro valor es un ID
+     * (formato anterior). -1 si es un ordinal que la tabla no tiene: no se interna "#n" como ID
+     */
+    public int parseStored(String value) {
+        if (value.length() > 1 && value.charAt(0) == ORDINAL_PREFIX) {
+            try {
+                int ordinal = Integer.parseInt(value.substring(1));
+                return idOf(ordinal) != null ? ordinal : -1;
+            } catch (NumberFormatException e) {
+                // Se trata como ID
+            }
+        }
+        return ordinalOf(value);
+    }
+
+    public static String formatStored(int ordinal) {
+        return ORDINAL_PREFIX + Integer.toString(ordinal);
+    }
+
+    private synchronized int register(String candidateId) {
+        Integer existing = ordinals.get(candidateId);
+        if (existing != null) {
+            return existing;
+        }
+        if (!isStorable(candidateId)) {
+            throw new IllegalArgumentException("ID de candidato no válido: '" + candidateId + "'");
+        }
+
+        // Con fsync antes de asignar: los votos que usan el ordinal también se escriben con fsync
+        int ordinal = ids.length;
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap((ordinal + "," + candidateId + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("[CandidateRegistry] Error persistiendo ordinal de " + candidateId + ": " + e.getMessage());
+            throw new UncheckedIOException("No se pudo persistir el ordinal de " + candidateId, e);
+        }
+
+        String[] next = Arrays.copyOf(ids, ordinal + 1);
+        next[ordinal] = candidateId;
+        ids = next;
+        ordinals.put(candidateId, ordinal);
+
+        System.out.println("[CandidateRegistry] Nuevo candidato " + candidateId + " -> #" + ordinal);
+        return ordinal;
+    }
+
+    /**
+     * Una línea "ordinal,id" por candidato: sin vacíos, espacios en los extremos ni caracteres de control
+     */
+    private static boolean isStorable(String candidateId) {
+        if (candidateId == null || candidateId.isEmpty() || !candidateId.equals(candidateId.trim())) {
+            return false;
+        }
+        for (int i = 0; i < candidateId.length(); i++) {
+            if (Character.isISOControl(candidateId.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+
+        String[] loaded = new String[0];
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma <= 0) continue;
+
+                int ordinal;
+                try {
+                    ordinal = Integer.parseInt(line.substring(0, comma).trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                String candidateId = line.substring(comma + 1).trim();
+                if (ordinal < 0 || candidateId.isEmpty() || ordinals.containsKey(candidateId)) continue;
+
+                if (ordinal >= loaded.length) {
+                    loaded = Arrays.copyOf(loaded, ordinal + 1);
+                }
+                loaded[ordinal] = candidateId;
+                ordinals.put(candidateId, ordinal);
+            }
+        } catch (IOException e) {
+            System.err.println("[CandidateRegistry] Error cargando ordinales: " + e.getMessage());
+        }
+        ids = loaded;
+    }
+}
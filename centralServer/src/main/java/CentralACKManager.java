@@ -7,6 +7,7 @@ import java.io.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -22,6 +23,8 @@ public class CentralACKManager {
     private final AtomicLong ackCounter = new AtomicLong(System.currentTimeMillis());
 
     private final List<String> writeBuffer = Collections.synchronizedList(new ArrayList<>());
+    // Entradas en writeBuffer, legible sin tomar el monitor de la lista (getServerStats)
+    private final AtomicInteger bufferedEntries = new AtomicInteger();
     private final int BUFFER_SIZE = 100;
     private volatile long lastFlush = System.currentTimeMillis();
     private final long FLUSH_INTERVAL = 2000; // 2 segundos
@@ -53,13 +56,13 @@ public class CentralACKManager {
      * Usa read locks para verificación y write locks solo cuando necesario
      */
     public String getOrCreateACK(String citizenId, String serverInfo) {
-        String timestamp = LocalDateTime.now().format(timeFormatter);
-
         rwLock.readLock().lock();
         try {
             String existingACK = citizenACKs.get(citizenId);
             if (existingACK != null) {
-                System.out.println("[" + timestamp + "] [CentralACKManager-FAST] [" + serverInfo + "] ACK cache hit: " + existingACK);
+                if (AsyncLog.sampleVote()) {
+                    AsyncLog.info("CentralACKManager-FAST", "[" + serverInfo + "] ACK cache hit: " + existingACK);
+                }
                 return existingACK;
             }
         } finally {
@@ -70,7 +73,9 @@ public class CentralACKManager {
         try {
             String existingACK = citizenACKs.get(citizenId);
             if (existingACK != null) {
-                System.out.println("[" + timestamp + "] [CentralACKManager-RACE] [" + serverInfo + "] ACK encontrado: " + existingACK);
+                if (AsyncLog.sampleVote()) {
+                    AsyncLog.info("CentralACKManager-RACE", "[" + serverInfo + "] ACK encontrado: " + existingACK);
+                }
                 return existingACK;
             }
 
@@ -79,7 +84,9 @@ public class CentralACKManager {
 
             addToWriteBuffer(citizenId, newACK);
 
-            System.out.println("[" + timestamp + "] [CentralACKManager-NEW] [" + serverInfo + "] ACK creado: " + newACK);
+            if (AsyncLog.sampleVote()) {
+                AsyncLog.info("CentralACKManager-NEW", "[" + serverInfo + "] ACK creado: " + newACK);
+            }
             return newACK;
 
         } finally {
@@ -87,6 +94,34 @@ public class CentralACKManager {
         }
     }
 
+    /**
+     * ACKs de un lote con un solo write lock; devuelve el ACK de cada ciudadano
+     */
+    public Map<String, String> getOrCreateACKs(Collection<String> citizenIds, String serverInfo) {
+        Map<String, String> acks = new HashMap<>(citizenIds.size() * 2);
+        int created = 0;
+
+        rwLock.writeLock().lock();
+        try {
+            for (String citizenId : citizenIds) {
+                String ack = citizenACKs.get(citizenId);
+                if (ack == null) {
+                    ack = generateOptimizedACK(serverInfo);
+                    citizenACKs.put(citizenId, ack);
+                    addToWriteBuffer(citizenId, ack);
+                    created++;
+                }
+                acks.put(citizenId, ack);
+            }
+        } finally {
+            rwLock.writeLock().unlock();
+        }
+
+        AsyncLog.debug("CentralACKManager-BATCH", "[" + serverInfo + "] " +
+                created + " ACKs creados, " + (acks.size() - created) + " existentes");
+        return acks;
+    }
+
     /**
      * Generación optimizada de ACK único centralizado
      */
@@ -120,6 +155,7 @@ public class CentralACKManager {
         String entry = timestamp + "," + citizenId + "," + ackId;
 
         writeBuffer.add(entry);
+        bufferedEntries.incrementAndGet();
 
         if (writeBuffer.size() >= BUFFER_SIZE ||
                 (System.currentTimeMillis() - lastFlush) > FLUSH_INTERVAL) {
@@ -138,8 +174,10 @@ public class CentralACKManager {
             synchronized (writeBuffer) {
                 toWrite = new ArrayList<>(writeBuffer);
                 writeBuffer.clear();
+                bufferedEntries.addAndGet(-toWrite.size());
             }
 
+            long fsyncStart = System.nanoTime();
             try (FileChannel channel = FileChannel.open(ackStateFile.toPath(),
                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
 
@@ -151,6 +189,7 @@ public class CentralACKManager {
                 channel.write(java.nio.ByteBuffer.wrap(batch.toString().getBytes()));
                 channel.force(false); // Sync metadata también si es crítico
             }
+            VoteMetrics.getInstance().recordLatency(VoteMetrics.Stage.ACK_FSYNC, System.nanoTime() - fsyncStart);
 
             lastFlush = System.currentTimeMillis();
 
@@ -170,6 +209,7 @@ public class CentralACKManager {
                 for (String entry : writeBuffer) {
                     fw.write(entry + "\n");
                 }
+                bufferedEntries.addAndGet(-writeBuffer.size());
                 writeBuffer.clear();
             }
             fw.flush();
@@ -320,6 +360,20 @@ public class CentralACKManager {
         }
     }
 
+    /**
+     * Total de ACKs sin tomar el read lock (tamaño del ConcurrentHashMap)
+     */
+    public int getTotalACKCount() {
+        return citizenACKs.size();
+    }
+
+    /**
+     * ACKs en buffer aún sin escribir a disco
+     */
+    public int getPendingWriteCount() {
+        return bufferedEntries.get();
+    }
+
     /**
      * Debug info con métricas de performance
      */
@@ -0,0 +1,114 @@
+//
+// CentralAdminClient - Cliente de línea de comandos para la faceta CentralAdmin
+//
+
+import Central.*;
+
+/**
+ * Administra un servidor central en modo headless a través de su faceta Ice.Admin.
+ *
+ * Uso: CentralAdminClient [--CentralAdmin.Proxy=...] comando [argumento]
+ *   load <ruta>  - cargar candidatos (.csv/.xlsx/.xls, ruta en el servidor central)
+ *   verify       - verificar integridad votos/ACKs
+ *   results      - resultados nacionales y por departamento
+ *   stats        - contadores del servidor
+ *   notify       - forzar notificación de candidatos a las máquinas
+ *
+ * Por defecto usa "CentralServer/admin -f CentralAdmin:tcp -h 127.0.0.1 -p 8898"
+ * (Ice.Admin.InstanceName / Ice.Admin.Endpoints de config.centralServer).
+ */
+public class CentralAdminClient {
+    private static final String DEFAULT_PROXY = "CentralServer/admin -f " + CentralAdminI.FACET + ":tcp -h 127.0.0.1 -p 8898";
+
+    public static void main(String[] args) {
+        com.zeroc.Ice.InitializationData initData = new com.zeroc.Ice.InitializationData();
+        initData.properties = com.zeroc.Ice.Util.createProperties(args);
+        String[] rest = initData.properties.parseCommandLineOptions("CentralAdmin", args);
+
+        int status = 0;
+        try (com.zeroc.Ice.Communicator communicator = com.zeroc.Ice.Util.initialize(rest, initData)) {
+            rest = communicator.getProperties().parseIceCommandLineOptions(rest);
+            String proxyString = communicator.getProperties().getPropertyWithDefault("CentralAdmin.Proxy", DEFAULT_PROXY);
+
+            if (rest.length == 0) {
+                usage();
+                status = 1;
+            } else {
+                CentralAdminPrx admin = CentralAdminPrx.checkedCast(communicator.stringToProxy(proxyString));
+                if (admin == null) {
+                    System.err.println("❌ El objeto no tiene la faceta " + CentralAdminI.FACET + ": " + proxyString);
+                    status = 1;
+                } else {
+                    status = execute(admin, rest);
+                }
+            }
+        } catch (CentralServerUnavailableException e) {
+            System.err.println("❌ Servidor central: " + e.reason);
+            status = 1;
+        } catch (com.zeroc.Ice.LocalException e) {
+            System.err.println("❌ No se pudo contactar la faceta de administración: " + e);
+            status = 1;
+        }
+        System.exit(status);
+    }
+
+    private static int execute(CentralAdminPrx admin, String[] args) throws CentralServerUnavailableException {
+        switch (args[0].toLowerCase()) {
+            case "load":
+                if (args.length < 2) {
+                    usage();
+                    return 1;
+                }
+                CandidateLoadResult load = admin.loadCandidates(args[1]);
+                System.out.println((load.success ? "✅ " : "❌ ") + load.message);
+                System.out.println("   Candidatos activos: " + load.activeCandidates + " | versión del catálogo: " + load.catalogVersion);
+                return load.success ? 0 : 1;
+
+            case "verify":
+                IntegrityReport report = admin.verifyIntegrity();
+                System.out.println(report.ok ? "✅ INTEGRIDAD: CORRECTA" : "⚠️  INTEGRIDAD: PROBLEMAS DETECTADOS");
+                System.out.println("   Votantes: " + report.totalVoters + " | ACKs: " + report.totalACKs +
+                        " | con ACK: " + report.votersWithACK + " | sin ACK: " + report.votersWithoutACK);
+                System.out.println(String.format("   Archivo de votos: %s (%.2f KB) | Archivo de ACKs: %s (%.2f KB)",
+                        report.voteFileExists ? "existe" : "no existe", report.voteFileBytes / 1024.0,
+                        report.ackFileExists ? "existe" : "no existe", report.ackFileBytes / 1024.0));
+                return report.ok ? 0 : 2;
+
+            case "results":
+                printResults("NACIONAL", admin.getNationalResults());
+                for (DepartmentResults department : admin.getAllDepartmentResults()) {
+                    printResults(department.departmentId, department);
+                }
+                return 0;
+
+            case "stats":
+                CentralServerStats stats = admin.getServerStats();
+                System.out.println(String.format("   Votos: %d | Únicos: %d | Duplicados: %d | Rechazados: %d | " +
+                                "En vuelo: %d | ACKs: %d (sin escribir: %d) | %.1f votos/s",
+                        stats.totalVotes, stats.uniqueVoters, stats.duplicateVotes, stats.rejectedVotes,
+                        stats.pipelineInFlight, stats.totalACKs, stats.ackBacklog, stats.votesPerSecond));
+                return 0;
+
+            case "notify":
+                admin.notifyCandidates();
+                System.out.println("✅ Notificación de candidatos enviada");
+                return 0;
+
+            default:
+                usage();
+                return 1;
+        }
+    }
+
+    private static void printResults(String scope, DepartmentResults results) {
+        System.out.println("📊 " + scope + " - " + results.totalVotes + " votos");
+        for (CandidateTally tally : results.tallies) {
+            double percentage = results.totalVotes > 0 ? tally.votes * 100.0 / results.totalVotes : 0.0;
+            System.out.println(String.format("   %-20s %,10d  %6.2f%%", tally.candidateId, tally.votes, percentage));
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Uso: CentralAdminClient [--CentralAdmin.Proxy=<proxy>] load <ruta> | verify | results | stats | notify");
+    }
+}
@@ -0,0 +1,103 @@
+//
+// CentralAdminI - Faceta de administración del servidor central (Ice.Admin, faceta "CentralAdmin")
+//
+
+import Central.*;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Acciones de la consola administrativa (carga de candidatos, verificación, resultados,
+ * notificación) sobre el objeto Ice.Admin del communicator. En modo headless no hay stdin:
+ * bajo IceGrid la faceta se alcanza con getServerAdmin(serverId) y, fuera de IceGrid, con
+ * Ice.Admin.Endpoints (ver CentralAdminClient).
+ */
+public class CentralAdminI implements CentralAdmin {
+    public static final String FACET = "CentralAdmin";
+
+    private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final CentralVotationI servant;
+    private final String serverName;
+
+    public CentralAdminI(CentralVotationI servant, String serverName) {
+        this.servant = servant;
+        this.serverName = serverName;
+    }
+
+    @Override
+    public CandidateLoadResult loadCandidates(String filePath, com.zeroc.Ice.Current current)
+            throws CentralServerUnavailableException {
+        log("📁 Carga de candidatos solicitada por administración: " + filePath);
+
+        if (filePath == null || filePath.trim().isEmpty() || !new File(filePath.trim()).isFile()) {
+            return new CandidateLoadResult(false, activeCandidates(), catalogVersion(),
+                    "Archivo no encontrado en el servidor central: " + filePath);
+        }
+
+        try {
+            boolean success = servant.loadCandidatesFromFile(filePath.trim());
+            return new CandidateLoadResult(success, activeCandidates(), catalogVersion(),
+                    success ? "Candidatos cargados y notificados" : "Error cargando candidatos (formato o contenido inválido)");
+        } catch (Exception e) {
+            throw unavailable("Error cargando candidatos: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public IntegrityReport verifyIntegrity(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
+        try {
+            IntegrityReport report = servant.checkDataIntegrity(null);
+            log((report.ok ? "✅" : "⚠️ ") + " Verificación de integridad: " + report.totalVoters + " votantes, " +
+                    report.totalACKs + " ACKs, " + report.votersWithoutACK + " sin ACK");
+            return report;
+        } catch (Exception e) {
+            throw unavailable("Error en verificación de integridad: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public DepartmentResults getNationalResults(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
+        return servant.getNationalResults(current);
+    }
+
+    @Override
+    public DepartmentResults[] getAllDepartmentResults(com.zeroc.Ice.Current current)
+            throws CentralServerUnavailableException {
+        return servant.getAllDepartmentResults(current);
+    }
+
+    @Override
+    public CentralServerStats getServerStats(com.zeroc.Ice.Current current) {
+        return servant.getServerStats(current);
+    }
+
+    @Override
+    public void notifyCandidates(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
+        log("🔔 Notificación de candidatos solicitada por administración");
+        try {
+            CandidateNotificationManager.getInstance().notifyCandidateUpdate(CandidateManager.getInstance());
+        } catch (Exception e) {
+            throw unavailable("Error en notificación de candidatos: " + e.getMessage());
+        }
+    }
+
+    private int activeCandidates() {
+        return CandidateManager.getInstance().getActiveCandidates().size();
+    }
+
+    private long catalogVersion() {
+        return CandidateNotificationManager.getInstance().getCatalogVersion();
+    }
+
+    private CentralServerUnavailableException unavailable(String reason) {
+        System.err.println("[" + LocalDateTime.now().format(timeFormatter) + "] [" + serverName + "-Admin] ❌ " + reason);
+        return new CentralServerUnavailableException(reason, System.currentTimeMillis());
+    }
+
+    private void log(String message) {
+        System.out.println("[" + LocalDateTime.now().format(timeFormatter) + "] [" + serverName + "-Admin] " + message);
+    }
+}
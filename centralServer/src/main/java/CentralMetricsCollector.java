@@ -0,0 +1,212 @@
+import Database.DatabaseEndpoint;
+import Database.DatabaseRouter;
+import Database.PoolMetrics;
+import Database.PoolPartition;
+import Query.HotDocumentCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CentralMetricsCollector - Métricas del servidor central para MetricsHttpServer
+ *
+ * Votos y duplicados, etapas del pipeline (colas, lotes, fallos), latencias por etapa y
+ * de fsync (ventana de VoteMetrics), ACKs, registro asíncrono, caches de ciudadanos y de
+ * documentos calientes, pools Hikari y thread pools de Ice. Los componentes opcionales
+ * (pipeline, router, caché caliente, observer de Ice) pueden ser null y se omiten.
+ */
+public class CentralMetricsCollector implements MetricsHttpServer.Collector {
+
+    private final CentralVoteManager voteManager;
+    private final CentralACKManager ackManager;
+    private final VoteCommitPipeline pipeline;
+    private final DatabaseRouter router;
+    private final HotDocumentCache hotCache;
+    private final IceThreadPoolObserver iceObserver;
+
+    public CentralMetricsCollector(CentralVoteManager voteManager, CentralACKManager ackManager,
+                                   VoteCommitPipeline pipeline, DatabaseRouter router,
+                                   HotDocumentCache hotCache, IceThreadPoolObserver iceObserver) {
+        this.voteManager = voteManager;
+        this.ackManager = ackManager;
+        this.pipeline = pipeline;
+        this.router = router;
+        this.hotCache = hotCache;
+        this.iceObserver = iceObserver;
+    }
+
+    @Override
+    public void collect(MetricsHttpServer.Exposition out) {
+        collectVotes(out);
+        if (pipeline != null) {
+            collectPipeline(out);
+        }
+        collectLatencies(out);
+        collectAcksAndLog(out);
+        collectCaches(out);
+        if (router != null) {
+            collectPools(out);
+        }
+        if (iceObserver != null) {
+            collectIceThreadPools(out);
+        }
+    }
+
+    private void collectVotes(MetricsHttpServer.Exposition out) {
+        VoteMetrics metrics = VoteMetrics.getInstance();
+        out.counter("central_votes_total", "Votos registrados por el vote manager", voteManager.getTotalVoteCount());
+        out.gauge("central_unique_voters", "Ciudadanos distintos con voto registrado", voteManager.getUniqueVoterCount());
+        out.counter("central_duplicate_votes_total", "Votos rechazados por duplicado", voteManager.getDuplicateCount());
+        out.family("central_votes_per_second", "gauge", "Votos por segundo en la ventana indicada")
+                .sample(metrics.getVotesPerSecond(10), "window", "10s")
+                .sample(metrics.getVotesPerSecond(60), "window", "60s");
+    }
+
+    private void collectPipeline(MetricsHttpServer.Exposition out) {
+        VoteCommitPipeline.PipelineStats stats = pipeline.getStats();
+        out.counter("central_pipeline_submitted_total", "Votos aceptados en la entrada del pipeline", stats.submitted);
+        out.counter("central_pipeline_rejected_total", "Votos rechazados por pipeline lleno", stats.rejected);
+        out.counter("central_pipeline_committed_total", "Votos persistidos por el pipeline", stats.committed);
+        out.gauge("central_pipeline_in_flight", "Votos en el pipeline sin respuesta", pipeline.getInFlightCount());
+
+        List<PipelineStage.StageStats> stages = pipeline.getStageStats();
+        out.family("central_pipeline_queue_depth", "gauge", "Elementos en cola por etapa");
+        for (PipelineStage.StageStats stage : stages) {
+            out.sample(stage.queueDepth, "stage", stage.name);
+        }
+        out.family("central_pipeline_queue_peak_depth", "gauge", "Profundidad máxima de cola por etapa");
+        for (PipelineStage.StageStats stage : stages) {
+            out.sample(stage.peakQueueDepth, "stage", stage.name);
+        }
+        out.family("central_pipeline_threads", "gauge", "Hilos por etapa");
+        for (PipelineStage.StageStats stage : stages) {
+            out.sample(stage.threads, "stage", stage.name);
+        }
+        out.family("central_pipeline_processed_total", "counter", "Elementos procesados por etapa");
+        for (PipelineStage.StageStats stage : stages) {
+            out.sample(stage.processed, "stage", stage.name);
+        }
+        out.family("central_pipeline_batches_total", "counter", "Lotes procesados por etapa");
+        for (PipelineStage.StageStats stage : stages) {
+            out.sample(stage.batches, "stage", stage.name);
+        }
+        out.family("central_pipeline_failures_total", "counter", "Lotes fallidos por etapa");
+        for (PipelineStage.StageStats stage : stages) {
+            out.sample(stage.failures, "stage", stage.name);
+        }
+        out.family("central_pipeline_busy_seconds_total", "counter", "Tiempo de servicio acumulado por etapa");
+        for (PipelineStage.StageStats stage : stages) {
+            out.sample(stage.busyNanos / 1e9, "stage", stage.name);
+        }
+    }
+
+    private void collectLatencies(MetricsHttpServer.Exposition out) {
+        VoteMetrics metrics = VoteMetrics.getInstance();
+        List<VoteMetrics.StageLatency> snapshot = metrics.getLatencySnapshot();
+
+        out.gauge("central_latency_window_seconds", "Duración de la ventana de latencias", metrics.getWindowSeconds());
+        out.family("central_stage_latency_microseconds", "gauge",
+                "Latencia por etapa en la ventana (incluye vote_fsync y ack_fsync)");
+        for (VoteMetrics.StageLatency latency : snapshot) {
+            String stage = latency.stage.name().toLowerCase(Locale.ROOT);
+            out.sample(latency.p50Micros, "stage", stage, "quantile", "0.5")
+                    .sample(latency.p90Micros, "stage", stage, "quantile", "0.9")
+                    .sample(latency.p99Micros, "stage", stage, "quantile", "0.99")
+                    .sample(latency.maxMicros, "stage", stage, "quantile", "1");
+        }
+        out.family("central_stage_latency_window_count", "gauge", "Muestras por etapa en la ventana");
+        for (VoteMetrics.StageLatency latency : snapshot) {
+            out.sample(latency.count, "stage", latency.stage.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private void collectAcksAndLog(MetricsHttpServer.Exposition out) {
+        out.gauge("central_acks", "ACKs emitidos en memoria", ackManager.getTotalACKCount());
+        out.gauge("central_ack_pending_writes", "ACKs en buffer sin fsync", ackManager.getPendingWriteCount());
+        out.counter("central_async_log_dropped_total", "Entradas de log descartadas por buffer lleno",
+                AsyncLog.getDroppedCount());
+        out.gauge("central_async_log_pending", "Entradas de log en buffer", AsyncLog.getPendingCount());
+    }
+
+    private void collectCaches(MetricsHttpServer.Exposition out) {
+        long hits = CitizenDAO.getCacheHits();
+        long misses = CitizenDAO.getCacheMisses();
+        out.counter("central_citizen_cache_hits_total", "Validaciones resueltas por la caché de ciudadanos", hits);
+        out.counter("central_citizen_cache_misses_total", "Validaciones que consultaron la BD", misses);
+        out.gauge("central_citizen_cache_hit_ratio", "Aciertos / consultas de la caché de ciudadanos",
+                hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+
+        if (hotCache != null) {
+            HotDocumentCache.CacheStats stats = hotCache.getStats();
+            out.counter("central_hot_cache_requests_total", "Consultas a la caché de documentos calientes", stats.requests);
+            out.counter("central_hot_cache_hits_total", "Consultas servidas por documentos fijados", stats.hotHits);
+            out.counter("central_hot_cache_collapsed_total", "Consultas colapsadas en una carga en curso", stats.collapsed);
+            out.counter("central_hot_cache_database_loads_total", "Cargas a la BD", stats.databaseLoads);
+            out.gauge("central_hot_cache_pinned", "Documentos fijados", stats.pinned);
+            out.gauge("central_hot_cache_hit_ratio", "Consultas que no llegaron a la BD / consultas",
+                    stats.getShieldRate() / 100.0);
+        }
+    }
+
+    private void collectPools(MetricsHttpServer.Exposition out) {
+        List<PoolPartition> pools = new ArrayList<>();
+        List<String> endpoints = new ArrayList<>();
+        for (DatabaseEndpoint endpoint : router.getEndpoints()) {
+            for (PoolPartition pool : endpoint.getPartitions()) {
+                pools.add(pool);
+                endpoints.add(endpoint.getName());
+            }
+        }
+
+        poolFamily(out, pools, endpoints, "central_db_pool_active_connections", "gauge",
+                "Conexiones en uso", m -> m.getActiveConnections());
+        poolFamily(out, pools, endpoints, "central_db_pool_idle_connections", "gauge",
+                "Conexiones libres", m -> m.getIdleConnections());
+        poolFamily(out, pools, endpoints, "central_db_pool_pending_threads", "gauge",
+                "Hilos esperando conexión", m -> m.getPendingThreads());
+        out.family("central_db_pool_max_connections", "gauge", "Tamaño máximo del pool");
+        for (int i = 0; i < pools.size(); i++) {
+            PoolPartition pool = pools.get(i);
+            out.sample(pool.getMaxSize(), "pool", pool.getPoolName(), "endpoint", endpoints.get(i),
+                    "workload", pool.getWorkload());
+        }
+        poolFamily(out, pools, endpoints, "central_db_pool_acquisitions_total", "counter",
+                "Conexiones obtenidas del pool", m -> m.getAcquisitions());
+        poolFamily(out, pools, endpoints, "central_db_pool_timeouts_total", "counter",
+                "Esperas de conexión agotadas", m -> m.getTimeouts());
+        poolFamily(out, pools, endpoints, "central_db_pool_connections_created_total", "counter",
+                "Conexiones físicas creadas", m -> m.getConnectionsCreated());
+        poolFamily(out, pools, endpoints, "central_db_pool_wait_p99_microseconds", "gauge",
+                "Percentil 99 de espera por conexión", m -> m.getWaitPercentileMicros(99));
+        poolFamily(out, pools, endpoints, "central_db_pool_wait_max_microseconds", "gauge",
+                "Espera máxima por conexión", m -> m.getMaxWaitMicros());
+    }
+
+    private interface PoolValue {
+        double of(PoolMetrics metrics);
+    }
+
+    private static void poolFamily(MetricsHttpServer.Exposition out, List<PoolPartition> pools, List<String> endpoints,
+                                   String name, String type, String help, PoolValue value) {
+        out.family(name, type, help);
+        for (int i = 0; i < pools.size(); i++) {
+            PoolPartition pool = pools.get(i);
+            out.sample(value.of(pool.getMetrics()), "pool", pool.getPoolName(), "endpoint", endpoints.get(i),
+                    "workload", pool.getWorkload());
+        }
+    }
+
+    private void collectIceThreadPools(MetricsHttpServer.Exposition out) {
+        Map<String, int[]> usage = iceObserver.getUsage();
+        out.family("central_ice_threadpool_threads", "gauge", "Hilos vivos por thread pool de Ice");
+        for (Map.Entry<String, int[]> pool : usage.entrySet()) {
+            out.sample(pool.getValue()[0], "pool", pool.getKey());
+        }
+        out.family("central_ice_threadpool_in_use", "gauge", "Hilos ocupados por thread pool de Ice");
+        for (Map.Entry<String, int[]> pool : usage.entrySet()) {
+            out.sample(pool.getValue()[1], "pool", pool.getKey());
+        }
+    }
+}
@@ -2,6 +2,7 @@
 // CentralServer - Servidor Central Único con acceso exclusivo a base de datos
 //
 
+import Database.DatabaseRouter;
 import Query.QueryStationI;
 
 import java.time.LocalDateTime;
@@ -9,6 +10,8 @@ import java.time.format.DateTimeFormatter;
 
 public class CentralServer {
     private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final IceThreadPoolObserver iceObserver = new IceThreadPoolObserver();
+    private static volatile MetricsHttpServer metricsServer;
 
     public static void main(String[] args) {
         System.out.println("████████████████████████████████████████████████████████████");
@@ -20,7 +23,23 @@ public class CentralServer {
         int status = 0;
         java.util.List<String> extraArgs = new java.util.ArrayList<>();
 
-        try (com.zeroc.Ice.Communicator communicator = com.zeroc.Ice.Util.initialize(args, "config.centralServer", extraArgs)) {
+        // Observer de Ice para exponer el uso de sus thread pools en /metrics
+        com.zeroc.Ice.InitializationData initData = new com.zeroc.Ice.InitializationData();
+        initData.properties = com.zeroc.Ice.Util.createProperties(args);
+        if (initData.properties.getProperty("Ice.Config").isEmpty()) {
+            initData.properties.load("config.centralServer");
+        }
+        initData.observer = iceObserver;
+        // --Central.* en línea de comandos tiene prioridad sobre el archivo de configuración
+        String[] iceArgs = initData.properties.parseCommandLineOptions("Central", args);
+
+        // Modo headless (IceGrid): sin consola ni Swing; la administración va por la faceta CentralAdmin
+        boolean headless = initData.properties.getPropertyAsIntWithDefault("Central.Headless", 0) == 1;
+        if (headless) {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        try (com.zeroc.Ice.Communicator communicator = com.zeroc.Ice.Util.initialize(iceArgs, initData, extraArgs)) {
 
             // Configurar propiedades básicas
             communicator.getProperties().setProperty("Ice.Default.Package", "com.zeroc.demos.IceGrid.central");
@@ -30,8 +49,14 @@ public class CentralServer {
 
                 // Shutdown de componentes críticos
                 try {
+                    if (metricsServer != null) {
+                        metricsServer.stop();
+                    }
                     CentralVoteManager.getInstance().shutdown();
                     CentralACKManager.getInstance().shutdown();
+                    if (DatabaseRouter.isInitialized()) {
+                        DatabaseRouter.getInstance().shutdown();
+                    }
                     System.out.println("[CentralServer] Componentes terminados correctamente");
                 } catch (Exception e) {
                     System.err.println("[CentralServer] Error en shutdown: " + e.getMessage());
@@ -45,7 +70,7 @@ public class CentralServer {
                 System.err.println("Argumentos adicionales no soportados");
                 status = 1;
             } else {
-                status = run(communicator);
+                status = run(communicator, headless);
             }
         } catch (Exception e) {
             System.err.println("Error crítico en CentralServer: " + e.getMessage());
@@ -56,7 +81,7 @@ public class CentralServer {
         System.exit(status);
     }
 
-    private static int run(com.zeroc.Ice.Communicator communicator) {
+    private static int run(com.zeroc.Ice.Communicator communicator, boolean headless) {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("[" + timestamp + "] [CentralServer] Iniciando servidor central...");
 
@@ -70,22 +95,42 @@ public class CentralServer {
                     properties.getProperty("Identity")
             );
 
+            // Registro asíncrono del camino del voto (nivel, buffer y muestreo)
+            AsyncLog.configure(properties);
+
+            // Capa de datos: primaria + réplicas de lectura
+            DatabaseRouter.initialize(properties);
+            CandidateNotificationManager.getInstance().configure(properties);
+
             // Crear e instalar el servant principal
             String serverName = properties.getProperty("Ice.ProgramName");
             if (serverName == null || serverName.isEmpty()) {
                 serverName = "CentralServer-1";
             }
-            CentralVotationI centralServant = new CentralVotationI(serverName);
+            CentralVotationI centralServant = new CentralVotationI(serverName, properties);
             adapter.add(centralServant, serverId);
 
-            // Crear e instalar el servant de consultas
-            QueryStationI queryServant = new QueryStationI();
-            com.zeroc.Ice.Identity queryId = com.zeroc.Ice.Util.stringToIdentity("QueryStation");
-            adapter.add(queryServant, queryId);
+            // Acciones administrativas por Ice.Admin (IceGrid o Ice.Admin.Endpoints)
+            communicator.addAdminFacet(new CentralAdminI(centralServant, serverName), CentralAdminI.FACET);
+
+            // Servant de consultas: por defecto vive en QueryServer (réplicas IceGrid),
+            // fuera de la JVM que procesa votos
+            QueryStationI queryServant = null;
+            if (properties.getPropertyAsIntWithDefault("Central.HostQueryStation", 0) == 1) {
+                queryServant = new QueryStationI(properties);
+                com.zeroc.Ice.Identity queryId = com.zeroc.Ice.Util.stringToIdentity("QueryStation");
+                adapter.add(queryServant, queryId);
+            }
 
             // Activar adaptador (votationI)
             adapter.activate();
 
+            // Métricas Prometheus (Central.Metrics.Port, 0 = deshabilitado)
+            metricsServer = MetricsHttpServer.startFromProperties(properties, java.util.List.of(
+                    new CentralMetricsCollector(CentralVoteManager.getInstance(), CentralACKManager.getInstance(),
+                            centralServant.getVotePipeline(), DatabaseRouter.getInstance(),
+                            queryServant != null ? queryServant.getHotCache() : null, iceObserver)));
+
             timestamp = LocalDateTime.now().format(timeFormatter);
             System.out.println("[" + timestamp + "] [CentralServer] ✅ Servidor central activo");
             System.out.println("[" + timestamp + "] [CentralServer] 🗄️  Base de datos inicializada");
@@ -95,9 +140,20 @@ public class CentralServer {
             System.out.println("[" + timestamp + "] [CentralServer] 🌐 Esperando conexiones de servidores departamentales...");
             System.out.println("[" + timestamp + "] [CentralServer] 📱 Esperando conexiones de máquinas de votación...");
 
+            System.out.println("[" + timestamp + "] [CentralServer] ⏱️  " + startupFootprint(headless));
+
             // Mostrar estadísticas iniciales
             centralServant.printServerStatus();
 
+            if (headless) {
+                boolean adminReachable = !properties.getProperty("Ice.Admin.Endpoints").isEmpty() ||
+                        !properties.getProperty("Ice.Admin.ServerId").isEmpty();
+                System.out.println("[" + timestamp + "] [CentralServer] 🖥️  Modo headless: sin consola; administración por la faceta " +
+                        CentralAdminI.FACET + " de Ice.Admin" + (adminReachable ? "" : " (⚠️ Ice.Admin no configurado: no es accesible)"));
+                communicator.waitForShutdown();
+                return 0;
+            }
+
             // Comando administrativo simple
             showAdminCommands();
 
@@ -117,7 +173,7 @@ public class CentralServer {
                         break;
                     }
 
-                    processAdminCommand(command.trim(), centralServant);
+                    processAdminCommand(command.trim(), centralServant, queryServant);
 
                 } catch (Exception e) {
                     System.err.println("Error procesando comando: " + e.getMessage());
@@ -136,12 +192,38 @@ public class CentralServer {
         return 0;
     }
 
+    /**
+     * Tiempo desde el arranque de la JVM y memoria residente (RSS, /proc en Linux)
+     */
+    private static String startupFootprint(boolean headless) {
+        long startupMillis = ProcessHandle.current().info().startInstant()
+                .map(start -> System.currentTimeMillis() - start.toEpochMilli())
+                .orElse(-1L);
+
+        String rss = "n/d";
+        try {
+            for (String line : java.nio.file.Files.readAllLines(java.nio.file.Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    long kb = Long.parseLong(line.replaceAll("[^0-9]", ""));
+                    rss = String.format("%.1f MB", kb / 1024.0);
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // Sin /proc (no Linux): solo el tiempo de arranque
+        }
+
+        return String.format("Arranque en %d ms | RSS %s | modo %s", startupMillis, rss,
+                headless ? "headless" : "interactivo");
+    }
+
     private static void showAdminCommands() {
         System.out.println("\n" + "═".repeat(70));
         System.out.println("COMANDOS ADMINISTRATIVOS DISPONIBLES:");
         System.out.println("  status        - Estado del servidor y estadísticas");
         System.out.println("  votes         - Resumen de votos procesados");
         System.out.println("  results       - Resultados de la votación por candidato");
+        System.out.println("  departments   - Resultados por departamento");
         System.out.println("  candidates    - Información de candidatos y partidos");
         System.out.println("  loadexcel     - 📁 Cargar candidatos (selector gráfico de archivos)");
         System.out.println("  notifications - Estado de notificaciones a VotingMachines");
@@ -150,6 +232,7 @@ public class CentralServer {
         System.out.println("  healthcheck   - Verificar conectividad de máquinas");
         System.out.println("  verify        - Verificar integridad de datos");
         System.out.println("  acks          - Estado del ACK Manager");
+        System.out.println("  hotdocs       - Documentos calientes y colapso de consultas");
         System.out.println("  debug         - Información detallada de debug");
         System.out.println("  clear         - Limpiar estado (SOLO TESTING)");
         System.out.println("  help          - Mostrar este menú");
@@ -157,7 +240,7 @@ public class CentralServer {
         System.out.println("═".repeat(70));
     }
 
-    private static void processAdminCommand(String command, CentralVotationI servant) {
+    private static void processAdminCommand(String command, CentralVotationI servant, QueryStationI queryServant) {
         String timestamp = LocalDateTime.now().format(timeFormatter);
 
         switch (command.toLowerCase()) {
@@ -177,6 +260,11 @@ public class CentralServer {
                 servant.printVotingResults();
                 break;
 
+            case "departments":
+            case "regional":
+                servant.printDepartmentResults();
+                break;
+
             case "candidates":
                 servant.printCandidatesInfo();
                 break;
@@ -210,6 +298,15 @@ public class CentralServer {
                 servant.printACKStatus();
                 break;
 
+            case "hotdocs":
+            case "hot":
+                if (queryServant != null) {
+                    queryServant.getHotCache().printStatus(10);
+                } else {
+                    System.out.println("QueryStation no está alojado en este servidor (Central.HostQueryStation=0)");
+                }
+                break;
+
             case "debug":
                 servant.printDetailedDebugInfo();
                 break;
@@ -5,12 +5,13 @@
 import Central.*;
 import CandidateNotification.*;
 
-import javax.swing.*;
-import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 public class CentralVotationI implements CentralVotation {
     private final String serverName;
@@ -21,14 +22,25 @@ public class CentralVotationI implements CentralVotation {
     private final CentralACKManager ackManager;
     private final CandidateManager candidateManager;
     private final CitizenDAO citizenDAO;
+    private final VoteCommitPipeline votePipeline;
 
-    public CentralVotationI(String serverName) {
+    public CentralVotationI(String serverName, com.zeroc.Ice.Properties properties) {
         this.serverName = serverName;
         this.voteManager = CentralVoteManager.getInstance();
         this.ackManager = CentralACKManager.getInstance();
         this.candidateManager = CandidateManager.getInstance();
         this.citizenDAO = new CitizenDAO();
 
+        // Modo dueño de partición (0 = particiones con StampedLock); antes de recibir votos
+        int partitionOwners = properties.getPropertyAsIntWithDefault("Central.VoteManager.PartitionOwners", 0);
+        if (partitionOwners > 0) {
+            voteManager.enablePartitionOwners(partitionOwners);
+        }
+        this.votePipeline = new VoteCommitPipeline(serverName, citizenDAO, properties);
+
+        // Publicar la versión inicial del catálogo de candidatos
+        CandidateNotificationManager.getInstance().publishCatalog(candidateManager);
+
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("[" + timestamp + "] [" + serverName + "] Servidor central inicializado");
         System.out.println("[" + timestamp + "] [" + serverName + "] Componentes optimizados para alta carga activos");
@@ -80,84 +92,118 @@ public class CentralVotationI implements CentralVotation {
         }
     }
 
+    /**
+     * processVote con AMD: el hilo de Ice solo encola el voto en VoteCommitPipeline y la
+     * respuesta sale cuando el voto pasó por todas las etapas (validado y persistido)
+     */
     @Override
-    public String processVote(String citizenId, String candidateId, String departmentalServerId, com.zeroc.Ice.Current current)
-            throws AlreadyVotedCentralException, CitizenNotRegisteredException, CentralServerUnavailableException {
-
-        String timestamp = LocalDateTime.now().format(timeFormatter);
-        String clientInfo = current.con != null ? current.con.toString() : "unknown";
-
-        System.out.println("[" + timestamp + "] [" + serverName + "] Voto recibido desde " + departmentalServerId);
-        System.out.println("[" + timestamp + "] [" + serverName + "] Procesando: " + citizenId + " -> " + candidateId);
-
+    public CompletionStage<String> processVoteAsync(String citizenId, String candidateId, String departmentalServerId,
+                                                    com.zeroc.Ice.Current current) {
         if (citizenId == null || citizenId.trim().isEmpty() || candidateId == null || candidateId.trim().isEmpty()) {
-            throw new CentralServerUnavailableException("Parámetros inválidos", System.currentTimeMillis());
+            CompletableFuture<String> invalid = new CompletableFuture<>();
+            invalid.completeExceptionally(new InvalidCentralVoteException(citizenId != null ? citizenId.trim() : "",
+                    "Parámetros inválidos"));
+            return invalid;
         }
 
         String cleanCitizenId = citizenId.trim();
-        String cleanCandidateId = candidateId.trim();
-
-        try {
-            // PASO 1: NUEVA VALIDACIÓN - Verificar que el ciudadano esté registrado
-            boolean citizenExists = citizenDAO.validateCitizen(cleanCitizenId);
-
-            if (!citizenExists) {
-                timestamp = LocalDateTime.now().format(timeFormatter);
-                System.out.println("[" + timestamp + "] [" + serverName + "] ❌ Ciudadano NO registrado: " + cleanCitizenId);
-
-                CitizenNotRegisteredException ex = new CitizenNotRegisteredException();
-                ex.citizenId = cleanCitizenId;
-                ex.message = "Ciudadano no está registrado en la base de datos electoral";
-                throw ex;
-            }
-
-            System.out.println("[" + timestamp + "] [" + serverName + "] ✅ Ciudadano validado: " + cleanCitizenId);
-
-            // PASO 2: Verificación de voto duplicado con ACKManager
-            String existingACK = ackManager.getACK(cleanCitizenId);
+        return castVoteAsync(cleanCitizenId, candidateId, departmentalServerId, current)
+                .thenCompose(outcome -> toProcessVoteResponse(cleanCitizenId, outcome));
+    }
 
-            if (existingACK != null) {
-                String existingVote = voteManager.getExistingVote(cleanCitizenId);
+    /**
+     * Mismo camino que processVote, pero duplicados y no registrados vuelven como VoteOutcome
+     * (sin construir excepciones); solo la indisponibilidad del servidor es excepción
+     */
+    @Override
+    public CompletionStage<VoteOutcome> castVoteAsync(String citizenId, String candidateId, String departmentalServerId,
+                                                      com.zeroc.Ice.Current current) {
+        if (citizenId == null || citizenId.trim().isEmpty() || candidateId == null || candidateId.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new VoteOutcome(VoteOutcomeKind.Invalid, "", "", "Parámetros inválidos"));
+        }
+        return votePipeline.submit(citizenId.trim(), candidateId.trim(), departmentalServerId);
+    }
 
-                System.out.println("[" + timestamp + "] [" + serverName + "] Duplicado detectado: " +
-                        cleanCitizenId + " ya votó por " + existingVote + " (ACK: " + existingACK + ")");
+    /**
+     * Resultado del voto como lo espera processVote: el ACK o la excepción correspondiente
+     */
+    private CompletionStage<String> toProcessVoteResponse(String citizenId, VoteOutcome outcome) {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        switch (outcome.kind) {
+            case Accepted:
+                response.complete(outcome.ackId);
+                break;
+
+            case Duplicate:
+                AlreadyVotedCentralException duplicate = new AlreadyVotedCentralException();
+                duplicate.ackId = outcome.ackId;
+                duplicate.citizenId = citizenId;
+                duplicate.existingCandidate = outcome.existingCandidate;
+                response.completeExceptionally(duplicate);
+                break;
+
+            case NotRegistered:
+                CitizenNotRegisteredException notRegistered = new CitizenNotRegisteredException();
+                notRegistered.citizenId = citizenId;
+                notRegistered.message = outcome.message;
+                response.completeExceptionally(notRegistered);
+                break;
+
+            case Invalid:
+                // Rechazo definitivo: con CentralServerUnavailableException el departamental lo reintentaría
+                response.completeExceptionally(new InvalidCentralVoteException(citizenId, outcome.message));
+                break;
+
+            default:
+                response.completeExceptionally(new CentralServerUnavailableException(outcome.message,
+                        System.currentTimeMillis()));
+                break;
+        }
+        return response;
+    }
 
-                AlreadyVotedCentralException ex = new AlreadyVotedCentralException();
-                ex.ackId = existingACK;
-                ex.citizenId = cleanCitizenId;
-                ex.existingCandidate = existingVote != null ? existingVote : "unknown";
-                throw ex;
+    /**
+     * Lote de votos: entra al mismo pipeline que processVote y la respuesta sale cuando
+     * todos los votos del lote tienen resultado. Un voto que el pipeline no pudo procesar
+     * vuelve como Unavailable sin arrastrar al resto; el departamental reenvía solo ese.
+     */
+    @Override
+    public CompletionStage<VoteOutcome[]> processVotesAsync(VoteRequest[] votes, String departmentalServerId,
+                                                            com.zeroc.Ice.Current current) {
+        int n = votes != null ? votes.length : 0;
+        @SuppressWarnings("unchecked")
+        CompletableFuture<VoteOutcome>[] futures = new CompletableFuture[n];
+        for (int i = 0; i < n; i++) {
+            VoteRequest vote = votes[i];
+            if (vote == null || vote.citizenId == null || vote.citizenId.trim().isEmpty()
+                    || vote.candidateId == null || vote.candidateId.trim().isEmpty()) {
+                futures[i] = CompletableFuture.completedFuture(
+                        new VoteOutcome(VoteOutcomeKind.Invalid, "", "", "Parámetros inválidos"));
+                continue;
             }
+            futures[i] = votePipeline.submit(vote.citizenId.trim(), vote.candidateId.trim(), departmentalServerId)
+                    .handle((outcome, error) -> error == null ? outcome : toUnavailableOutcome(error));
+        }
 
-            // PASO 3: Procesar voto válido con VoteManager
-            CentralVoteManager.VoteResult result = voteManager.receiveVote(cleanCitizenId, cleanCandidateId);
-
-            if (result.success) {
-                // VOTO VÁLIDO - generar ACK único
-                String ackId = ackManager.getOrCreateACK(cleanCitizenId, serverName + "-" + departmentalServerId);
-
-                System.out.println("[" + timestamp + "] [" + serverName + "] ✅ Voto procesado exitosamente - ACK: " + ackId);
-                return ackId;
-
-            } else {
-                // VOTO DUPLICADO - obtener ACK existente
-                String ackId = ackManager.getOrCreateACK(cleanCitizenId, serverName + "-" + departmentalServerId);
-                String existingVote = voteManager.getExistingVote(cleanCitizenId);
-
-                AlreadyVotedCentralException ex = new AlreadyVotedCentralException();
-                ex.ackId = ackId;
-                ex.citizenId = cleanCitizenId;
-                ex.existingCandidate = existingVote != null ? existingVote : candidateId;
-                throw ex;
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            VoteOutcome[] outcomes = new VoteOutcome[n];
+            for (int i = 0; i < n; i++) {
+                outcomes[i] = futures[i].join();
             }
+            return outcomes;
+        });
+    }
 
-        } catch (AlreadyVotedCentralException | CitizenNotRegisteredException e) {
-            throw e; // Re-lanzar excepciones específicas
-        } catch (Exception e) {
-            System.err.println("[" + timestamp + "] [" + serverName + "] Error procesando voto: " + e.getMessage());
-            throw new CentralServerUnavailableException("Error interno del servidor central: " + e.getMessage(),
-                    System.currentTimeMillis());
-        }
+    /**
+     * Fallo de un voto del lote como resultado Unavailable (motivo incluido)
+     */
+    private static VoteOutcome toUnavailableOutcome(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String reason = cause instanceof CentralServerUnavailableException
+                ? ((CentralServerUnavailableException) cause).reason
+                : cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return new VoteOutcome(VoteOutcomeKind.Unavailable, "", "", reason);
     }
 
     @Override
@@ -193,7 +239,7 @@ public class CentralVotationI implements CentralVotation {
     @Override
     public int getTotalVotesCount(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
         try {
-            return voteManager.getStats().totalProcessed;
+            return voteManager.getTotalVoteCount();
         } catch (Exception e) {
             throw new CentralServerUnavailableException("Error consultando total: " + e.getMessage(),
                     System.currentTimeMillis());
@@ -203,7 +249,7 @@ public class CentralVotationI implements CentralVotation {
     @Override
     public int getUniqueVotersCount(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
         try {
-            return voteManager.getAllVoters().size();
+            return voteManager.getUniqueVoterCount();
         } catch (Exception e) {
             throw new CentralServerUnavailableException("Error consultando votantes: " + e.getMessage(),
                     System.currentTimeMillis());
@@ -221,22 +267,55 @@ public class CentralVotationI implements CentralVotation {
     @Override
     public String getServerStatus(com.zeroc.Ice.Current current) {
         try {
-            CentralVoteManager.VotingStats voteStats = voteManager.getStats();
-            CentralACKManager.ACKStats ackStats = ackManager.getStats();
-
             return String.format("OPERACIONAL - Votos: %d | ACKs: %d | Throughput: %.2f v/s",
-                    voteStats.totalVoters, ackStats.totalACKs, voteStats.throughputVotesPerSec);
+                    voteManager.getUniqueVoterCount(), ackManager.getTotalACKCount(), voteManager.getThroughput());
         } catch (Exception e) {
             return "ERROR - " + e.getMessage();
         }
     }
 
+    VoteCommitPipeline getVotePipeline() {
+        return votePipeline;
+    }
+
+    /**
+     * Estado para pollers de monitoreo: solo lee contadores, no recorre particiones ni toma locks
+     */
+    @Override
+    public CentralServerStats getServerStats(com.zeroc.Ice.Current current) {
+        return new CentralServerStats(
+                System.currentTimeMillis(),
+                voteManager.getTotalVoteCount(),
+                voteManager.getUniqueVoterCount(),
+                voteManager.getDuplicateCount(),
+                votePipeline.getRejectedCount(),
+                votePipeline.getInFlightCount(),
+                ackManager.getTotalACKCount(),
+                ackManager.getPendingWriteCount(),
+                voteManager.getThroughput());
+    }
+
+    @Override
+    public CentralMetricsReport getMetricsReport(com.zeroc.Ice.Current current) {
+        VoteMetrics metrics = VoteMetrics.getInstance();
+        List<VoteMetrics.StageLatency> snapshot = metrics.getLatencySnapshot();
+        StageLatency[] stages = new StageLatency[snapshot.size()];
+        for (int i = 0; i < stages.length; i++) {
+            VoteMetrics.StageLatency latency = snapshot.get(i);
+            stages[i] = new StageLatency(latency.stage.name(), latency.count, latency.p50Micros,
+                    latency.p90Micros, latency.p99Micros, latency.maxMicros);
+        }
+        return new CentralMetricsReport(System.currentTimeMillis(), metrics.getVotesPerSecond(10),
+                metrics.getVotesPerSecond(60), metrics.getWindowSeconds(), stages);
+    }
+
     @Override
     public void shutdown(com.zeroc.Ice.Current current) {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("[" + timestamp + "] [" + serverName + "] Shutdown solicitado...");
 
         try {
+            votePipeline.shutdown();
             voteManager.shutdown();
             ackManager.shutdown();
             citizenDAO.close();
@@ -256,16 +335,18 @@ public class CentralVotationI implements CentralVotation {
      * NUEVO: Método para registro de VotingMachines
      */
     @Override
-    public void registerVotingMachine(String machineId, VotingMachineCallbackPrx callback, com.zeroc.Ice.Current current)
+    public void registerVotingMachine(String machineId, VotingMachineCallbackPrx callback, long knownVersion,
+                                      com.zeroc.Ice.Current current)
             throws CentralServerUnavailableException {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         String clientEndpoint = current.con != null ? current.con.toString() : "unknown";
 
         System.out.println("[" + timestamp + "] [" + serverName + "] 📱 Registrando VotingMachine: " + machineId);
-        System.out.println("[" + timestamp + "] [" + serverName + "] Conexión desde: " + clientEndpoint);
+        System.out.println("[" + timestamp + "] [" + serverName + "] Conexión desde: " + clientEndpoint +
+                " | versión de catálogo conocida: " + knownVersion);
 
         try {
-            CandidateNotificationManager.getInstance().registerVotingMachine(machineId, callback);
+            CandidateNotificationManager.getInstance().registerVotingMachine(machineId, callback, knownVersion);
             System.out.println("[" + timestamp + "] [" + serverName + "] ✅ VotingMachine registrada exitosamente");
         } catch (Exception e) {
             System.err.println("[" + timestamp + "] [" + serverName + "] ❌ Error registrando VotingMachine: " + e.getMessage());
@@ -293,77 +374,79 @@ public class CentralVotationI implements CentralVotation {
         }
     }
 
-    /**
-     * NUEVO: Método para obtener candidatos actuales (fallback si fallan notificaciones)
-     */
-    @Override
-    public CandidateListResponse getCurrentCandidates(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
-        String timestamp = LocalDateTime.now().format(timeFormatter);
-
-        try {
-            System.out.println("[" + timestamp + "] [" + serverName + "] 📋 Solicitud de candidatos actuales");
-
-            CandidateListResponse response = new CandidateListResponse();
-            response.updateTimestamp = System.currentTimeMillis();
-
-            List<CandidateData> candidateList = new ArrayList<>();
-
-            // Obtener candidatos activos
-            for (CandidateManager.Candidate candidate : candidateManager.getActiveCandidates()) {
-                CandidateManager.PoliticalParty party = candidateManager.getParty(candidate.partyId);
-
-                CandidateData candidateData = new CandidateData();
-                candidateData.candidateId = candidate.id;
-                candidateData.firstName = candidate.firstName;
-                candidateData.lastName = candidate.lastName;
-                candidateData.fullName = candidate.fullName;
-                candidateData.position = candidate.position;
-                candidateData.photo = candidate.photo;
-                candidateData.biography = candidate.biography;
-                candidateData.isActive = candidate.isActive;
-
-                if (party != null) {
-                    candidateData.partyId = party.id;
-                    candidateData.partyName = party.name;
-                    candidateData.partyColor = party.color;
-                    candidateData.partyIdeology = party.ideology;
-                    candidateData.partyLogo = party.logo;
-                }
-
-                candidateList.add(candidateData);
-            }
-
-            // Agregar voto en blanco
-            CandidateData blankVote = new CandidateData();
-            blankVote.candidateId = "blank";
-            blankVote.firstName = "VOTO";
-            blankVote.lastName = "EN BLANCO";
-            blankVote.fullName = "VOTO EN BLANCO";
-            blankVote.position = 999;
-            blankVote.photo = "📊";
-            blankVote.biography = "Opción para votantes que no desean elegir candidato específico";
-            blankVote.isActive = true;
-            blankVote.partyId = "blank";
-            blankVote.partyName = "Voto en Blanco";
-            blankVote.partyColor = "#CCCCCC";
-            blankVote.partyIdeology = "Ninguna";
-            blankVote.partyLogo = "📊";
+    // ============================================================================
+    // RESULTADOS EN VIVO
+    // ============================================================================
 
-            candidateList.add(blankVote);
+    @Override
+    public DepartmentResults getNationalResults(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
+        ResultsAggregator results = ResultsAggregator.getInstance();
+        return toDepartmentResults("", results.getNationalTotal(), results.getNationalCounts());
+    }
 
-            response.candidates = candidateList.toArray(new CandidateData[0]);
-            response.totalCandidates = candidateList.size();
+    @Override
+    public DepartmentResults getDepartmentResults(String departmentId, com.zeroc.Ice.Current current)
+            throws CentralServerUnavailableException {
+        ResultsAggregator results = ResultsAggregator.getInstance();
+        String department = ResultsAggregator.normalize(departmentId);
+        long[] counts = results.getDepartmentCounts(department);
+        return toDepartmentResults(department, results.getDepartmentTotal(department),
+                counts != null ? counts : new long[0]);
+    }
 
-            System.out.println("[" + timestamp + "] [" + serverName + "] ✅ Enviando " +
-                    response.totalCandidates + " candidatos");
+    @Override
+    public DepartmentResults[] getAllDepartmentResults(com.zeroc.Ice.Current current)
+            throws CentralServerUnavailableException {
+        List<DepartmentResults> all = new ArrayList<>();
+        for (String departmentId : ResultsAggregator.getInstance().getDepartments()) {
+            all.add(getDepartmentResults(departmentId, current));
+        }
+        return all.toArray(new DepartmentResults[0]);
+    }
 
-            return response;
+    private DepartmentResults toDepartmentResults(String departmentId, long totalVotes, long[] counts) {
+        CandidateRegistry registry = CandidateRegistry.getInstance();
+        List<CandidateTally> tallies = new ArrayList<>();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                tallies.add(new CandidateTally(registry.idOf(ordinal), counts[ordinal]));
+            }
+        }
+        tallies.sort((a, b) -> Long.compare(b.votes, a.votes));
+        return new DepartmentResults(departmentId, totalVotes, tallies.toArray(new CandidateTally[0]),
+                System.currentTimeMillis());
+    }
 
+    /**
+     * Catálogo versionado: sin cambios, delta o lista completa según la versión conocida
+     */
+    @Override
+    public CandidateCatalogUpdate getCandidateCatalog(long knownVersion, com.zeroc.Ice.Current current)
+            throws CentralServerUnavailableException {
+        try {
+            return CandidateCatalog.getInstance().updateFor(knownVersion);
         } catch (Exception e) {
-            System.err.println("[" + timestamp + "] [" + serverName + "] ❌ Error obteniendo candidatos: " + e.getMessage());
-            throw new CentralServerUnavailableException("Error obteniendo candidatos: " + e.getMessage(),
+            String timestamp = LocalDateTime.now().format(timeFormatter);
+            System.err.println("[" + timestamp + "] [" + serverName + "] ❌ Error obteniendo catálogo: " + e.getMessage());
+            throw new CentralServerUnavailableException("Error obteniendo catálogo de candidatos: " + e.getMessage(),
+                    System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * NUEVO: Método para obtener candidatos actuales (fallback si fallan notificaciones)
+     */
+    @Override
+    public CandidateListResponse getCurrentCandidates(com.zeroc.Ice.Current current) throws CentralServerUnavailableException {
+        // Instantánea inmutable construida al cargar candidatos: no se copia ni se reconstruye por llamada
+        CandidateListResponse response = CandidateCatalog.getInstance().getCurrentResponse();
+        if (response.totalCandidates == 0) {
+            String timestamp = LocalDateTime.now().format(timeFormatter);
+            System.err.println("[" + timestamp + "] [" + serverName + "] ❌ Catálogo de candidatos aún no publicado");
+            throw new CentralServerUnavailableException("Catálogo de candidatos aún no publicado",
                     System.currentTimeMillis());
         }
+        return response;
     }
 
     // ============================================================================
@@ -371,9 +454,9 @@ public class CentralVotationI implements CentralVotation {
     // ============================================================================
 
     /**
-     * Cargar candidatos desde archivo con notificación automática
+     * Cargar candidatos desde archivo con notificación automática; true si se cargaron
      */
-    public void loadCandidatesFromFile(String filePath) {
+    public boolean loadCandidatesFromFile(String filePath) {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("[" + timestamp + "] [" + serverName + "] Cargando candidatos desde: " + filePath);
 
@@ -384,7 +467,7 @@ public class CentralVotationI implements CentralVotation {
             success = candidateManager.loadCandidatesFromCSV(filePath);
         } else {
             System.err.println("[" + timestamp + "] [" + serverName + "] Formato de archivo no soportado. Use .xlsx, .xls o .csv");
-            return;
+            return false;
         }
 
         if (success) {
@@ -404,6 +487,7 @@ public class CentralVotationI implements CentralVotation {
         } else {
             System.err.println("[" + timestamp + "] [" + serverName + "] ❌ Error cargando candidatos");
         }
+        return success;
     }
 
     public void printServerStatus() {
@@ -422,9 +506,19 @@ public class CentralVotationI implements CentralVotation {
             System.out.println("   Votantes únicos:           " + voteStats.totalVoters);
             System.out.println("   Votos procesados:          " + voteStats.totalProcessed);
             System.out.println("   Duplicados detectados:     " + voteStats.duplicatesDetected);
-            System.out.println("   Votos pendientes:          " + voteStats.pendingVotes);
             System.out.println("   Throughput actual:         " + String.format("%.2f", voteStats.throughputVotesPerSec) + " v/s");
             System.out.println();
+            VoteCommitPipeline.PipelineStats pipelineStats = votePipeline.getStats();
+            System.out.println("⚙️  PIPELINE DE VOTOS (por etapas):");
+            System.out.println("   Votos en cola:             " + pipelineStats.queued);
+            System.out.println("   Lotes confirmados:         " + pipelineStats.batches);
+            System.out.println("   Tamaño medio de lote:      " + String.format("%.1f", pipelineStats.averageBatchSize()));
+            System.out.println("   Rechazados (cola llena):   " + pipelineStats.rejected);
+            votePipeline.printStatus();
+            System.out.println();
+            System.out.println("⏱️  THROUGHPUT Y LATENCIAS:");
+            VoteMetrics.getInstance().printStatus();
+            System.out.println();
             System.out.println("🔧 ESTADÍSTICAS DE ACK:");
             System.out.println("   ACKs totales:              " + ackStats.totalACKs);
             System.out.println("   ACKs pendientes:           " + ackStats.pendingWrites);
@@ -441,6 +535,28 @@ public class CentralVotationI implements CentralVotation {
         System.out.println("═".repeat(70));
     }
 
+    public void printDepartmentResults() {
+        String timestamp = LocalDateTime.now().format(timeFormatter);
+        System.out.println("\n[" + timestamp + "] [" + serverName + "] === RESULTADOS POR DEPARTAMENTO ===");
+
+        ResultsAggregator results = ResultsAggregator.getInstance();
+        if (results.getDepartments().isEmpty()) {
+            System.out.println("📊 No hay votos registrados en el sistema");
+            return;
+        }
+
+        for (String departmentId : results.getDepartments()) {
+            long total = results.getDepartmentTotal(departmentId);
+            System.out.println(String.format("🏛️  %s (%,d votos)", departmentId, total));
+            voteManager.getVotesByCandidate(departmentId).entrySet().stream()
+                    .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
+                    .forEach(entry -> System.out.println(String.format("   %-25s %,6d votos (%.2f%%)",
+                            formatCandidateName(entry.getKey()), entry.getValue(),
+                            total > 0 ? entry.getValue() * 100.0 / total : 0)));
+        }
+        System.out.println("═".repeat(70));
+    }
+
     public void printVotesSummary() {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("\n[" + timestamp + "] [" + serverName + "] === RESUMEN DE VOTOS ===");
@@ -569,205 +685,17 @@ public class CentralVotationI implements CentralVotation {
     }
 
     /**
-     * Abrir selector de archivos gráfico para cargar candidatos
+     * Abrir selector de archivos gráfico para cargar candidatos (solo modo interactivo;
+     * Swing vive en CandidateFileChooser para que el modo headless nunca cargue AWT)
      */
     public void openFileSelector() {
-        String timestamp = LocalDateTime.now().format(timeFormatter);
-        System.out.println("[" + timestamp + "] [" + serverName + "] Abriendo selector de archivos...");
-
-        try {
-            // Verificar si hay interfaz gráfica disponible
-            if (java.awt.GraphicsEnvironment.isHeadless()) {
-                System.out.println("⚠️  Interfaz gráfica no disponible. Usando modo texto:");
-                loadCandidatesFromConsole();
-                return;
-            }
-
-            // Crear file chooser en un thread separado para no bloquear
-            javax.swing.SwingUtilities.invokeLater(() -> {
-                try {
-                    openFileChooserDialog();
-                } catch (Exception e) {
-                    System.err.println("Error abriendo selector: " + e.getMessage());
-                    // Fallback a modo consola
-                    loadCandidatesFromConsole();
-                }
-            });
-
-        } catch (Exception e) {
-            System.err.println("Error iniciando selector de archivos: " + e.getMessage());
-            loadCandidatesFromConsole();
-        }
-    }
-
-    /**
-     * Abrir diálogo de selección de archivos
-     */
-    private void openFileChooserDialog() {
-        try {
-            // Configurar Look and Feel nativo
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-        } catch (Exception e) {
-            // Continuar con Look and Feel por defecto
-        }
-
-        JFileChooser fileChooser = new JFileChooser();
-
-        // Configurar el file chooser
-        fileChooser.setDialogTitle("Seleccionar Archivo de Candidatos - CentralServer");
-        fileChooser.setMultiSelectionEnabled(false);
-        fileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
-
-        // Filtros de archivo
-        FileNameExtensionFilter csvFilter =
-                new FileNameExtensionFilter("Archivos CSV (*.csv)", "csv");
-        FileNameExtensionFilter excelFilter =
-                new FileNameExtensionFilter("Archivos Excel (*.xlsx, *.xls)", "xlsx", "xls");
-        FileNameExtensionFilter allSupportedFilter =
-                new FileNameExtensionFilter("Todos los archivos soportados", "csv", "xlsx", "xls");
-
-        fileChooser.addChoosableFileFilter(allSupportedFilter);
-        fileChooser.addChoosableFileFilter(csvFilter);
-        fileChooser.addChoosableFileFilter(excelFilter);
-        fileChooser.setFileFilter(allSupportedFilter);
-
-        // Establecer directorio inicial
-        File currentDir = new File(System.getProperty("user.dir"));
-        File configDir = new File(currentDir, "config");
-        if (configDir.exists()) {
-            fileChooser.setCurrentDirectory(configDir);
-        } else {
-            fileChooser.setCurrentDirectory(currentDir);
-        }
-
-        // Crear frame padre para centrar el diálogo
-        JFrame parentFrame = new JFrame();
-        parentFrame.setAlwaysOnTop(true);
-        parentFrame.setIconImage(createServerIcon());
-
-        // Mostrar diálogo
-        int result = fileChooser.showOpenDialog(parentFrame);
-
-        if (result == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            String filePath = selectedFile.getAbsolutePath();
-
-            String timestamp = LocalDateTime.now().format(timeFormatter);
-            System.out.println("[" + timestamp + "] [" + serverName + "] Archivo seleccionado: " + filePath);
-
-            // Mostrar diálogo de confirmación
-            String fileName = selectedFile.getName();
-            long fileSize = selectedFile.length();
-            String fileSizeStr = String.format("%.2f KB", fileSize / 1024.0);
-
-            String message = String.format(
-                    "¿Desea cargar el siguiente archivo?\n\n" +
-                            "📁 Archivo: %s\n" +
-                            "📊 Tamaño: %s\n" +
-                            "📂 Ubicación: %s\n\n" +
-                            "Se cargarán los candidatos y partidos políticos.",
-                    fileName, fileSizeStr, selectedFile.getParent()
-            );
-
-            int confirm = JOptionPane.showConfirmDialog(
-                    parentFrame,
-                    message,
-                    "Confirmar Carga de Candidatos",
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.QUESTION_MESSAGE
-            );
-
-            if (confirm == JOptionPane.YES_OPTION) {
-                // Cargar archivo en thread separado para no bloquear UI
-                new Thread(() -> {
-                    loadCandidatesFromFile(filePath);
-                }).start();
-
-                // Mostrar mensaje de procesamiento
-                showProcessingMessage(parentFrame, fileName);
-            } else {
-                System.out.println("[" + timestamp + "] [" + serverName + "] Carga cancelada por el usuario");
-            }
-        } else {
-            String timestamp = LocalDateTime.now().format(timeFormatter);
-            System.out.println("[" + timestamp + "] [" + serverName + "] Selección de archivo cancelada");
-        }
-
-        parentFrame.dispose();
-    }
-
-    /**
-     * Crear icono para el servidor
-     */
-    private java.awt.Image createServerIcon() {
-        try {
-            // Crear un icono simple programáticamente
-            java.awt.image.BufferedImage icon = new java.awt.image.BufferedImage(32, 32, java.awt.image.BufferedImage.TYPE_INT_ARGB);
-            java.awt.Graphics2D g2d = icon.createGraphics();
-
-            // Configurar antialiasing
-            g2d.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
-
-            // Dibujar icono del servidor (cuadrado azul con "CS")
-            g2d.setColor(new java.awt.Color(0, 100, 200));
-            g2d.fillRoundRect(2, 2, 28, 28, 8, 8);
-
-            g2d.setColor(java.awt.Color.WHITE);
-            g2d.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 12));
-            java.awt.FontMetrics fm = g2d.getFontMetrics();
-            String text = "CS";
-            int textWidth = fm.stringWidth(text);
-            int textHeight = fm.getAscent();
-            g2d.drawString(text, (32 - textWidth) / 2, (32 + textHeight) / 2 - 2);
-
-            g2d.dispose();
-            return icon;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * Mostrar mensaje de procesamiento
-     */
-    private void showProcessingMessage(javax.swing.JFrame parent, String fileName) {
-        javax.swing.SwingUtilities.invokeLater(() -> {
-            javax.swing.JDialog processingDialog = new javax.swing.JDialog(parent, "Procesando...", true);
-            processingDialog.setDefaultCloseOperation(javax.swing.JDialog.DO_NOTHING_ON_CLOSE);
-            processingDialog.setSize(400, 150);
-            processingDialog.setLocationRelativeTo(parent);
-
-            javax.swing.JPanel panel = new javax.swing.JPanel(new java.awt.BorderLayout(10, 10));
-            panel.setBorder(javax.swing.BorderFactory.createEmptyBorder(20, 20, 20, 20));
-
-            javax.swing.JLabel messageLabel = new javax.swing.JLabel(
-                    "<html><center>🔄 Procesando archivo de candidatos...<br><br>" +
-                            "<b>" + fileName + "</b><br><br>" +
-                            "Por favor espere...</center></html>",
-                    javax.swing.SwingConstants.CENTER
-            );
-
-            javax.swing.JProgressBar progressBar = new javax.swing.JProgressBar();
-            progressBar.setIndeterminate(true);
-
-            panel.add(messageLabel, java.awt.BorderLayout.CENTER);
-            panel.add(progressBar, java.awt.BorderLayout.SOUTH);
-
-            processingDialog.add(panel);
-
-            // Cerrar automáticamente después de 3 segundos
-            javax.swing.Timer timer = new javax.swing.Timer(3000, e -> processingDialog.dispose());
-            timer.setRepeats(false);
-            timer.start();
-
-            processingDialog.setVisible(true);
-        });
+        CandidateFileChooser.open(this, serverName);
     }
 
     /**
      * Fallback a modo consola si la interfaz gráfica no está disponible
      */
-    private void loadCandidatesFromConsole() {
+    void loadCandidatesFromConsole() {
         System.out.println("📁 SELECTOR DE ARCHIVOS - MODO CONSOLA");
         System.out.println("═".repeat(50));
         System.out.println("Formatos soportados: .csv, .xlsx, .xls");
@@ -792,66 +720,79 @@ public class CentralVotationI implements CentralVotation {
         }
     }
 
+    /**
+     * Correspondencia votos-ACKs y estado de los archivos de persistencia.
+     * missingACKs (opcional) recibe los ciudadanos con voto y sin ACK.
+     */
+    IntegrityReport checkDataIntegrity(java.util.List<String> missingACKs) {
+        CentralVoteManager.VotingStats voteStats = voteManager.getStats();
+        CentralACKManager.ACKStats ackStats = ackManager.getStats();
+
+        long votersWithACK = 0;
+        long votersWithoutACK = 0;
+        for (String citizenId : voteManager.getAllVoters()) {
+            if (ackManager.hasACK(citizenId)) {
+                votersWithACK++;
+            } else {
+                votersWithoutACK++;
+                if (missingACKs != null) {
+                    missingACKs.add(citizenId);
+                }
+            }
+        }
+
+        File voteFile = new File("config/db/central-votes.csv");
+        File ackFile = new File("config/db/central-citizen-acks.csv");
+        boolean ok = votersWithoutACK == 0 && voteStats.totalVoters == ackStats.totalACKs;
+
+        return new IntegrityReport(ok, voteStats.totalVoters, ackStats.totalACKs, votersWithACK, votersWithoutACK,
+                voteFile.exists(), voteFile.length(), ackFile.exists(), ackFile.length(),
+                System.currentTimeMillis());
+    }
+
     public void verifyDataIntegrity() {
         String timestamp = LocalDateTime.now().format(timeFormatter);
         System.out.println("\n[" + timestamp + "] [" + serverName + "] === VERIFICACIÓN DE INTEGRIDAD ===");
 
         try {
-            // Obtener estadísticas
-            CentralVoteManager.VotingStats voteStats = voteManager.getStats();
-            CentralACKManager.ACKStats ackStats = ackManager.getStats();
+            java.util.List<String> missingACKs = new ArrayList<>();
+            IntegrityReport report = checkDataIntegrity(missingACKs);
 
-            // Verificar correspondencia votos-ACKs
-            java.util.Set<String> allVoters = voteManager.getAllVoters();
-            int votersWithACK = 0;
-            int votersWithoutACK = 0;
-
-            for (String citizenId : allVoters) {
-                if (ackManager.hasACK(citizenId)) {
-                    votersWithACK++;
-                } else {
-                    votersWithoutACK++;
-                    System.out.println("⚠️  Ciudadano sin ACK: " + citizenId);
-                }
+            for (String citizenId : missingACKs) {
+                System.out.println("⚠️  Ciudadano sin ACK: " + citizenId);
             }
 
             System.out.println("📊 VERIFICACIÓN DE CORRESPONDENCIA:");
-            System.out.println("   Total votantes:              " + voteStats.totalVoters);
-            System.out.println("   Total ACKs:                  " + ackStats.totalACKs);
-            System.out.println("   Votantes con ACK:            " + votersWithACK);
-            System.out.println("   Votantes sin ACK:            " + votersWithoutACK);
+            System.out.println("   Total votantes:              " + report.totalVoters);
+            System.out.println("   Total ACKs:                  " + report.totalACKs);
+            System.out.println("   Votantes con ACK:            " + report.votersWithACK);
+            System.out.println("   Votantes sin ACK:            " + report.votersWithoutACK);
 
             // Verificar archivos
             System.out.println();
             System.out.println("📁 VERIFICACIÓN DE ARCHIVOS:");
 
-            File voteFile = new File("config/db/central-votes.csv");
-            File ackFile = new File("config/db/central-citizen-acks.csv");
-
-            System.out.println("   Archivo de votos:            " + (voteFile.exists() ? "✅ Existe" : "❌ No existe"));
-            System.out.println("   Archivo de ACKs:             " + (ackFile.exists() ? "✅ Existe" : "❌ No existe"));
+            System.out.println("   Archivo de votos:            " + (report.voteFileExists ? "✅ Existe" : "❌ No existe"));
+            System.out.println("   Archivo de ACKs:             " + (report.ackFileExists ? "✅ Existe" : "❌ No existe"));
 
-            if (voteFile.exists()) {
-                System.out.println("   Tamaño archivo votos:        " + String.format("%.2f KB", voteFile.length() / 1024.0));
+            if (report.voteFileExists) {
+                System.out.println("   Tamaño archivo votos:        " + String.format("%.2f KB", report.voteFileBytes / 1024.0));
             }
-            if (ackFile.exists()) {
-                System.out.println("   Tamaño archivo ACKs:         " + String.format("%.2f KB", ackFile.length() / 1024.0));
+            if (report.ackFileExists) {
+                System.out.println("   Tamaño archivo ACKs:         " + String.format("%.2f KB", report.ackFileBytes / 1024.0));
             }
 
-            // Resultado de integridad
-            boolean integrityOK = (votersWithoutACK == 0) && (voteStats.totalVoters == ackStats.totalACKs);
-
             System.out.println();
-            if (integrityOK) {
+            if (report.ok) {
                 System.out.println("✅ INTEGRIDAD: CORRECTA - Todos los datos están sincronizados");
             } else {
                 System.out.println("⚠️  INTEGRIDAD: PROBLEMAS DETECTADOS");
-                if (votersWithoutACK > 0) {
-                    System.out.println("   - " + votersWithoutACK + " votantes sin ACK");
+                if (report.votersWithoutACK > 0) {
+                    System.out.println("   - " + report.votersWithoutACK + " votantes sin ACK");
                 }
-                if (voteStats.totalVoters != ackStats.totalACKs) {
-                    System.out.println("   - Desincronización entre votos (" + voteStats.totalVoters +
-                            ") y ACKs (" + ackStats.totalACKs + ")");
+                if (report.totalVoters != report.totalACKs) {
+                    System.out.println("   - Desincronización entre votos (" + report.totalVoters +
+                            ") y ACKs (" + report.totalACKs + ")");
                 }
             }
 
@@ -950,6 +891,9 @@ public class CentralVotationI implements CentralVotation {
         System.out.println("\n🔍 CANDIDATE NOTIFICATION DEBUG:");
         CandidateNotificationManager.getInstance().printConnectionStatus();
 
+        System.out.println("\n🔍 BASE DE DATOS DEBUG:");
+        Database.DatabaseRouter.getInstance().printStatus();
+
         System.out.println("\n🔍 MÉTRICAS DE SISTEMA:");
         Runtime runtime = Runtime.getRuntime();
         long totalMemory = runtime.totalMemory() / 1024 / 1024;
@@ -4,26 +4,32 @@
  */
 public class CentralVoteCommand {
     private final String citizenId;
-    private final String candidateId;
+    private final int candidateOrdinal;
+    private final String departmentId;
     private final long timestamp;
 
-    public CentralVoteCommand(String citizenId, String candidateId) {
+    public CentralVoteCommand(String citizenId, int candidateOrdinal, String departmentId) {
         this.citizenId = citizenId;
-        this.candidateId = candidateId;
+        this.candidateOrdinal = candidateOrdinal;
+        this.departmentId = departmentId;
         this.timestamp = System.currentTimeMillis();
     }
 
-    public void persist(CentralVoteDAO dao) {
-        dao.save(citizenId, candidateId);
-    }
-
     // Getters para batch processing
     public String getCitizenId() {
         return citizenId;
     }
 
+    public int getCandidateOrdinal() {
+        return candidateOrdinal;
+    }
+
     public String getCandidateId() {
-        return candidateId;
+        return CandidateRegistry.getInstance().idOf(candidateOrdinal);
+    }
+
+    public String getDepartmentId() {
+        return departmentId;
     }
 
     public long getTimestamp() {
@@ -32,8 +38,8 @@ public class CentralVoteCommand {
 
     @Override
     public String toString() {
-        return String.format("CentralVoteCommand{citizen='%s', candidate='%s', timestamp=%d}",
-                citizenId, candidateId, timestamp);
+        return String.format("CentralVoteCommand{citizen='%s', candidate='%s', department='%s', timestamp=%d}",
+                citizenId, getCandidateId(), departmentId, timestamp);
     }
 
     @Override
@@ -42,11 +48,11 @@ public class CentralVoteCommand {
         if (obj == null || getClass() != obj.getClass()) return false;
 
         CentralVoteCommand that = (CentralVoteCommand) obj;
-        return citizenId.equals(that.citizenId) && candidateId.equals(that.candidateId);
+        return candidateOrdinal == that.candidateOrdinal && citizenId.equals(that.citizenId);
     }
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(citizenId, candidateId);
+        return 31 * citizenId.hashCode() + candidateOrdinal;
     }
 }
\ No newline at end of file
@@ -1,4 +1,5 @@
 import java.io.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
@@ -24,27 +25,13 @@ public class CentralVoteDAO {
     }
 
     /**
-     * Guardado individual sincronizado (método original)
+     * Guardado optimizado en batch usando NIO; devuelve los votos que no se pudieron
+     * escribir ni con el fallback individual (vacía si todo quedó en disco)
      */
-    public synchronized void save(String citizenId, String candidateId) {
-        fileLock.lock();
-        try (FileWriter fw = new FileWriter(file, true)) {
-            fw.write(citizenId + "," + candidateId + "\n");
-            fw.flush();
-        } catch (IOException e) {
-            System.err.println("[CentralVoteDAO] Error guardando voto individual: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            fileLock.unlock();
-        }
-    }
-
-    /**
-     * Guardado optimizado en batch usando NIO
-     */
-    public void saveBatch(List<CentralVoteCommand> batch) {
+    public List<CentralVoteCommand> saveBatch(List<CentralVoteCommand> batch) {
+        List<CentralVoteCommand> unsaved = new ArrayList<>();
         if (batch == null || batch.isEmpty()) {
-            return;
+            return unsaved;
         }
 
         fileLock.lock();
@@ -54,11 +41,15 @@ public class CentralVoteDAO {
             for (CentralVoteCommand vote : batch) {
                 batchContent.append(vote.getCitizenId())
                         .append(",")
-                        .append(vote.getCandidateId())
+                        .append(CandidateRegistry.ORDINAL_PREFIX)
+                        .append(vote.getCandidateOrdinal())
+                        .append(",")
+                        .append(vote.getDepartmentId())
                         .append("\n");
             }
 
             // OPTIMIZACIÓN: Escribir todo de una vez usando NIO
+            long fsyncStart = System.nanoTime();
             try (FileChannel channel = FileChannel.open(file.toPath(),
                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
 
@@ -72,6 +63,7 @@ public class CentralVoteDAO {
                 // Force sync para asegurar persistencia crítica
                 channel.force(false);
             }
+            VoteMetrics.getInstance().recordLatency(VoteMetrics.Stage.VOTE_FSYNC, System.nanoTime() - fsyncStart);
 
         } catch (IOException e) {
             System.err.println("[CentralVoteDAO] Error en batch write, fallback a individual: " + e.getMessage());
@@ -79,27 +71,34 @@ public class CentralVoteDAO {
             // Fallback: guardar votos individualmente
             for (CentralVoteCommand vote : batch) {
                 try {
-                    saveIndividualFallback(vote.getCitizenId(), vote.getCandidateId());
+                    saveIndividualFallback(vote.getCitizenId(), vote.getCandidateOrdinal(), vote.getDepartmentId());
                 } catch (Exception fallbackError) {
                     System.err.println("[CentralVoteDAO] Error crítico en fallback para voto: " +
                             vote.getCitizenId() + " -> " + vote.getCandidateId());
+                    unsaved.add(vote);
                 }
             }
         } finally {
             fileLock.unlock();
         }
+        return unsaved;
     }
 
     /**
      * Fallback para guardado individual sin sincronización externa
      */
-    private void saveIndividualFallback(String citizenId, String candidateId) throws IOException {
+    private void saveIndividualFallback(String citizenId, int candidateOrdinal, String departmentId) throws IOException {
         try (FileWriter fw = new FileWriter(file, true)) {
-            fw.write(citizenId + "," + candidateId + "\n");
+            fw.write(formatRecord(citizenId, candidateOrdinal, departmentId));
             fw.flush();
         }
     }
 
+    private static String formatRecord(String citizenId, int candidateOrdinal, String departmentId) {
+        return citizenId + "," + CandidateRegistry.formatStored(candidateOrdinal) + "," +
+                ResultsAggregator.normalize(departmentId) + "\n";
+    }
+
     /**
      * Método para obtener estadísticas del archivo centralizado
      */
@@ -149,7 +148,8 @@ public class CentralVoteDAO {
                     }
 
                     String[] parts = line.split(",");
-                    if (parts.length == 2 && !parts[0].trim().isEmpty() && !parts[1].trim().isEmpty()) {
+                    // 2 columnas (formato anterior) o 3 (con departamento)
+                    if ((parts.length == 2 || parts.length == 3) && !parts[0].trim().isEmpty() && !parts[1].trim().isEmpty()) {
                         validLines++;
                     } else {
                         invalidLines++;
@@ -189,9 +189,10 @@ public class CentralVoteDAO {
                 while ((line = reader.readLine()) != null) {
                     if (line.trim().isEmpty()) continue;
 
-                    String[] parts = line.split(",");
-                    if (parts.length == 2) {
-                        uniqueVotes.put(parts[0].trim(), parts[1].trim());
+                    // Se conserva el resto del registro (candidato y departamento si existe)
+                    int comma = line.indexOf(',');
+                    if (comma > 0) {
+                        uniqueVotes.put(line.substring(0, comma).trim(), line.substring(comma + 1).trim());
                     }
                 }
             }
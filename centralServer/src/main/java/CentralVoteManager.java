@@ -4,11 +4,14 @@
 //
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 public class CentralVoteManager {
     private static final CentralVoteManager instance = new CentralVoteManager();
@@ -18,19 +21,28 @@ public class CentralVoteManager {
 
     // OPTIMIZACIÓN: Partitioning para reducir contención
     private final int PARTITION_COUNT = 16;
-    private final Map<String, String>[] citizenVotesPartitions;
+    // Voto de cada ciudadano como ordinal de CandidateRegistry (Integer pequeño, sin un String por voto)
+    private final Map<String, Integer>[] citizenVotesPartitions;
     private final StampedLock[] partitionLocks;
 
-    // OPTIMIZACIÓN: Queue con mayor capacidad y múltiples workers
-    private final BlockingQueue<CentralVoteCommand> queue = new LinkedBlockingQueue<>(50000);
-    private final ExecutorService writerPool;
-    private final int WRITER_THREAD_COUNT = 8;
+    // Modo dueño de partición (null = particiones con StampedLock): cada partición la lee y
+    // modifica un solo hilo, así los mapas son HashMap sin locks ni CAS
+    private volatile PartitionOwners owners;
+
+    // Conteos nacionales y por departamento: los resultados no recorren todos los votos
+    private final CandidateRegistry candidateRegistry = CandidateRegistry.getInstance();
+    private final ResultsAggregator results = ResultsAggregator.getInstance();
+
+    // Los lotes del pipeline se persisten con una sola escritura (un fsync por lote)
+    private final CentralVoteDAO batchDao = new CentralVoteDAO();
 
     // MÉTRICAS de performance
     private final AtomicInteger totalVotes = new AtomicInteger(0);
     private final AtomicInteger duplicateVotes = new AtomicInteger(0);
-    private final AtomicInteger queueOverflows = new AtomicInteger(0);
-    private volatile long lastStatsTime = System.currentTimeMillis();
+    // Votantes únicos: se actualiza al registrar, así las consultas no suman particiones
+    private final AtomicInteger uniqueVoters = new AtomicInteger(0);
+    // Throughput en ventana deslizante (el acumulado no sirve como tasa)
+    private final VoteMetrics metrics = VoteMetrics.getInstance();
 
     @SuppressWarnings("unchecked")
     private CentralVoteManager() {
@@ -43,26 +55,13 @@ public class CentralVoteManager {
             partitionLocks[i] = new StampedLock();
         }
 
-        // OPTIMIZACIÓN: Pool de threads optimizado para escritura
-        writerPool = Executors.newFixedThreadPool(WRITER_THREAD_COUNT, r -> {
-            Thread t = new Thread(r, "CentralVoteWriter-" + Thread.currentThread().getId());
-            t.setDaemon(true);
-            return t;
-        });
-
-        // Iniciar workers
-        for (int i = 0; i < WRITER_THREAD_COUNT; i++) {
-            writerPool.submit(new CentralVoteWriter(queue));
-        }
-
         // NUEVA: Cargar votos existentes antes de iniciar métricas
         loadExistingVotes();
 
         // NUEVA: Thread para métricas periódicas
         startMetricsReporter();
 
-        System.out.println("[CentralVoteManager] Inicializado con " + PARTITION_COUNT +
-                " particiones y " + WRITER_THREAD_COUNT + " workers");
+        System.out.println("[CentralVoteManager] Inicializado con " + PARTITION_COUNT + " particiones");
     }
 
     public static CentralVoteManager getInstance() {
@@ -70,96 +69,171 @@ public class CentralVoteManager {
     }
 
     /**
-     * Recibe voto con partitioning optimizado para alta concurrencia
+     * Partición del ciudadano (las etapas del pipeline la usan para afinidad de hilos)
      */
-    public VoteResult receiveVote(String citizenId, String candidateId) {
-        totalVotes.incrementAndGet();
-
-        // OPTIMIZACIÓN: Determinar partición basada en hash del citizenId
-        int partition = Math.abs(citizenId.hashCode()) % PARTITION_COUNT;
-        Map<String, String> citizenVotes = citizenVotesPartitions[partition];
-        StampedLock partitionLock = partitionLocks[partition];
+    public int partitionOf(String citizenId) {
+        return Math.abs(citizenId.hashCode()) % PARTITION_COUNT;
+    }
 
-        // PASO 1: Verificación optimista con read lock
-        long stamp = partitionLock.tryOptimisticRead();
-        String existingVote = citizenVotes.get(citizenId);
+    public int getPartitionCount() {
+        return PARTITION_COUNT;
+    }
 
-        if (!partitionLock.validate(stamp)) {
-            // Fallback a read lock si optimistic falló
-            stamp = partitionLock.readLock();
-            try {
-                existingVote = citizenVotes.get(citizenId);
-            } finally {
-                partitionLock.unlockRead(stamp);
-            }
+    /**
+     * Registrar un lote de votos en memoria: un write lock por partición tocada.
+     * Los aceptados se agregan a 'accepted' para que el llamador los persista
+     * (persistVotes). Un ciudadano repetido dentro del lote queda como duplicado del primero.
+     */
+    public VoteResult[] registerVotes(String[] citizenIds, int[] candidateOrdinals, String[] departmentIds,
+                                      List<CentralVoteCommand> accepted) {
+        int n = citizenIds.length;
+        VoteResult[] out = new VoteResult[n];
+        totalVotes.addAndGet(n);
+        metrics.recordVotes(n);
+
+        // Agrupar los índices por partición (counting sort)
+        int[] partitionOf = new int[n];
+        int[] start = new int[PARTITION_COUNT + 1];
+        for (int i = 0; i < n; i++) {
+            partitionOf[i] = partitionOf(citizenIds[i]);
+            start[partitionOf[i] + 1]++;
+        }
+        for (int p = 0; p < PARTITION_COUNT; p++) {
+            start[p + 1] += start[p];
+        }
+        int[] order = new int[n];
+        int[] next = java.util.Arrays.copyOf(start, PARTITION_COUNT);
+        for (int i = 0; i < n; i++) {
+            order[next[partitionOf[i]]++] = i;
         }
 
-        if (existingVote != null) {
-            // Ciudadano ya votó - incrementar contador de duplicados
-            duplicateVotes.incrementAndGet();
+        int firstAccepted = accepted.size();
+        int duplicates = 0;
 
-            System.out.println("[CentralVoteManager] Duplicado en partición " + partition +
-                    ": " + citizenId + " ya votó por " + existingVote);
+        PartitionOwners currentOwners = owners;
+        if (currentOwners != null) {
+            duplicates = currentOwners.register(start, order, citizenIds, candidateOrdinals, departmentIds, out, accepted);
+        } else {
+            for (int p = 0; p < PARTITION_COUNT; p++) {
+                if (start[p] == start[p + 1]) continue;
 
-            if (existingVote.equals(candidateId)) {
-                return new VoteResult(false, true, existingVote, "Voto duplicado idéntico");
-            } else {
-                return new VoteResult(false, true, existingVote, "Ciudadano ya votó por candidato diferente");
+                StampedLock partitionLock = partitionLocks[p];
+                long stamp = partitionLock.writeLock();
+                try {
+                    duplicates += registerInPartition(p, start[p], start[p + 1], order,
+                            citizenIds, candidateOrdinals, departmentIds, out, accepted);
+                } finally {
+                    partitionLock.unlockWrite(stamp);
+                }
             }
         }
 
-        // PASO 2: Registrar nuevo voto con write lock
-        stamp = partitionLock.writeLock();
-        try {
-            // Double-check después de obtener write lock
-            existingVote = citizenVotes.get(citizenId);
-            if (existingVote != null) {
-                duplicateVotes.incrementAndGet();
-                return new VoteResult(false, true, existingVote, "Voto duplicado detectado en write lock");
-            }
-
-            // Registrar voto nuevo ATÓMICAMENTE
-            citizenVotes.put(citizenId, candidateId);
-
-        } finally {
-            partitionLock.unlockWrite(stamp);
+        for (int k = firstAccepted; k < accepted.size(); k++) {
+            CentralVoteCommand command = accepted.get(k);
+            results.record(command.getCandidateOrdinal(), command.getDepartmentId());
         }
+        duplicateVotes.addAndGet(duplicates);
+        uniqueVoters.addAndGet(accepted.size() - firstAccepted);
 
-        // PASO 3: Agregar a cola de escritura con overflow handling
-        CentralVoteCommand command = new CentralVoteCommand(citizenId, candidateId);
-        boolean queued = queue.offer(command);
-
-        if (!queued) {
-            queueOverflows.incrementAndGet();
-            System.err.println("[CentralVoteManager] OVERFLOW: Cola de escritura llena. Intentando escritura directa.");
+        AsyncLog.debug("CentralVoteManager", "Lote registrado: " + (accepted.size() - firstAccepted) +
+                " votos nuevos, " + duplicates + " duplicados");
+        return out;
+    }
 
-            // Fallback: escritura directa en caso de overflow
-            try {
-                command.persist(new CentralVoteDAO());
-            } catch (Exception e) {
-                System.err.println("[CentralVoteManager] ERROR en escritura directa: " + e.getMessage());
+    /**
+     * Registrar los votos order[from..to) de una partición; el llamador tiene el write lock
+     * o es el hilo dueño de la partición. Devuelve cuántos fueron duplicados.
+     */
+    private int registerInPartition(int partition, int from, int to, int[] order, String[] citizenIds,
+                                    int[] candidateOrdinals, String[] departmentIds, VoteResult[] out,
+                                    List<CentralVoteCommand> accepted) {
+        Map<String, Integer> citizenVotes = citizenVotesPartitions[partition];
+        int duplicates = 0;
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            Integer existingVote = citizenVotes.get(citizenIds[i]);
+            if (existingVote != null) {
+                duplicates++;
+                out[i] = new VoteResult(false, true, candidateRegistry.idOf(existingVote),
+                        existingVote == candidateOrdinals[i] ? "Voto duplicado idéntico"
+                                : "Ciudadano ya votó por candidato diferente");
+            } else {
+                String department = ResultsAggregator.normalize(departmentIds[i]);
+                citizenVotes.put(citizenIds[i], candidateOrdinals[i]);
+                accepted.add(new CentralVoteCommand(citizenIds[i], candidateOrdinals[i], department));
+                out[i] = new VoteResult(true, false, candidateRegistry.idOf(candidateOrdinals[i]),
+                        "Voto registrado exitosamente");
             }
         }
+        return duplicates;
+    }
 
-        System.out.println("[CentralVoteManager] Nuevo voto válido en partición " + partition +
-                ": " + citizenId + " -> " + candidateId);
+    /**
+     * Persistir votos ya registrados con una sola escritura (group commit con fsync);
+     * devuelve los que no quedaron en disco
+     */
+    public List<CentralVoteCommand> persistVotes(List<CentralVoteCommand> votes) {
+        return batchDao.saveBatch(votes);
+    }
 
-        return new VoteResult(true, false, candidateId, "Voto registrado exitosamente");
+    /**
+     * Deshacer el registro en memoria de votos que no se pudieron persistir: el ciudadano
+     * puede volver a votar y los conteos no incluyen un voto que no está en disco
+     */
+    public void unregisterVotes(List<CentralVoteCommand> votes) {
+        int removed = 0;
+        PartitionOwners currentOwners = owners;
+        for (CentralVoteCommand vote : votes) {
+            int partition = partitionOf(vote.getCitizenId());
+            Map<String, Integer> citizenVotes = citizenVotesPartitions[partition];
+            boolean undone;
+            if (currentOwners != null) {
+                undone = currentOwners.call(partition, () ->
+                        citizenVotesPartitions[partition].remove(vote.getCitizenId(), vote.getCandidateOrdinal()));
+            } else {
+                StampedLock partitionLock = partitionLocks[partition];
+                long stamp = partitionLock.writeLock();
+                try {
+                    undone = citizenVotes.remove(vote.getCitizenId(), vote.getCandidateOrdinal());
+                } finally {
+                    partitionLock.unlockWrite(stamp);
+                }
+            }
+            if (undone) {
+                results.unrecord(vote.getCandidateOrdinal(), vote.getDepartmentId());
+                removed++;
+            }
+        }
+        uniqueVoters.addAndGet(-removed);
+        AsyncLog.warn("CentralVoteManager", "Registro deshecho para " + removed + " votos no persistidos");
     }
 
     /**
      * Obtener voto existente con partitioning
      */
     public String getExistingVote(String citizenId) {
+        Integer ordinal = getExistingVoteOrdinal(citizenId);
+        return ordinal != null ? candidateRegistry.idOf(ordinal) : null;
+    }
+
+    /**
+     * Ordinal del voto existente (null si no ha votado)
+     */
+    public Integer getExistingVoteOrdinal(String citizenId) {
         if (citizenId == null) return null;
 
         int partition = Math.abs(citizenId.hashCode()) % PARTITION_COUNT;
-        Map<String, String> citizenVotes = citizenVotesPartitions[partition];
+        PartitionOwners currentOwners = owners;
+        if (currentOwners != null) {
+            return currentOwners.call(partition, () -> citizenVotesPartitions[partition].get(citizenId));
+        }
+
+        Map<String, Integer> citizenVotes = citizenVotesPartitions[partition];
         StampedLock partitionLock = partitionLocks[partition];
 
         // Lectura optimista
         long stamp = partitionLock.tryOptimisticRead();
-        String vote = citizenVotes.get(citizenId);
+        Integer vote = citizenVotes.get(citizenId);
 
         if (!partitionLock.validate(stamp)) {
             // Fallback a read lock
@@ -174,6 +248,28 @@ public class CentralVoteManager {
         return vote;
     }
 
+    /**
+     * Voto existente de varios ciudadanos (null donde no ha votado). En modo dueño de
+     * partición es una sola entrega por hilo dueño, no una por ciudadano.
+     */
+    public String[] getExistingVotes(String[] citizenIds) {
+        Integer[] ordinals = new Integer[citizenIds.length];
+        PartitionOwners currentOwners = owners;
+        if (currentOwners != null) {
+            currentOwners.lookup(citizenIds, ordinals);
+        } else {
+            for (int i = 0; i < citizenIds.length; i++) {
+                ordinals[i] = getExistingVoteOrdinal(citizenIds[i]);
+            }
+        }
+
+        String[] votes = new String[citizenIds.length];
+        for (int i = 0; i < citizenIds.length; i++) {
+            votes[i] = ordinals[i] != null ? candidateRegistry.idOf(ordinals[i]) : null;
+        }
+        return votes;
+    }
+
     /**
      * Verificación rápida de voto existente
      */
@@ -187,8 +283,16 @@ public class CentralVoteManager {
     public Set<String> getAllVoters() {
         Set<String> allVoters = ConcurrentHashMap.newKeySet();
 
+        PartitionOwners currentOwners = owners;
         for (int i = 0; i < PARTITION_COUNT; i++) {
-            Map<String, String> partition = citizenVotesPartitions[i];
+            if (currentOwners != null) {
+                int partitionIndex = i;
+                allVoters.addAll(currentOwners.call(i,
+                        () -> new ArrayList<>(citizenVotesPartitions[partitionIndex].keySet())));
+                continue;
+            }
+
+            Map<String, Integer> partition = citizenVotesPartitions[i];
             StampedLock lock = partitionLocks[i];
 
             long stamp = lock.readLock();
@@ -229,32 +333,37 @@ public class CentralVoteManager {
      * Estadísticas optimizadas con métricas de performance
      */
     public VotingStats getStats() {
-        int totalVotersCount = 0;
-        for (int i = 0; i < PARTITION_COUNT; i++) {
-            totalVotersCount += citizenVotesPartitions[i].size();
-        }
-
         return new VotingStats(
-                totalVotersCount,
-                queue.size(),
+                uniqueVoters.get(),
                 totalVotes.get(),
                 duplicateVotes.get(),
-                queueOverflows.get(),
                 calculateThroughput()
         );
     }
 
+    // Lecturas O(1) de contadores para monitoreo (getServerStats)
+
+    public int getTotalVoteCount() {
+        return totalVotes.get();
+    }
+
+    public int getUniqueVoterCount() {
+        return uniqueVoters.get();
+    }
+
+    public int getDuplicateCount() {
+        return duplicateVotes.get();
+    }
+
+    public double getThroughput() {
+        return calculateThroughput();
+    }
+
     /**
-     * Calcular throughput en votos/segundo
+     * Throughput en votos/segundo de los últimos 10 segundos completos
      */
     private double calculateThroughput() {
-        long currentTime = System.currentTimeMillis();
-        long timeDiff = currentTime - lastStatsTime;
-
-        if (timeDiff > 0) {
-            return (double) totalVotes.get() / (timeDiff / 1000.0);
-        }
-        return 0.0;
+        return metrics.getVotesPerSecond(10);
     }
 
     /**
@@ -265,7 +374,7 @@ public class CentralVoteManager {
 
         int totalCitizens = 0;
         for (int i = 0; i < PARTITION_COUNT; i++) {
-            int partitionSize = citizenVotesPartitions[i].size();
+            int partitionSize = partitionSize(i);
             totalCitizens += partitionSize;
 
             if (partitionSize > 0) {
@@ -274,12 +383,10 @@ public class CentralVoteManager {
         }
 
         System.out.println("Total ciudadanos registrados: " + totalCitizens);
-        System.out.println("Votos en cola de escritura: " + queue.size());
         System.out.println("Total votos procesados: " + totalVotes.get());
         System.out.println("Duplicados detectados: " + duplicateVotes.get());
-        System.out.println("Overflows de cola: " + queueOverflows.get());
         System.out.println("Throughput estimado: " + String.format("%.2f", calculateThroughput()) + " votos/seg");
-        System.out.println("Workers activos: " + WRITER_THREAD_COUNT);
+        System.out.println("Modo de particiones: " + getPartitionMode());
         System.out.println("================================");
     }
 
@@ -294,10 +401,13 @@ public class CentralVoteManager {
 
                     if (totalVotes.get() > 0) {
                         VotingStats stats = getStats();
-                        System.out.println("[CentralVoteManager-METRICS] " + stats.toString());
-
-                        // Reset counters para próximo período
-                        lastStatsTime = System.currentTimeMillis();
+                        System.out.println("[CentralVoteManager-METRICS] " + stats.toString() +
+                                String.format(" | 60s=%.2f v/s", metrics.getVotesPerSecond(60)));
+                        for (VoteMetrics.StageLatency latency : metrics.getLatencySnapshot()) {
+                            if (latency.count > 0) {
+                                System.out.println("[CentralVoteManager-METRICS] " + latency);
+                            }
+                        }
                     }
 
                 } catch (InterruptedException e) {
@@ -317,7 +427,17 @@ public class CentralVoteManager {
     public synchronized void clearForTesting() {
         System.out.println("[CentralVoteManager] Limpiando estado para testing...");
 
+        PartitionOwners currentOwners = owners;
         for (int i = 0; i < PARTITION_COUNT; i++) {
+            if (currentOwners != null) {
+                int partitionIndex = i;
+                currentOwners.call(i, () -> {
+                    citizenVotesPartitions[partitionIndex].clear();
+                    return null;
+                });
+                continue;
+            }
+
             StampedLock lock = partitionLocks[i];
             long stamp = lock.writeLock();
             try {
@@ -327,14 +447,13 @@ public class CentralVoteManager {
             }
         }
 
-        // Limpiar cola
-        queue.clear();
+        // Limpiar conteos
+        results.reset();
 
         // Reset contadores
         totalVotes.set(0);
         duplicateVotes.set(0);
-        queueOverflows.set(0);
-        lastStatsTime = System.currentTimeMillis();
+        uniqueVoters.set(0);
 
         System.out.println("[CentralVoteManager] Estado limpiado completamente");
     }
@@ -345,17 +464,12 @@ public class CentralVoteManager {
     public void shutdown() {
         System.out.println("[CentralVoteManager] Iniciando shutdown...");
 
-        writerPool.shutdown();
-        try {
-            if (!writerPool.awaitTermination(30, TimeUnit.SECONDS)) {
-                writerPool.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            writerPool.shutdownNow();
-            Thread.currentThread().interrupt();
+        PartitionOwners currentOwners = owners;
+        if (currentOwners != null) {
+            currentOwners.shutdown();
         }
 
-        System.out.println("[CentralVoteManager] Shutdown completo. Votos pendientes en cola: " + queue.size());
+        System.out.println("[CentralVoteManager] Shutdown completo");
     }
 
     /**
@@ -372,6 +486,7 @@ public class CentralVoteManager {
 
         int loadedVotes = 0;
         int duplicatesIgnored = 0;
+        int unknownCandidates = 0;
 
         try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader(voteFile))) {
             String line;
@@ -381,15 +496,23 @@ public class CentralVoteManager {
                 String[] parts = line.split(",");
                 if (parts.length >= 2) {
                     String citizenId = parts[0].trim();
-                    String candidateId = parts[1].trim();
+                    // "#n" (ordinal) o el ID de candidato del formato anterior
+                    int candidateOrdinal = candidateRegistry.parseStored(parts[1].trim());
+                    if (candidateOrdinal < 0) {
+                        unknownCandidates++;
+                        continue;
+                    }
+                    // Tercera columna: departamento que envió el voto (ausente en el formato anterior)
+                    String departmentId = parts.length >= 3 ? parts[2].trim() : null;
 
                     // Determinar partición
                     int partition = Math.abs(citizenId.hashCode()) % PARTITION_COUNT;
-                    Map<String, String> citizenVotes = citizenVotesPartitions[partition];
+                    Map<String, Integer> citizenVotes = citizenVotesPartitions[partition];
 
                     // Verificar si ya existe (para manejar duplicados en archivo)
                     if (!citizenVotes.containsKey(citizenId)) {
-                        citizenVotes.put(citizenId, candidateId);
+                        citizenVotes.put(citizenId, candidateOrdinal);
+                        results.record(candidateOrdinal, departmentId);
                         loadedVotes++;
                     } else {
                         duplicatesIgnored++;
@@ -399,10 +522,15 @@ public class CentralVoteManager {
 
             // Actualizar contador de votos procesados
             totalVotes.set(loadedVotes);
+            uniqueVoters.set(loadedVotes);
 
             System.out.println("[CentralVoteManager] ✅ Carga completada:");
             System.out.println("   Votos cargados: " + loadedVotes);
             System.out.println("   Duplicados ignorados: " + duplicatesIgnored);
+            if (unknownCandidates > 0) {
+                System.err.println("[CentralVoteManager] ⚠️  " + unknownCandidates +
+                        " votos con ordinal de candidato desconocido ignorados (revisar candidate-ordinals.csv)");
+            }
             System.out.println("   Votantes únicos: " + getAllVoters().size());
 
         } catch (java.io.IOException e) {
@@ -410,24 +538,181 @@ public class CentralVoteManager {
             System.out.println("[CentralVoteManager] Continuando con estado limpio");
         }
     }
-    public java.util.Map<String, Integer> getVotesByCandidate() {
-        java.util.Map<String, Integer> voteCount = new java.util.HashMap<>();
+    // ============================================================================
+    // MODO DUEÑO DE PARTICIÓN
+    // ============================================================================
 
+    /**
+     * Pasar a modo dueño de partición: 'threads' hilos, cada uno dueño de las particiones
+     * p con p % threads == su índice. Todo acceso a una partición (registro, consultas,
+     * tamaños) se ejecuta en su hilo dueño, así los mapas pasan a HashMap sin locks.
+     * Llamar al arrancar, antes de recibir votos.
+     */
+    public synchronized void enablePartitionOwners(int threads) {
+        if (owners != null || threads <= 0) return;
+
+        PartitionOwners newOwners = new PartitionOwners(Math.min(threads, PARTITION_COUNT));
         for (int i = 0; i < PARTITION_COUNT; i++) {
-            Map<String, String> partition = citizenVotesPartitions[i];
-            StampedLock lock = partitionLocks[i];
+            int partitionIndex = i;
+            // La copia se hace en el hilo dueño: desde aquí solo él toca el mapa
+            newOwners.call(i, () -> {
+                citizenVotesPartitions[partitionIndex] = new java.util.HashMap<>(citizenVotesPartitions[partitionIndex]);
+                return null;
+            });
+        }
+        owners = newOwners;
 
-            long stamp = lock.readLock();
+        System.out.println("[CentralVoteManager] Modo dueño de partición: " + newOwners.loops.length +
+                " hilos para " + PARTITION_COUNT + " particiones (sin locks en los mapas)");
+    }
+
+    public String getPartitionMode() {
+        PartitionOwners currentOwners = owners;
+        return currentOwners != null ? "dueño de partición (" + currentOwners.loops.length + " hilos)" : "StampedLock";
+    }
+
+    private int partitionSize(int partition) {
+        PartitionOwners currentOwners = owners;
+        if (currentOwners != null) {
+            return currentOwners.call(partition, () -> citizenVotesPartitions[partition].size());
+        }
+        return citizenVotesPartitions[partition].size();
+    }
+
+    /**
+     * Hilos dueños de las particiones: un executor de un solo hilo por dueño
+     */
+    private final class PartitionOwners {
+        private final ExecutorService[] loops;
+
+        PartitionOwners(int count) {
+            loops = new ExecutorService[count];
+            for (int i = 0; i < count; i++) {
+                String name = "CentralVotePartition-" + i;
+                loops[i] = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, name);
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+        }
+
+        int ownerOf(int partition) {
+            return partition % loops.length;
+        }
+
+        /**
+         * Ejecutar en el hilo dueño de la partición y esperar el resultado
+         */
+        <T> T call(int partition, Supplier<T> task) {
             try {
-                for (String candidateId : partition.values()) {
-                    voteCount.merge(candidateId, 1, Integer::sum);
+                return CompletableFuture.supplyAsync(task, loops[ownerOf(partition)]).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        /**
+         * Registrar un lote ya agrupado por partición: cada dueño procesa sus particiones
+         * en paralelo con los demás, sin locks. Devuelve cuántos fueron duplicados.
+         */
+        int register(int[] start, int[] order, String[] citizenIds, int[] candidateOrdinals,
+                     String[] departmentIds, VoteResult[] out, List<CentralVoteCommand> accepted) {
+            List<CompletableFuture<List<CentralVoteCommand>>> pending = new ArrayList<>(loops.length);
+            int[] duplicates = new int[loops.length];
+
+            for (int owner = 0; owner < loops.length; owner++) {
+                boolean hasVotes = false;
+                for (int p = owner; p < PARTITION_COUNT; p += loops.length) {
+                    if (start[p] != start[p + 1]) {
+                        hasVotes = true;
+                        break;
+                    }
                 }
-            } finally {
-                lock.unlockRead(stamp);
+                if (!hasVotes) continue;
+
+                int ownerIndex = owner;
+                pending.add(CompletableFuture.supplyAsync(() -> {
+                    List<CentralVoteCommand> ownerAccepted = new ArrayList<>();
+                    for (int p = ownerIndex; p < PARTITION_COUNT; p += loops.length) {
+                        if (start[p] == start[p + 1]) continue;
+                        duplicates[ownerIndex] += registerInPartition(p, start[p], start[p + 1], order,
+                                citizenIds, candidateOrdinals, departmentIds, out, ownerAccepted);
+                    }
+                    return ownerAccepted;
+                }, loops[owner]));
+            }
+
+            // join() publica lo que cada dueño escribió en 'out' y 'duplicates'
+            for (CompletableFuture<List<CentralVoteCommand>> ownerResult : pending) {
+                accepted.addAll(ownerResult.join());
+            }
+            int total = 0;
+            for (int ownerDuplicates : duplicates) {
+                total += ownerDuplicates;
+            }
+            return total;
+        }
+
+        /**
+         * Consultar varios ciudadanos: cada dueño lee los de sus particiones en una sola tarea
+         */
+        void lookup(String[] citizenIds, Integer[] out) {
+            List<List<Integer>> byOwner = new ArrayList<>(loops.length);
+            for (int owner = 0; owner < loops.length; owner++) {
+                byOwner.add(new ArrayList<>());
+            }
+            for (int i = 0; i < citizenIds.length; i++) {
+                if (citizenIds[i] != null) {
+                    byOwner.get(ownerOf(partitionOf(citizenIds[i]))).add(i);
+                }
+            }
+
+            List<CompletableFuture<Void>> pending = new ArrayList<>(loops.length);
+            for (int owner = 0; owner < loops.length; owner++) {
+                List<Integer> indexes = byOwner.get(owner);
+                if (indexes.isEmpty()) continue;
+                pending.add(CompletableFuture.runAsync(() -> {
+                    for (int i : indexes) {
+                        out[i] = citizenVotesPartitions[partitionOf(citizenIds[i])].get(citizenIds[i]);
+                    }
+                }, loops[owner]));
+            }
+
+            // join() publica lo que cada dueño escribió en 'out'
+            for (CompletableFuture<Void> ownerResult : pending) {
+                ownerResult.join();
             }
         }
 
-        return voteCount;
+        void shutdown() {
+            for (ExecutorService loop : loops) {
+                loop.shutdown();
+            }
+            for (ExecutorService loop : loops) {
+                try {
+                    loop.awaitTermination(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Votos por candidato desde los contadores (O(candidatos), sin recorrer los votos)
+     */
+    public java.util.Map<String, Integer> getVotesByCandidate() {
+        return ResultsAggregator.toCandidateMap(results.getNationalCounts());
+    }
+
+    /**
+     * Votos por candidato en un departamento (vacío si no ha enviado votos)
+     */
+    public java.util.Map<String, Integer> getVotesByCandidate(String departmentId) {
+        long[] counts = results.getDepartmentCounts(departmentId);
+        return counts != null ? ResultsAggregator.toCandidateMap(counts) : new java.util.HashMap<>();
     }
 
     /**
@@ -477,28 +762,21 @@ public class CentralVoteManager {
     }
     public static class VotingStats {
         public final int totalVoters;
-        public final int pendingVotes;
         public final int totalProcessed;
         public final int duplicatesDetected;
-        public final int queueOverflows;
         public final double throughputVotesPerSec;
 
-        public VotingStats(int totalVoters, int pendingVotes, int totalProcessed,
-                           int duplicatesDetected, int queueOverflows, double throughputVotesPerSec) {
+        public VotingStats(int totalVoters, int totalProcessed, int duplicatesDetected, double throughputVotesPerSec) {
             this.totalVoters = totalVoters;
-            this.pendingVotes = pendingVotes;
             this.totalProcessed = totalProcessed;
             this.duplicatesDetected = duplicatesDetected;
-            this.queueOverflows = queueOverflows;
             this.throughputVotesPerSec = throughputVotesPerSec;
         }
 
         @Override
         public String toString() {
-            return String.format("VotingStats{voters=%d, pending=%d, processed=%d, " +
-                            "duplicates=%d, overflows=%d, throughput=%.2f v/s}",
-                    totalVoters, pendingVotes, totalProcessed, duplicatesDetected,
-                    queueOverflows, throughputVotesPerSec);
+            return String.format("VotingStats{voters=%d, processed=%d, duplicates=%d, throughput=%.2f v/s}",
+                    totalVoters, totalProcessed, duplicatesDetected, throughputVotesPerSec);
         }
     }
 }
\ No newline at end of file
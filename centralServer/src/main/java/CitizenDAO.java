@@ -1,7 +1,8 @@
 import java.sql.*;
 import java.util.concurrent.ConcurrentHashMap;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import java.util.concurrent.atomic.LongAdder;
+import Database.DatabaseRouter;
+import Database.PoolRegistry;
 
 /**
  * CitizenDAO - ULTRA OPTIMIZADO para máxima velocidad
@@ -11,39 +12,18 @@ public class CitizenDAO {
 
     // CACHE AGRESIVO - una vez validado, nunca más consultar BD
     private static final ConcurrentHashMap<String, Boolean> cache = new ConcurrentHashMap<>(100_000);
-
-    // POOL MINIMALISTA - solo lo esencial
-    private static final HikariDataSource ds;
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final LongAdder cacheMisses = new LongAdder();
 
     // QUERY PRE-COMPILADA - máxima velocidad
     private static final String SQL = "SELECT 1 FROM ciudadano WHERE documento = ? LIMIT 1";
 
-    static {
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl("jdbc:postgresql://localhost:5432/votacion");
-        config.setUsername("postgres");
-        config.setPassword("postgres");
-
-        // CONFIGURACIÓN EXTREMA - velocidad sobre todo
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
-        config.setConnectionTimeout(2000);
-        config.setValidationTimeout(1000);
-        config.setIdleTimeout(30000);
-        config.setMaxLifetime(600000);
-        config.setLeakDetectionThreshold(3000); // detecta conexiones pegadas
-        config.setInitializationFailTimeout(-1); // arranca incluso si falla al inicio
-        config.setAutoCommit(true); // SELECT sin transacción
-
-        // POSTGRESQL TURBO
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "500");
-        config.addDataSourceProperty("useServerPrepStmts", "true");
-        config.addDataSourceProperty("reWriteBatchedInserts", "true");
-        config.addDataSourceProperty("defaultRowFetchSize", "1");
-
-        ds = new HikariDataSource(config);
-    }
+    // Validación por lote: una sola consulta para todos los documentos no cacheados
+    private static final String BATCH_SQL = "SELECT documento FROM ciudadano WHERE documento = ANY(?)";
+    private static final int MAX_BATCH_QUERY = 1000;
+
+    // Lecturas enrutadas a réplicas (failover a primaria)
+    private final DatabaseRouter router = DatabaseRouter.getInstance();
 
     /**
      * VALIDACIÓN ULTRA-RÁPIDA
@@ -52,23 +32,97 @@ public class CitizenDAO {
      */
     public boolean validateCitizen(String documento) {
         if (documento == null || documento.isEmpty()) return false;
+        Boolean cached = cache.get(documento);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
         return cache.computeIfAbsent(documento, this::queryDatabase);
     }
 
     /**
-     * Query directa a BD - sin logging innecesario
+     * Validación por lote: los aciertos de cache no tocan la BD y los fallos
+     * se resuelven en una consulta por cada MAX_BATCH_QUERY documentos
      */
-    private boolean queryDatabase(String documento) {
-        try (Connection conn = ds.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SQL)) {
+    public java.util.Set<String> validateCitizens(java.util.Collection<String> documentos) {
+        java.util.Set<String> valid = new java.util.HashSet<>();
+        java.util.List<String> misses = new java.util.ArrayList<>();
+        int hits = 0;
 
-            ps.setString(1, documento);
-            ps.setQueryTimeout(1); // máximo 1 segundo de espera
+        for (String documento : documentos) {
+            if (documento == null || documento.isEmpty()) continue;
+            Boolean cached = cache.get(documento);
+            if (cached == null) {
+                misses.add(documento);
+                continue;
+            }
+            hits++;
+            if (cached) {
+                valid.add(documento);
+            }
+        }
+        cacheHits.add(hits);
+        cacheMisses.add(misses.size());
 
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
+        for (int from = 0; from < misses.size(); from += MAX_BATCH_QUERY) {
+            java.util.List<String> chunk = misses.subList(from, Math.min(misses.size(), from + MAX_BATCH_QUERY));
+            java.util.Set<String> found = queryDatabase(chunk);
+            if (found == null) {
+                // Error = denegar por seguridad (sin cachear, se reintenta en el próximo lote)
+                continue;
+            }
+            for (String documento : chunk) {
+                boolean exists = found.contains(documento);
+                cache.put(documento, exists);
+                if (exists) {
+                    valid.add(documento);
+                }
             }
+        }
+
+        return valid;
+    }
+
+    /**
+     * Documentos existentes del lote; null si la BD falló
+     */
+    private java.util.Set<String> queryDatabase(java.util.List<String> documentos) {
+        try {
+            return router.executeRead(PoolRegistry.CITIZEN, conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(BATCH_SQL)) {
+                    ps.setArray(1, conn.createArrayOf("varchar", documentos.toArray()));
+                    ps.setQueryTimeout(2);
 
+                    java.util.Set<String> found = new java.util.HashSet<>();
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            found.add(rs.getString(1));
+                        }
+                    }
+                    return found;
+                }
+            });
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Query directa a BD - sin logging innecesario
+     */
+    private boolean queryDatabase(String documento) {
+        try {
+            return router.executeRead(PoolRegistry.CITIZEN, conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(SQL)) {
+                    ps.setString(1, documento);
+                    ps.setQueryTimeout(1); // máximo 1 segundo de espera
+
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next();
+                    }
+                }
+            });
         } catch (SQLException e) {
             // Error = denegar por seguridad (sin logging spam)
             return false;
@@ -79,9 +133,7 @@ public class CitizenDAO {
      * Shutdown limpio
      */
     public void close() {
-        if (!ds.isClosed()) {
-            ds.close();
-        }
+        router.shutdown();
     }
 
     /**
@@ -90,4 +142,12 @@ public class CitizenDAO {
     public int getCacheSize() {
         return cache.size();
     }
+
+    public static long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public static long getCacheMisses() {
+        return cacheMisses.sum();
+    }
 }
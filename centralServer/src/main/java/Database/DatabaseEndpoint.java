@@ -0,0 +1,159 @@
+package Database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DatabaseEndpoint - Una instancia PostgreSQL (primaria o réplica) con un pool por carga de trabajo
+ * Lleva la cuenta de solicitudes en curso y del estado de salud para el enrutamiento
+ */
+public class DatabaseEndpoint {
+    private static final int PROBE_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final boolean primary;
+    private final PoolRegistry registry;
+    private final ConcurrentHashMap<String, PoolPartition> partitions = new ConcurrentHashMap<>();
+
+    private final AtomicInteger outstanding = new AtomicInteger(0);
+    private final AtomicLong totalRequests = new AtomicLong(0);
+    private final AtomicLong totalFailures = new AtomicLong(0);
+    private volatile boolean healthy = true;
+    private volatile long lastStateChange = System.currentTimeMillis();
+
+    public DatabaseEndpoint(String name, String jdbcUrl, String user, String password,
+                            boolean primary, PoolRegistry registry) {
+        this.name = name;
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        this.primary = primary;
+        this.registry = registry;
+    }
+
+    /**
+     * Partición de pool para una carga (creada sin abrir conexiones)
+     */
+    PoolPartition partition(String workload) {
+        return partitions.computeIfAbsent(workload,
+                w -> new PoolPartition(this, w, registry.settingsFor(w)));
+    }
+
+    Connection getConnection(String workload) throws SQLException {
+        return partition(workload).getConnection();
+    }
+
+    /**
+     * Verificación de salud con una conexión propia de un solo uso, fuera de los pools:
+     * una partición saturada (timeout de espera del pool) no hace parecer caída a la instancia
+     */
+    boolean probe() {
+        Properties props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        props.setProperty("loginTimeout", String.valueOf(PROBE_TIMEOUT_SECONDS));
+        props.setProperty("connectTimeout", String.valueOf(PROBE_TIMEOUT_SECONDS));
+        props.setProperty("socketTimeout", String.valueOf(PROBE_TIMEOUT_SECONDS));
+
+        try (Connection conn = DriverManager.getConnection(jdbcUrl, props)) {
+            return conn.isValid(PROBE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void markHealthy() {
+        if (!healthy) {
+            healthy = true;
+            lastStateChange = System.currentTimeMillis();
+            System.out.println("[DatabaseRouter] ✅ " + name + " disponible nuevamente");
+        }
+    }
+
+    void markUnhealthy(String reason) {
+        if (healthy) {
+            healthy = false;
+            lastStateChange = System.currentTimeMillis();
+            System.err.println("[DatabaseRouter] ❌ " + name + " fuera de servicio: " + reason);
+        }
+    }
+
+    int acquire() {
+        totalRequests.incrementAndGet();
+        return outstanding.incrementAndGet();
+    }
+
+    void release() {
+        outstanding.decrementAndGet();
+    }
+
+    void recordFailure() {
+        totalFailures.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String getUser() {
+        return user;
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    public Collection<PoolPartition> getPartitions() {
+        return partitions.values();
+    }
+
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public long getTotalRequests() {
+        return totalRequests.get();
+    }
+
+    public long getTotalFailures() {
+        return totalFailures.get();
+    }
+
+    public long getLastStateChange() {
+        return lastStateChange;
+    }
+
+    void close() {
+        for (PoolPartition p : partitions.values()) {
+            p.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{%s, %s, enCurso=%d, solicitudes=%d, fallos=%d}",
+                name, primary ? "PRIMARIA" : "RÉPLICA", healthy ? "SANA" : "CAÍDA",
+                outstanding.get(), totalRequests.get(), totalFailures.get());
+    }
+}
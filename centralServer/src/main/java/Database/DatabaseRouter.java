@@ -0,0 +1,271 @@
+package Database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DatabaseRouter - Capa de datos compartida con enrutamiento a réplicas de lectura
+ *
+ * Las consultas de solo lectura (validación de ciudadanos, puestos de votación)
+ * se reparten entre las réplicas sanas eligiendo la que tenga menos solicitudes
+ * en curso. Un verificador periódico saca y reincorpora réplicas; si ninguna está
+ * disponible las lecturas caen a la primaria.
+ *
+ * Cada solicitud indica su carga de trabajo (ver PoolRegistry) y usa la partición
+ * de pool correspondiente en la instancia elegida.
+ *
+ * Configuración (propiedades Ice):
+ *   Database.Primary.Url, Database.User, Database.Password
+ *   Database.Replicas (URLs JDBC separadas por coma)
+ *   Database.HealthCheckInterval (ms), Database.ReadFromPrimaryOnFailover (0/1)
+ */
+public class DatabaseRouter {
+    private static volatile DatabaseRouter instance;
+
+    private final PoolRegistry registry;
+    private final DatabaseEndpoint primary;
+    private final DatabaseEndpoint[] replicas;
+    private final boolean readFromPrimaryOnFailover;
+    private final AtomicInteger rotation = new AtomicInteger(0);
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * Unidad de trabajo JDBC ejecutada sobre una conexión prestada
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private DatabaseRouter(com.zeroc.Ice.Properties props) {
+        this.registry = PoolRegistry.initialize(props);
+        String user = property(props, "Database.User", "postgres");
+        String password = property(props, "Database.Password", "postgres");
+
+        this.primary = new DatabaseEndpoint("primary",
+                property(props, "Database.Primary.Url", "jdbc:postgresql://localhost:5432/votacion"),
+                user, password, true, registry);
+
+        List<DatabaseEndpoint> replicaList = new ArrayList<>();
+        String replicaUrls = property(props, "Database.Replicas", "");
+        for (String url : replicaUrls.split(",")) {
+            if (!url.trim().isEmpty()) {
+                replicaList.add(new DatabaseEndpoint("replica-" + (replicaList.size() + 1), url.trim(),
+                        user, password, false, registry));
+            }
+        }
+        this.replicas = replicaList.toArray(new DatabaseEndpoint[0]);
+        this.readFromPrimaryOnFailover = intProperty(props, "Database.ReadFromPrimaryOnFailover", 1) == 1;
+
+        long interval = intProperty(props, "Database.HealthCheckInterval", 2000);
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DatabaseRouter-HealthCheck");
+            t.setDaemon(true);
+            return t;
+        });
+        if (replicas.length > 0) {
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        System.out.println("[DatabaseRouter] Inicializado - primaria: " + primary.getJdbcUrl() +
+                " | réplicas de lectura: " + replicas.length);
+
+        // Los pools se abren en segundo plano; el primer uso no espera al calentamiento
+        registry.warmUpAsync(getEndpoints());
+    }
+
+    /**
+     * Inicializar con la configuración del communicator (una sola vez por proceso)
+     */
+    public static synchronized DatabaseRouter initialize(com.zeroc.Ice.Properties props) {
+        if (instance == null) {
+            instance = new DatabaseRouter(props);
+        }
+        return instance;
+    }
+
+    /**
+     * Obtener la instancia; initialize debe haberse llamado antes (no se inventa configuración)
+     */
+    public static DatabaseRouter getInstance() {
+        DatabaseRouter router = instance;
+        if (router == null) {
+            throw new IllegalStateException("DatabaseRouter no inicializado: llamar initialize(properties) al arrancar");
+        }
+        return router;
+    }
+
+    public static boolean isInitialized() {
+        return instance != null;
+    }
+
+    /**
+     * Ejecutar trabajo de solo lectura en la réplica menos cargada, con failover
+     */
+    public <T> T executeRead(String workload, SqlWork<T> work) throws SQLException {
+        DatabaseEndpoint target = pickReplica(null);
+        if (target == null) {
+            return executeReadOnPrimary(workload, work);
+        }
+
+        try {
+            return execute(target, workload, work);
+        } catch (SQLException e) {
+            if (!isConnectionFailure(e)) {
+                throw e;
+            }
+            target.markUnhealthy(e.getMessage());
+
+            DatabaseEndpoint fallback = pickReplica(target);
+            if (fallback != null) {
+                try {
+                    return execute(fallback, workload, work);
+                } catch (SQLException fallbackError) {
+                    if (!isConnectionFailure(fallbackError)) {
+                        throw fallbackError;
+                    }
+                    fallback.markUnhealthy(fallbackError.getMessage());
+                }
+            }
+            return executeReadOnPrimary(workload, work);
+        }
+    }
+
+    /**
+     * Ejecutar trabajo en la primaria (escrituras o lecturas que requieren datos frescos)
+     */
+    public <T> T executeOnPrimary(String workload, SqlWork<T> work) throws SQLException {
+        return execute(primary, workload, work);
+    }
+
+    private <T> T executeReadOnPrimary(String workload, SqlWork<T> work) throws SQLException {
+        if (replicas.length > 0 && !readFromPrimaryOnFailover) {
+            throw new SQLTransientConnectionException("No hay réplicas de lectura disponibles", "08001");
+        }
+        return execute(primary, workload, work);
+    }
+
+    private <T> T execute(DatabaseEndpoint endpoint, String workload, SqlWork<T> work) throws SQLException {
+        endpoint.acquire();
+        try (Connection conn = endpoint.getConnection(workload)) {
+            return work.run(conn);
+        } catch (SQLException e) {
+            endpoint.recordFailure();
+            throw e;
+        } finally {
+            endpoint.release();
+        }
+    }
+
+    /**
+     * Menor número de solicitudes en curso entre las réplicas sanas.
+     * El punto de inicio rota para repartir los empates.
+     */
+    private DatabaseEndpoint pickReplica(DatabaseEndpoint exclude) {
+        int n = replicas.length;
+        if (n == 0) return null;
+
+        int offset = (rotation.getAndIncrement() & Integer.MAX_VALUE) % n;
+        DatabaseEndpoint best = null;
+        int bestLoad = Integer.MAX_VALUE;
+
+        for (int i = 0; i < n; i++) {
+            DatabaseEndpoint candidate = replicas[(offset + i) % n];
+            if (candidate == exclude || !candidate.isHealthy()) continue;
+
+            int load = candidate.getOutstanding();
+            if (load < bestLoad) {
+                best = candidate;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Verificación periódica de réplicas
+     */
+    private void checkReplicas() {
+        for (DatabaseEndpoint replica : replicas) {
+            try {
+                if (replica.probe()) {
+                    replica.markHealthy();
+                } else {
+                    replica.markUnhealthy("verificación de salud fallida");
+                }
+            } catch (Exception e) {
+                replica.markUnhealthy(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Falla de la instancia (no de la consulta). Un timeout de espera del pool sin causa
+     * de conexión es saturación de la partición, no una réplica caída.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        if (e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("57P"));
+    }
+
+    public DatabaseEndpoint getPrimary() {
+        return primary;
+    }
+
+    public List<DatabaseEndpoint> getReplicas() {
+        return List.of(replicas);
+    }
+
+    public List<DatabaseEndpoint> getEndpoints() {
+        List<DatabaseEndpoint> all = new ArrayList<>();
+        all.add(primary);
+        all.addAll(List.of(replicas));
+        return all;
+    }
+
+    public PoolRegistry getPoolRegistry() {
+        return registry;
+    }
+
+    public void printStatus() {
+        System.out.println("[DatabaseRouter] === ESTADO DE BASE DE DATOS ===");
+        for (DatabaseEndpoint endpoint : getEndpoints()) {
+            System.out.println("   " + endpoint);
+            for (PoolPartition partition : endpoint.getPartitions()) {
+                System.out.println("      " + partition);
+            }
+        }
+        System.out.println("   Presupuesto por instancia:       " + registry.getMaxConnectionsPerInstance() + " conexiones");
+        System.out.println("   Lecturas a primaria en failover: " + (readFromPrimaryOnFailover ? "SÍ" : "NO"));
+    }
+
+    /**
+     * Cerrar pools y verificador de salud
+     */
+    public void shutdown() {
+        healthChecker.shutdownNow();
+        for (DatabaseEndpoint replica : replicas) {
+            replica.close();
+        }
+        primary.close();
+    }
+
+    private static String property(com.zeroc.Ice.Properties props, String key, String defaultValue) {
+        return props != null ? props.getPropertyWithDefault(key, defaultValue) : defaultValue;
+    }
+
+    private static int intProperty(com.zeroc.Ice.Properties props, String key, int defaultValue) {
+        return props != null ? props.getPropertyAsIntWithDefault(key, defaultValue) : defaultValue;
+    }
+}
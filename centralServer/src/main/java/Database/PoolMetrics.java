@@ -0,0 +1,124 @@
+package Database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * PoolMetrics - Métricas de una partición de pool alimentadas por HikariCP
+ * Tiempo de espera por conexión (histograma log2 en µs), timeouts y uso de conexiones
+ */
+public class PoolMetrics implements IMetricsTracker {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray waitBuckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong(0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder totalUsageMillis = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    void bind(PoolStats poolStats) {
+        this.poolStats = poolStats;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedNanos) {
+        acquisitions.increment();
+        totalWaitNanos.add(elapsedNanos);
+        maxWaitNanos.accumulateAndGet(elapsedNanos, Math::max);
+
+        long micros = Math.max(1, elapsedNanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        waitBuckets.incrementAndGet(bucket);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedMillis) {
+        totalUsageMillis.add(elapsedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        connectionsCreated.increment();
+    }
+
+    /**
+     * Percentil aproximado del tiempo de espera (cota superior del bucket), en µs
+     */
+    public long getWaitPercentileMicros(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += waitBuckets.get(i);
+        }
+        if (total == 0) return 0;
+
+        long threshold = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += waitBuckets.get(i);
+            if (seen >= threshold) {
+                return 1L << (i + 1);
+            }
+        }
+        return 1L << BUCKETS;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public double getAverageWaitMicros() {
+        long count = acquisitions.sum();
+        return count == 0 ? 0.0 : totalWaitNanos.sum() / 1000.0 / count;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitNanos.get() / 1000;
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated.sum();
+    }
+
+    public double getAverageUsageMillis() {
+        long count = acquisitions.sum();
+        return count == 0 ? 0.0 : (double) totalUsageMillis.sum() / count;
+    }
+
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getIdleConnections() : 0;
+    }
+
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("activas=%d, ociosas=%d, esperando=%d, adquisiciones=%d, espera prom=%.1fµs p99≤%dµs max=%dµs, timeouts=%d, uso prom=%.1fms",
+                getActiveConnections(), getIdleConnections(), getPendingThreads(), getAcquisitions(),
+                getAverageWaitMicros(), getWaitPercentileMicros(99), getMaxWaitMicros(),
+                getTimeouts(), getAverageUsageMillis());
+    }
+}
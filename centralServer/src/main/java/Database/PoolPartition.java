@@ -0,0 +1,116 @@
+package Database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * PoolPartition - Pool de conexiones de una carga de trabajo sobre una instancia
+ * El HikariDataSource se crea en el primer uso (o en el calentamiento en segundo plano)
+ */
+public class PoolPartition {
+    private final DatabaseEndpoint endpoint;
+    private final String workload;
+    private final PoolRegistry.PoolSettings settings;
+    private final PoolMetrics metrics = new PoolMetrics();
+    private volatile HikariDataSource dataSource;
+    private volatile boolean closed = false;
+
+    PoolPartition(DatabaseEndpoint endpoint, String workload, PoolRegistry.PoolSettings settings) {
+        this.endpoint = endpoint;
+        this.workload = workload;
+        this.settings = settings;
+    }
+
+    Connection getConnection() throws SQLException {
+        return dataSource().getConnection();
+    }
+
+    /**
+     * Crear el pool si aún no existe (doble verificación)
+     */
+    HikariDataSource dataSource() throws SQLException {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new SQLException("Pool cerrado: " + getPoolName(), "08003");
+                }
+                ds = dataSource;
+                if (ds == null) {
+                    ds = createDataSource();
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    private HikariDataSource createDataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(getPoolName());
+        config.setJdbcUrl(endpoint.getJdbcUrl());
+        config.setUsername(endpoint.getUser());
+        config.setPassword(endpoint.getPassword());
+
+        config.setMaximumPoolSize(settings.size);
+        config.setMinimumIdle(Math.min(settings.minIdle, settings.size));
+        config.setConnectionTimeout(settings.connectionTimeout);
+        config.setValidationTimeout(1000);
+        config.setIdleTimeout(30000);
+        config.setMaxLifetime(600000);
+        if (settings.leakDetectionThreshold > 0) {
+            config.setLeakDetectionThreshold(settings.leakDetectionThreshold);
+        }
+        config.setInitializationFailTimeout(-1); // no bloquear el arranque si la instancia está caída
+        config.setAutoCommit(true);
+        config.setReadOnly(!endpoint.isPrimary());
+
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "500");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+        config.setMetricsTrackerFactory((poolName, poolStats) -> {
+            metrics.bind(poolStats);
+            return metrics;
+        });
+
+        return new HikariDataSource(config);
+    }
+
+    boolean isInitialized() {
+        return dataSource != null;
+    }
+
+    synchronized void close() {
+        closed = true;
+        HikariDataSource ds = dataSource;
+        if (ds != null && !ds.isClosed()) {
+            ds.close();
+        }
+    }
+
+    public String getPoolName() {
+        return "db-" + endpoint.getName() + "-" + workload;
+    }
+
+    public String getWorkload() {
+        return workload;
+    }
+
+    public int getMaxSize() {
+        return settings.size;
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{tamaño=%d, %s, %s}", getPoolName(), settings.size,
+                isInitialized() ? "INICIALIZADO" : "DIFERIDO", metrics);
+    }
+}
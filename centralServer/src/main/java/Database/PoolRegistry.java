@@ -0,0 +1,165 @@
+package Database;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PoolRegistry - Registro único de pools de conexiones, configurado desde el archivo de propiedades Ice
+ *
+ * Cada carga de trabajo (workload) tiene su propia partición de pool en cada instancia, de modo que
+ * la validación de votos no compite por conexiones con las consultas de puesto. Los tamaños se
+ * dimensionan en conjunto contra un presupuesto por instancia.
+ *
+ * Configuración:
+ *   Database.Workloads                      lista de cargas (por defecto citizen,query,loadtest)
+ *   Database.Pool.<carga>.Size              conexiones máximas de la partición
+ *   Database.Pool.<carga>.MinIdle           conexiones ociosas mínimas
+ *   Database.Pool.<carga>.ConnectionTimeout espera máxima por conexión (ms)
+ *   Database.Pool.<carga>.LeakDetection     umbral de detección de fugas (ms, 0 = apagado)
+ *   Database.MaxConnectionsPerInstance      presupuesto total por instancia (0 = sin límite)
+ */
+public class PoolRegistry {
+    public static final String CITIZEN = "citizen";
+    public static final String QUERY = "query";
+    public static final String LOADTEST = "loadtest";
+
+    private static volatile PoolRegistry instance;
+
+    private final Map<String, PoolSettings> settings = new LinkedHashMap<>();
+    private final int maxConnectionsPerInstance;
+
+    /**
+     * Parámetros de una partición
+     */
+    public static class PoolSettings {
+        final int size;
+        final int minIdle;
+        final long connectionTimeout;
+        final long leakDetectionThreshold;
+
+        PoolSettings(int size, int minIdle, long connectionTimeout, long leakDetectionThreshold) {
+            this.size = size;
+            this.minIdle = minIdle;
+            this.connectionTimeout = connectionTimeout;
+            this.leakDetectionThreshold = leakDetectionThreshold;
+        }
+
+        PoolSettings withSize(int newSize) {
+            return new PoolSettings(newSize, Math.min(minIdle, newSize), connectionTimeout, leakDetectionThreshold);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("tamaño=%d, minIdle=%d, timeout=%dms", size, minIdle, connectionTimeout);
+        }
+    }
+
+    private PoolRegistry(com.zeroc.Ice.Properties props) {
+        this.maxConnectionsPerInstance = intProperty(props, "Database.MaxConnectionsPerInstance", 40);
+
+        String workloads = property(props, "Database.Workloads", CITIZEN + "," + QUERY + "," + LOADTEST);
+        int requested = 0;
+        for (String raw : workloads.split(",")) {
+            String workload = raw.trim();
+            if (workload.isEmpty()) continue;
+
+            String prefix = "Database.Pool." + workload + ".";
+            PoolSettings s = new PoolSettings(
+                    Math.max(1, intProperty(props, prefix + "Size", defaultSize(workload))),
+                    intProperty(props, prefix + "MinIdle", 2),
+                    intProperty(props, prefix + "ConnectionTimeout", 2000),
+                    intProperty(props, prefix + "LeakDetection", 0));
+            settings.put(workload, s);
+            requested += s.size;
+        }
+
+        // Dimensionar en conjunto: si la suma excede el presupuesto, escalar proporcionalmente
+        if (maxConnectionsPerInstance > 0 && requested > maxConnectionsPerInstance) {
+            System.err.println("[PoolRegistry] ⚠️ Pools solicitan " + requested + " conexiones por instancia, presupuesto " +
+                    maxConnectionsPerInstance + " - escalando proporcionalmente");
+            for (Map.Entry<String, PoolSettings> entry : settings.entrySet()) {
+                int scaled = Math.max(1, entry.getValue().size * maxConnectionsPerInstance / requested);
+                entry.setValue(entry.getValue().withSize(scaled));
+            }
+        }
+
+        System.out.println("[PoolRegistry] Particiones configuradas: " + settings);
+    }
+
+    private static int defaultSize(String workload) {
+        switch (workload) {
+            case CITIZEN: return 10;
+            case QUERY: return 20;
+            case LOADTEST: return 5;
+            default: return 5;
+        }
+    }
+
+    /**
+     * Inicializar con la configuración del communicator (una sola vez por proceso)
+     */
+    public static synchronized PoolRegistry initialize(com.zeroc.Ice.Properties props) {
+        if (instance == null) {
+            instance = new PoolRegistry(props);
+        }
+        return instance;
+    }
+
+    /**
+     * Obtener la instancia; usa valores por defecto si nadie la inicializó
+     */
+    public static PoolRegistry getInstance() {
+        PoolRegistry registry = instance;
+        return registry != null ? registry : initialize(null);
+    }
+
+    /**
+     * Parámetros de una carga; cargas no declaradas usan un pool pequeño por defecto
+     */
+    PoolSettings settingsFor(String workload) {
+        PoolSettings s = settings.get(workload);
+        return s != null ? s : new PoolSettings(defaultSize(workload), 1, 2000, 0);
+    }
+
+    /**
+     * Crear los pools de todas las particiones en un hilo de fondo para no bloquear el arranque
+     */
+    void warmUpAsync(Collection<DatabaseEndpoint> endpoints) {
+        Thread warmUp = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            int created = 0;
+            for (DatabaseEndpoint endpoint : endpoints) {
+                for (String workload : settings.keySet()) {
+                    try {
+                        endpoint.partition(workload).dataSource();
+                        created++;
+                    } catch (Exception e) {
+                        System.err.println("[PoolRegistry] Error calentando " + endpoint.getName() + "/" + workload +
+                                ": " + e.getMessage());
+                    }
+                }
+            }
+            System.out.println("[PoolRegistry] " + created + " pools listos en " +
+                    (System.currentTimeMillis() - start) + "ms");
+        }, "PoolRegistry-WarmUp");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    public Collection<String> getWorkloads() {
+        return settings.keySet();
+    }
+
+    public int getMaxConnectionsPerInstance() {
+        return maxConnectionsPerInstance;
+    }
+
+    private static String property(com.zeroc.Ice.Properties props, String key, String defaultValue) {
+        return props != null ? props.getPropertyWithDefault(key, defaultValue) : defaultValue;
+    }
+
+    private static int intProperty(com.zeroc.Ice.Properties props, String key, int defaultValue) {
+        return props != null ? props.getPropertyAsIntWithDefault(key, defaultValue) : defaultValue;
+    }
+}
@@ -0,0 +1,116 @@
+import com.zeroc.Ice.Instrumentation.CommunicatorObserver;
+import com.zeroc.Ice.Instrumentation.ConnectionObserver;
+import com.zeroc.Ice.Instrumentation.ConnectionState;
+import com.zeroc.Ice.Instrumentation.DispatchObserver;
+import com.zeroc.Ice.Instrumentation.InvocationObserver;
+import com.zeroc.Ice.Instrumentation.Observer;
+import com.zeroc.Ice.Instrumentation.ObserverUpdater;
+import com.zeroc.Ice.Instrumentation.ThreadObserver;
+import com.zeroc.Ice.Instrumentation.ThreadState;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * IceThreadPoolObserver - Uso de los thread pools de Ice (hilos vivos y ocupados por pool)
+ *
+ * Se instala como observer del communicator (InitializationData.observer); Ice avisa cada
+ * cambio de estado de sus hilos y aquí solo se llevan dos contadores por pool. El resto
+ * de observers (conexiones, invocaciones, dispatch) no se usan: devuelven null.
+ */
+public class IceThreadPoolObserver implements CommunicatorObserver {
+
+    static final class PoolUsage {
+        final AtomicInteger threads = new AtomicInteger();
+        final AtomicInteger inUse = new AtomicInteger();
+    }
+
+    private final ConcurrentHashMap<String, PoolUsage> pools = new ConcurrentHashMap<>();
+
+    private final class PoolThreadObserver implements ThreadObserver {
+        private final PoolUsage usage;
+
+        PoolThreadObserver(PoolUsage usage) {
+            this.usage = usage;
+        }
+
+        @Override
+        public void attach() {
+            usage.threads.incrementAndGet();
+        }
+
+        @Override
+        public void detach() {
+            usage.threads.decrementAndGet();
+        }
+
+        @Override
+        public void failed(String exceptionName) {
+        }
+
+        @Override
+        public void stateChanged(ThreadState oldState, ThreadState newState) {
+            boolean wasBusy = oldState != ThreadState.ThreadStateIdle;
+            boolean isBusy = newState != ThreadState.ThreadStateIdle;
+            if (!wasBusy && isBusy) {
+                usage.inUse.incrementAndGet();
+            } else if (wasBusy && !isBusy) {
+                usage.inUse.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public ThreadObserver getThreadObserver(String parent, String id, ThreadState state, ThreadObserver old) {
+        // Ice vuelve a pedir el observer al actualizar observers: se conserva el mismo
+        if (old instanceof PoolThreadObserver) {
+            return old;
+        }
+        return new PoolThreadObserver(pools.computeIfAbsent(parent, p -> new PoolUsage()));
+    }
+
+    /**
+     * Hilos vivos y ocupados por pool: {threads, inUse}
+     */
+    public Map<String, int[]> getUsage() {
+        Map<String, int[]> usage = new TreeMap<>();
+        for (Map.Entry<String, PoolUsage> entry : pools.entrySet()) {
+            PoolUsage pool = entry.getValue();
+            usage.put(entry.getKey(), new int[]{pool.threads.get(), Math.max(0, pool.inUse.get())});
+        }
+        return usage;
+    }
+
+    @Override
+    public Observer getConnectionEstablishmentObserver(com.zeroc.Ice.Endpoint endpoint, String connector) {
+        return null;
+    }
+
+    @Override
+    public Observer getEndpointLookupObserver(com.zeroc.Ice.Endpoint endpoint) {
+        return null;
+    }
+
+    @Override
+    public ConnectionObserver getConnectionObserver(com.zeroc.Ice.ConnectionInfo info, com.zeroc.Ice.Endpoint endpoint,
+                                                    ConnectionState state, ConnectionObserver old) {
+        return null;
+    }
+
+    @Override
+    public InvocationObserver getInvocationObserver(com.zeroc.Ice.ObjectPrx proxy, String operation,
+                                                    Map<String, String> context) {
+        return null;
+    }
+
+    @Override
+    public DispatchObserver getDispatchObserver(com.zeroc.Ice.Current current, int size) {
+        return null;
+    }
+
+    @Override
+    public void setObserverUpdater(ObserverUpdater updater) {
+    }
+}
@@ -0,0 +1,183 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MetricsHttpServer - Endpoint HTTP embebido con métricas en formato de texto de Prometheus
+ *
+ * Usa el HttpServer del JDK (sin dependencias) con un único hilo daemon: un scrape cada
+ * pocos segundos no necesita más, y así nunca compite con el procesamiento de votos.
+ * Cada scrape recorre los Collector registrados; ellos solo leen contadores ya mantenidos
+ * por los componentes, sin recorrer particiones ni tomar locks.
+ *
+ * Configuración: Central.Metrics.Port (0 = deshabilitado) y Central.Metrics.Host.
+ */
+public class MetricsHttpServer {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Fuente de métricas: escribe sus familias en cada scrape
+     */
+    public interface Collector {
+        void collect(Exposition out);
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<Collector> collectors;
+
+    public MetricsHttpServer(String host, int port, List<Collector> collectors) throws IOException {
+        this.collectors = List.copyOf(collectors);
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "MetricsHttpServer");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /**
+     * Levantar el endpoint según Central.Metrics.*; null si está deshabilitado o no se pudo abrir el puerto
+     */
+    public static MetricsHttpServer startFromProperties(com.zeroc.Ice.Properties properties, List<Collector> collectors) {
+        int port = properties.getPropertyAsIntWithDefault("Central.Metrics.Port", 0);
+        if (port <= 0) {
+            return null;
+        }
+        String host = properties.getPropertyWithDefault("Central.Metrics.Host", "0.0.0.0");
+        try {
+            MetricsHttpServer metricsServer = new MetricsHttpServer(host, port, collectors);
+            metricsServer.start();
+            System.out.println("[MetricsHttpServer] 📈 Métricas Prometheus en http://" + host + ":" +
+                    metricsServer.getPort() + "/metrics");
+            return metricsServer;
+        } catch (IOException e) {
+            System.err.println("[MetricsHttpServer] ⚠️ No se pudo abrir el puerto de métricas " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Texto completo de un scrape; un collector que falla no tumba a los demás
+     */
+    public String scrape() {
+        Exposition out = new Exposition();
+        for (Collector collector : collectors) {
+            try {
+                collector.collect(out);
+            } catch (RuntimeException e) {
+                System.err.println("[MetricsHttpServer] Error en collector " + collector.getClass().getSimpleName() +
+                        ": " + e.getMessage());
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Escritor del formato de exposición: HELP y TYPE una sola vez por familia, seguidos
+     * de sus muestras. Las etiquetas van como pares nombre/valor.
+     */
+    public static final class Exposition {
+        private final StringBuilder text = new StringBuilder(8192);
+        private final Set<String> declared = new HashSet<>();
+        private String family;
+
+        public Exposition family(String name, String type, String help) {
+            if (declared.add(name)) {
+                text.append("# HELP ").append(name).append(' ').append(escapeHelp(help)).append('\n');
+                text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            }
+            family = name;
+            return this;
+        }
+
+        public Exposition sample(double value, String... labels) {
+            text.append(family);
+            if (labels.length > 0) {
+                text.append('{');
+                for (int i = 0; i + 1 < labels.length; i += 2) {
+                    if (i > 0) text.append(',');
+                    text.append(labels[i]).append("=\"").append(escapeLabel(labels[i + 1])).append('"');
+                }
+                text.append('}');
+            }
+            text.append(' ').append(formatValue(value)).append('\n');
+            return this;
+        }
+
+        public Exposition gauge(String name, String help, double value) {
+            return family(name, "gauge", help).sample(value);
+        }
+
+        public Exposition counter(String name, String help, double value) {
+            return family(name, "counter", help).sample(value);
+        }
+
+        private static String formatValue(double value) {
+            if (Double.isNaN(value)) return "NaN";
+            if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+            if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+            return Double.toString(value);
+        }
+
+        private static String escapeHelp(String help) {
+            return help.replace("\\", "\\\\").replace("\n", "\\n");
+        }
+
+        private static String escapeLabel(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
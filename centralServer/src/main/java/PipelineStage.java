@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PipelineStage - Etapa de un pipeline por etapas (SEDA)
+ *
+ * Cada etapa tiene su propia cola acotada y sus propios hilos. Los hilos toman lo que
+ * haya en la cola (hasta maxBatch) y lo procesan de una vez. Con afinidad, cada hilo
+ * tiene su propia cola y un elemento siempre va al mismo hilo según su clave (por
+ * ejemplo, la partición del ciudadano), así dos hilos nunca compiten por la misma partición.
+ *
+ * Métricas por etapa: profundidad de cola (actual y máxima), lotes, elementos y tiempo
+ * de servicio, para ver bajo carga cuál etapa es el cuello de botella.
+ */
+public class PipelineStage<T> {
+
+    /**
+     * Procesamiento de un lote de la etapa; si falla, onFailure recibe solo los elementos
+     * que el lote todavía no entregó a otra etapa (esos ya los completa la siguiente)
+     */
+    public interface Handler<T> {
+        void handle(List<T> batch) throws Exception;
+    }
+
+    public interface FailureHandler<T> {
+        void onFailure(List<T> batch, Exception error);
+    }
+
+    private final String name;
+    private final Handler<T> handler;
+    private final FailureHandler<T> failureHandler;
+    private final BlockingQueue<T>[] queues;
+    private final int maxBatch;
+    private final Thread[] workers;
+    private volatile boolean running = true;
+
+    // Métricas
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+
+    // Elementos que el lote en curso del hilo ya pasó a otra etapa con put (solo hilos de etapa)
+    private static final ThreadLocal<Set<Object>> handedOff = new ThreadLocal<>();
+
+    @SuppressWarnings("unchecked")
+    public PipelineStage(String name, int threads, int capacity, int maxBatch, boolean affine,
+                         Handler<T> handler, FailureHandler<T> failureHandler) {
+        this.name = name;
+        this.handler = handler;
+        this.failureHandler = failureHandler;
+        this.maxBatch = Math.max(1, maxBatch);
+
+        int threadCount = Math.max(1, threads);
+        int queueCount = affine ? threadCount : 1;
+        int queueCapacity = Math.max(this.maxBatch, capacity / queueCount);
+        this.queues = new BlockingQueue[queueCount];
+        for (int i = 0; i < queueCount; i++) {
+            queues[i] = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        this.workers = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            BlockingQueue<T> queue = queues[affine ? i : 0];
+            workers[i] = new Thread(() -> runWorker(queue), "Stage-" + name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Encolar sin esperar; false si la cola está llena (entrada del pipeline)
+     */
+    public boolean offer(T item, int key) {
+        BlockingQueue<T> queue = queueFor(key);
+        if (!running || !queue.offer(item)) {
+            return false;
+        }
+        trackDepth(queue);
+        return true;
+    }
+
+    /**
+     * Encolar esperando espacio: entre etapas, una etapa lenta frena a la anterior
+     * hasta que la entrada del pipeline empieza a rechazar
+     */
+    public void put(T item, int key) throws InterruptedException {
+        BlockingQueue<T> queue = queueFor(key);
+        queue.put(item);
+        trackDepth(queue);
+
+        Set<Object> tracked = handedOff.get();
+        if (tracked != null) {
+            tracked.add(item);
+        }
+    }
+
+    private BlockingQueue<T> queueFor(int key) {
+        return queues[Math.floorMod(key, queues.length)];
+    }
+
+    private void trackDepth(BlockingQueue<T> queue) {
+        int depth = queue.size();
+        int peak = peakDepth.get();
+        while (depth > peak && !peakDepth.compareAndSet(peak, depth)) {
+            peak = peakDepth.get();
+        }
+    }
+
+    private void runWorker(BlockingQueue<T> queue) {
+        List<T> drained = new ArrayList<>(maxBatch);
+        Set<Object> tracked = Collections.newSetFromMap(new IdentityHashMap<>());
+        handedOff.set(tracked);
+
+        // Sin interrupciones: un hilo interrumpido a mitad del fsync cerraría el FileChannel
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                drained.add(first);
+                queue.drainTo(drained, maxBatch - 1);
+
+                long start = System.nanoTime();
+                try {
+                    handler.handle(drained);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failures.increment();
+                    failRemaining(drained, tracked, e);
+                }
+                busyNanos.add(System.nanoTime() - start);
+                batches.increment();
+                processed.add(drained.size());
+            } catch (InterruptedException e) {
+                failRemaining(drained, tracked, e);
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                drained.clear();
+                tracked.clear();
+            }
+        }
+    }
+
+    /**
+     * Entregar a onFailure solo lo que el lote no pasó a otra etapa
+     */
+    private void failRemaining(List<T> drained, Set<Object> tracked, Exception error) {
+        List<T> remaining = drained;
+        if (!tracked.isEmpty()) {
+            remaining = new ArrayList<>(drained.size());
+            for (T item : drained) {
+                if (!tracked.contains(item)) {
+                    remaining.add(item);
+                }
+            }
+        }
+        if (!remaining.isEmpty()) {
+            failureHandler.onFailure(remaining, error);
+        }
+    }
+
+    /**
+     * Dejar de aceptar, procesar lo que quedó en cola y esperar a los hilos
+     */
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BlockingQueue<T> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    public StageStats getStats() {
+        return new StageStats(name, workers.length, getQueueDepth(), peakDepth.get(), batches.sum(),
+                processed.sum(), failures.sum(), busyNanos.sum());
+    }
+
+    public static class StageStats {
+        public final String name;
+        public final int threads;
+        public final int queueDepth;
+        public final int peakQueueDepth;
+        public final long batches;
+        public final long processed;
+        public final long failures;
+        public final long busyNanos;
+
+        public StageStats(String name, int threads, int queueDepth, int peakQueueDepth, long batches,
+                          long processed, long failures, long busyNanos) {
+            this.name = name;
+            this.threads = threads;
+            this.queueDepth = queueDepth;
+            this.peakQueueDepth = peakQueueDepth;
+            this.batches = batches;
+            this.processed = processed;
+            this.failures = failures;
+            this.busyNanos = busyNanos;
+        }
+
+        public double averageBatchSize() {
+            return batches > 0 ? (double) processed / batches : 0.0;
+        }
+
+        /**
+         * Tiempo de servicio medio por elemento (µs)
+         */
+        public double serviceMicrosPerItem() {
+            return processed > 0 ? busyNanos / 1000.0 / processed : 0.0;
+        }
+
+        /**
+         * Tiempo de servicio medio por lote (µs)
+         */
+        public double serviceMicrosPerBatch() {
+            return batches > 0 ? busyNanos / 1000.0 / batches : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("StageStats{name=%s, threads=%d, queued=%d, peak=%d, batches=%d, processed=%d, " +
+                            "avgBatch=%.1f, service=%.1fus/item, failures=%d}",
+                    name, threads, queueDepth, peakQueueDepth, batches, processed, averageBatchSize(),
+                    serviceMicrosPerItem(), failures);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package Query;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FrequencySketch - Estimador de frecuencia count-min con envejecimiento
+ *
+ * Memoria fija sin importar cuántos documentos distintos se consulten. Cada
+ * `sampleSize` accesos todos los contadores se dividen a la mitad, de modo
+ * que la frecuencia refleja el tráfico reciente y no el histórico.
+ */
+class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray table;
+    private final int mask;
+    private final long sampleSize;
+    private final AtomicLong additions = new AtomicLong(0);
+
+    FrequencySketch(int width, long sampleSize) {
+        int w = Integer.highestOneBit(Math.max(64, width - 1) << 1);
+        this.table = new AtomicIntegerArray(w * DEPTH);
+        this.mask = w - 1;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Registrar un acceso y devolver la frecuencia estimada (incluido este acceso)
+     */
+    int increment(String key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            int value = table.incrementAndGet(index);
+            min = Math.min(min, value);
+        }
+
+        if (additions.incrementAndGet() % sampleSize == 0) {
+            reset();
+        }
+        return min;
+    }
+
+    int estimate(String key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, table.get(indexOf(hash, row)));
+        }
+        return min;
+    }
+
+    /**
+     * Envejecimiento: dividir todos los contadores a la mitad
+     */
+    private void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            table.getAndUpdate(i, v -> v >>> 1);
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        h ^= h >>> 16;
+        return row * (mask + 1) + (h & mask);
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,243 @@
+package Query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HotDocumentCache - Protección de documentos calientes delante de QueryStation
+ *
+ * - Colapso de solicitudes: consultas concurrentes por el mismo documento comparten
+ *   una sola ida a la base de datos.
+ * - Caché de claves calientes: los documentos cuya frecuencia reciente supera el
+ *   umbral se fijan en memoria (capacidad y TTL acotados).
+ *
+ * Configuración (propiedades Ice):
+ *   Query.HotCache.Threshold      accesos recientes para fijar un documento (por defecto 20)
+ *   Query.HotCache.Capacity       documentos fijados como máximo (por defecto 1000)
+ *   Query.HotCache.TTL            vigencia de un documento fijado en ms (por defecto 60000)
+ *   Query.HotCache.SampleSize     accesos entre cada envejecimiento del estimador (por defecto 100000)
+ *   Query.HotCache.CollapseWait   espera máxima de una solicitud colapsada en ms (por defecto 5000)
+ */
+public class HotDocumentCache {
+
+    /**
+     * Consulta real a la base de datos
+     */
+    @FunctionalInterface
+    public interface Loader {
+        String load(String document) throws Exception;
+    }
+
+    private static class HotEntry {
+        final String value;
+        final long expiresAt;
+        final LongAdder hits = new LongAdder();
+
+        HotEntry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final FrequencySketch sketch;
+    private final ConcurrentHashMap<String, HotEntry> hotEntries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final int threshold;
+    private final int capacity;
+    private final long ttlMillis;
+    private final long collapseWaitMillis;
+
+    // Métricas
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hotHits = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder databaseLoads = new LongAdder();
+    private final LongAdder loadErrors = new LongAdder();
+    private final LongAdder pins = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public HotDocumentCache(com.zeroc.Ice.Properties props) {
+        this.threshold = intProperty(props, "Query.HotCache.Threshold", 20);
+        this.capacity = intProperty(props, "Query.HotCache.Capacity", 1000);
+        this.ttlMillis = intProperty(props, "Query.HotCache.TTL", 60000);
+        this.collapseWaitMillis = intProperty(props, "Query.HotCache.CollapseWait", 5000);
+        this.sketch = new FrequencySketch(capacity * 16, intProperty(props, "Query.HotCache.SampleSize", 100000));
+    }
+
+    /**
+     * Resolver un documento: caché caliente → solicitud en curso → base de datos.
+     * null solo si el documento no existe; un error de carga (o una espera colapsada
+     * agotada) se lanza al llamador y a todas las solicitudes que esperaban la misma carga.
+     */
+    public String get(String document, Loader loader) throws Exception {
+        requests.increment();
+        int frequency = sketch.increment(document);
+
+        HotEntry entry = hotEntries.get(document);
+        if (entry != null) {
+            if (entry.expiresAt > System.currentTimeMillis()) {
+                entry.hits.increment();
+                hotHits.increment();
+                return entry.value;
+            }
+            if (hotEntries.remove(document, entry)) {
+                expirations.increment();
+            }
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> leader = inFlight.putIfAbsent(document, mine);
+        if (leader != null) {
+            collapsed.increment();
+            return await(leader);
+        }
+
+        try {
+            databaseLoads.increment();
+            String value = loader.load(document);
+            if (frequency >= threshold) {
+                pin(document, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (Exception e) {
+            // Los errores no se fijan: la siguiente solicitud vuelve a intentar
+            loadErrors.increment();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(document, mine);
+        }
+    }
+
+    private String await(CompletableFuture<String> leader) throws Exception {
+        try {
+            return leader.get(collapseWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Fijar documento caliente; si está lleno se desaloja el de menos aciertos
+     */
+    private void pin(String document, String value) {
+        if (hotEntries.size() >= capacity && !hotEntries.containsKey(document)) {
+            evictColdest();
+        }
+        hotEntries.put(document, new HotEntry(value, System.currentTimeMillis() + ttlMillis));
+        pins.increment();
+    }
+
+    private void evictColdest() {
+        long now = System.currentTimeMillis();
+        String coldest = null;
+        long coldestHits = Long.MAX_VALUE;
+
+        for (Map.Entry<String, HotEntry> e : hotEntries.entrySet()) {
+            if (e.getValue().expiresAt <= now) {
+                if (hotEntries.remove(e.getKey(), e.getValue())) {
+                    expirations.increment();
+                }
+                return;
+            }
+            long hits = e.getValue().hits.sum();
+            if (hits < coldestHits) {
+                coldestHits = hits;
+                coldest = e.getKey();
+            }
+        }
+
+        if (coldest != null && hotEntries.remove(coldest) != null) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Top-K de documentos fijados por aciertos
+     */
+    public List<Map.Entry<String, Long>> getTopK(int k) {
+        List<Map.Entry<String, Long>> top = new ArrayList<>();
+        for (Map.Entry<String, HotEntry> e : hotEntries.entrySet()) {
+            top.add(Map.entry(e.getKey(), e.getValue().hits.sum()));
+        }
+        top.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return top.size() > k ? top.subList(0, k) : top;
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(requests.sum(), hotHits.sum(), collapsed.sum(), databaseLoads.sum(),
+                loadErrors.sum(), pins.sum(), evictions.sum(), expirations.sum(), hotEntries.size(), inFlight.size());
+    }
+
+    public void printStatus(int topK) {
+        System.out.println("[HotDocumentCache] === DOCUMENTOS CALIENTES ===");
+        System.out.println("   " + getStats());
+        System.out.println("   Umbral: " + threshold + " accesos | capacidad: " + capacity + " | TTL: " + ttlMillis + "ms");
+
+        List<Map.Entry<String, Long>> top = getTopK(topK);
+        if (top.isEmpty()) {
+            System.out.println("   (sin documentos fijados)");
+        }
+        int rank = 1;
+        for (Map.Entry<String, Long> e : top) {
+            System.out.println(String.format("   %2d. %-15s aciertos=%,d  frecuencia reciente≈%,d",
+                    rank++, e.getKey(), e.getValue(), sketch.estimate(e.getKey())));
+        }
+    }
+
+    /**
+     * Estadísticas de la caché
+     */
+    public static class CacheStats {
+        public final long requests;
+        public final long hotHits;
+        public final long collapsed;
+        public final long databaseLoads;
+        public final long loadErrors;
+        public final long pins;
+        public final long evictions;
+        public final long expirations;
+        public final int pinned;
+        public final int inFlight;
+
+        public CacheStats(long requests, long hotHits, long collapsed, long databaseLoads, long loadErrors,
+                          long pins, long evictions, long expirations, int pinned, int inFlight) {
+            this.requests = requests;
+            this.hotHits = hotHits;
+            this.collapsed = collapsed;
+            this.databaseLoads = databaseLoads;
+            this.loadErrors = loadErrors;
+            this.pins = pins;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.pinned = pinned;
+            this.inFlight = inFlight;
+        }
+
+        public double getShieldRate() {
+            return requests == 0 ? 0.0 : (hotHits + collapsed) * 100.0 / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("HotCache{solicitudes=%d, aciertos=%d, colapsadas=%d, a BD=%d, errores=%d, " +
+                            "fijados=%d, fijaciones=%d, desalojos=%d, expirados=%d, en curso=%d, protección=%.1f%%}",
+                    requests, hotHits, collapsed, databaseLoads, loadErrors, pinned, pins, evictions,
+                    expirations, inFlight, getShieldRate());
+        }
+    }
+
+    private static int intProperty(com.zeroc.Ice.Properties props, String key, int defaultValue) {
+        return props != null ? props.getPropertyAsIntWithDefault(key, defaultValue) : defaultValue;
+    }
+}
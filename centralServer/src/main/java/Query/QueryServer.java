@@ -1,26 +1,51 @@
 package Query;
 
+import Database.DatabaseRouter;
 import com.zeroc.Ice.*;
 import com.zeroc.Ice.Exception;
 import com.zeroc.Ice.Object;
 
+/**
+ * QueryServer - Servicio de consultas independiente y sin estado
+ *
+ * Pensado para desplegarse como varias réplicas IceGrid detrás del grupo
+ * QueryReplicaGroup-grpmcc (ver config/template.xml). Bajo IceGrid los endpoints
+ * y el AdapterId del adaptador los asigna el nodo; en ejecución manual se usa
+ * config.cfg (o el archivo indicado con --Ice.Config).
+ */
 public class QueryServer {
     public static void main(String[] args) {
-        try (Communicator communicator = Util.initialize(args, "config.cfg")) {
+        InitializationData initData = new InitializationData();
+        initData.properties = Util.createProperties(args);
+        if (initData.properties.getProperty("Ice.Config").isEmpty()) {
+            initData.properties.load("config.cfg");
+        }
+
+        try (Communicator communicator = Util.initialize(args, initData)) {
+            Properties properties = communicator.getProperties();
+
+            DatabaseRouter.initialize(properties);
+
+            QueryStationI servant = new QueryStationI(properties);
 
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                servant.getHotCache().printStatus(10);
                 QueryStationI.shutdown();
+                communicator.destroy();
             }));
 
-            ObjectAdapter adapter = communicator.createObjectAdapterWithEndpoints(
-                    "QueryAdapter", "tcp -h 0.0.0.0 -p 8899"
-            );
+            ObjectAdapter adapter = communicator.createObjectAdapter("QueryAdapter");
 
-            QueryStationI servant = new QueryStationI();
-            adapter.add((Object) servant, Util.stringToIdentity("QueryStation"));
+            String identity = properties.getPropertyWithDefault("Query.Identity", "QueryStation");
+            adapter.add((Object) servant, Util.stringToIdentity(identity));
 
             adapter.activate();
 
+            System.out.println("[QueryServer] " + properties.getPropertyWithDefault("Ice.ProgramName", "QueryServer") +
+                    " atendiendo '" + identity + "' en " + properties.getProperty("QueryAdapter.Endpoints") +
+                    (properties.getProperty("QueryAdapter.ReplicaGroupId").isEmpty() ? "" :
+                            " (grupo " + properties.getProperty("QueryAdapter.ReplicaGroupId") + ")"));
+
             communicator.waitForShutdown();
 
         } catch (Exception e) {
@@ -28,4 +53,4 @@ public class QueryServer {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
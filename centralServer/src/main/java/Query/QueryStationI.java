@@ -1,38 +1,45 @@
 package Query;
 
 import java.sql.*;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import Database.DatabaseRouter;
+import Database.PoolRegistry;
 
 public class QueryStationI implements QueryStation {
 
-    private static final HikariDataSource dataSource;
+    // Colapso de solicitudes + documentos calientes fijados en memoria
+    private final HotDocumentCache hotCache;
 
-    static {
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl("jdbc:postgresql://localhost:5432/votacion");
-        config.setUsername("postgres");
-        config.setPassword("postgres");
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
-        config.setConnectionTimeout(3000);
-        config.setIdleTimeout(30000);
-
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("useServerPrepStmts", "true");
+    public QueryStationI() {
+        this(null);
+    }
 
-        dataSource = new HikariDataSource(config);
+    public QueryStationI(com.zeroc.Ice.Properties properties) {
+        this.hotCache = new HotDocumentCache(properties);
     }
 
+    /**
+     * null solo si el documento no está registrado; un error de BD o una espera agotada
+     * llega al cliente como QueryUnavailableException (no como "no encontrado")
+     */
     @Override
-    public String query(String document, com.zeroc.Ice.Current current) {
+    public String query(String document, com.zeroc.Ice.Current current) throws QueryUnavailableException {
         if (document == null || document.trim().isEmpty()) {
             return null;
         }
 
-        String documento = document.trim();
+        try {
+            return hotCache.get(document.trim(), this::lookup);
+        } catch (java.util.concurrent.TimeoutException e) {
+            throw new QueryUnavailableException("Tiempo de espera agotado consultando el documento");
+        } catch (Exception e) {
+            throw new QueryUnavailableException("Error consultando el documento: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Consulta a BD; los errores se propagan para que la caché no los fije
+     */
+    private String lookup(String documento) throws SQLException {
         String sql = "SELECT " +
                 "c.nombre, " +
                 "c.apellido, " +
@@ -49,42 +56,41 @@ public class QueryStationI implements QueryStation {
                 "INNER JOIN departamento dep ON mun.departamento_id = dep.id " +
                 "WHERE c.documento = ?";
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-
-            ps.setString(1, documento);
-
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    int mesaId = rs.getInt("mesa_id");
-                    String puestoNombre = rs.getString("puesto_nombre");
-                    String puestoDireccion = rs.getString("puesto_direccion");
-                    String municipioNombre = rs.getString("municipio_nombre");
-                    String departamentoNombre = rs.getString("departamento_nombre");
-
-                    String respuesta = String.format(
-                            "Usted debe votar en %s ubicado en %s en %s, %s en la mesa %d.",
-                            puestoNombre,
-                            puestoDireccion,
-                            municipioNombre,
-                            departamentoNombre,
-                            mesaId
-                    );
-
-                    return respuesta;
-                } else {
-                    return null;
+        return DatabaseRouter.getInstance().executeRead(PoolRegistry.QUERY, conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, documento);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        int mesaId = rs.getInt("mesa_id");
+                        String puestoNombre = rs.getString("puesto_nombre");
+                        String puestoDireccion = rs.getString("puesto_direccion");
+                        String municipioNombre = rs.getString("municipio_nombre");
+                        String departamentoNombre = rs.getString("departamento_nombre");
+
+                        String respuesta = String.format(
+                                "Usted debe votar en %s ubicado en %s en %s, %s en la mesa %d.",
+                                puestoNombre,
+                                puestoDireccion,
+                                municipioNombre,
+                                departamentoNombre,
+                                mesaId
+                        );
+
+                        return respuesta;
+                    } else {
+                        return null;
+                    }
                 }
             }
+        });
+    }
 
-        } catch (SQLException e) {
-            return null;
-        }
+    public HotDocumentCache getHotCache() {
+        return hotCache;
     }
 
     public static void shutdown() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
-        }
+        DatabaseRouter.getInstance().shutdown();
     }
 }
\ No newline at end of file
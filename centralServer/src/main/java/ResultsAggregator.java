@@ -0,0 +1,168 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ResultsAggregator - Resultados en vivo, nacionales y por departamento
+ *
+ * Cada voto aceptado incrementa un contador nacional y uno del departamento que lo
+ * envió, ambos indexados por el ordinal de CandidateRegistry. Los contadores son
+ * LongAdder (con stripes internos), así los hilos de Ice no compiten por la misma
+ * celda. Leer los resultados de un departamento cuesta O(candidatos), sin recorrer
+ * los votos. Se reconstruye al arrancar desde el archivo de votos.
+ */
+public class ResultsAggregator {
+    private static final ResultsAggregator instance = new ResultsAggregator();
+
+    // Votos del formato anterior (sin departamento registrado)
+    public static final String UNKNOWN_DEPARTMENT = "unknown";
+
+    /**
+     * Contadores de un ámbito (nacional o un departamento)
+     */
+    static final class Tally {
+        private final LongAdder total = new LongAdder();
+        private volatile LongAdder[] byCandidate = new LongAdder[0];
+
+        void increment(int candidateOrdinal) {
+            counter(candidateOrdinal).increment();
+            total.increment();
+        }
+
+        private LongAdder counter(int candidateOrdinal) {
+            LongAdder[] current = byCandidate;
+            if (candidateOrdinal < current.length) {
+                return current[candidateOrdinal];
+            }
+            synchronized (this) {
+                current = byCandidate;
+                if (candidateOrdinal >= current.length) {
+                    LongAdder[] grown = Arrays.copyOf(current, candidateOrdinal + 1);
+                    for (int i = current.length; i < grown.length; i++) {
+                        grown[i] = new LongAdder();
+                    }
+                    byCandidate = grown;
+                    current = grown;
+                }
+                return current[candidateOrdinal];
+            }
+        }
+
+        void decrement(int candidateOrdinal) {
+            counter(candidateOrdinal).decrement();
+            total.decrement();
+        }
+
+        long total() {
+            return total.sum();
+        }
+
+        /**
+         * Votos por ordinal de candidato
+         */
+        long[] snapshot() {
+            LongAdder[] current = byCandidate;
+            long[] counts = new long[current.length];
+            for (int i = 0; i < current.length; i++) {
+                counts[i] = current[i].sum();
+            }
+            return counts;
+        }
+    }
+
+    private final Tally national = new Tally();
+    private final ConcurrentHashMap<String, Tally> departments = new ConcurrentHashMap<>();
+
+    private ResultsAggregator() {
+    }
+
+    public static ResultsAggregator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Registrar un voto aceptado (o recuperado del archivo)
+     */
+    public void record(int candidateOrdinal, String departmentId) {
+        national.increment(candidateOrdinal);
+        departments.computeIfAbsent(normalize(departmentId), d -> new Tally()).increment(candidateOrdinal);
+    }
+
+    /**
+     * Descontar un voto registrado cuya persistencia falló
+     */
+    public void unrecord(int candidateOrdinal, String departmentId) {
+        national.decrement(candidateOrdinal);
+        departments.computeIfAbsent(normalize(departmentId), d -> new Tally()).decrement(candidateOrdinal);
+    }
+
+    public long[] getNationalCounts() {
+        return national.snapshot();
+    }
+
+    public long getNationalTotal() {
+        return national.total();
+    }
+
+    /**
+     * Votos por ordinal en el departamento; null si el departamento no ha enviado votos
+     */
+    public long[] getDepartmentCounts(String departmentId) {
+        Tally tally = departments.get(normalize(departmentId));
+        return tally != null ? tally.snapshot() : null;
+    }
+
+    public long getDepartmentTotal(String departmentId) {
+        Tally tally = departments.get(normalize(departmentId));
+        return tally != null ? tally.total() : 0;
+    }
+
+    public Set<String> getDepartments() {
+        return new TreeSet<>(departments.keySet());
+    }
+
+    /**
+     * Convertir conteos por ordinal a ID de candidato (solo candidatos con votos)
+     */
+    public static Map<String, Integer> toCandidateMap(long[] counts) {
+        Map<String, Integer> result = new java.util.HashMap<>();
+        CandidateRegistry registry = CandidateRegistry.getInstance();
+        for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+            if (counts[ordinal] > 0) {
+                result.put(registry.idOf(ordinal), (int) counts[ordinal]);
+            }
+        }
+        return result;
+    }
+
+    public static String normalize(String departmentId) {
+        if (departmentId == null || departmentId.trim().isEmpty()) {
+            return UNKNOWN_DEPARTMENT;
+        }
+        // La coma es el separador del archivo de votos
+        return departmentId.trim().replace(',', '_');
+    }
+
+    /**
+     * Limpiar conteos (testing)
+     */
+    public synchronized void reset() {
+        departments.clear();
+        LongAdder[] current = national.byCandidate;
+        for (LongAdder adder : current) {
+            adder.reset();
+        }
+        national.total.reset();
+    }
+
+    public void printStatus() {
+        System.out.println("[ResultsAggregator] Nacional: " + national.total() + " votos, " +
+                departments.size() + " departamentos");
+        for (String departmentId : getDepartments()) {
+            System.out.println(String.format("   %-30s %,8d votos", departmentId, getDepartmentTotal(departmentId)));
+        }
+    }
+}
@@ -0,0 +1,445 @@
+import Central.CentralServerUnavailableException;
+import Central.VoteOutcome;
+import Central.VoteOutcomeKind;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * VoteCommitPipeline - Procesamiento de votos del servidor central por etapas (SEDA)
+ *
+ * El hilo de Ice solo encola el voto y vuelve al pool. Cada voto pasa por cuatro etapas,
+ * cada una con su cola acotada y su número de hilos configurable:
+ *
+ *   1. Validación:   ciudadanos del lote en una sola consulta (solo los que no están en caché)
+ *   2. Registro:     duplicados, candidato del catálogo y registro en memoria, con afinidad
+ *                    por partición del ciudadano
+ *   3. Persistencia: group commit, una escritura con fsync por lote
+ *   4. ACK:          ACKs del lote con un solo lock por departamento
+ *
+ * El ACK de un voto aceptado se crea después del fsync: si la escritura falla se deshace
+ * el registro en memoria y el voto no queda con un ACK que no está en disco. Los
+ * duplicados nunca crean ACK: devuelven el del voto original, y si este aún no está
+ * confirmado el duplicado sale como no disponible (el departamental reintenta). No
+ * registrados se responden en cuanto se sabe. Si una etapa se atrasa, su cola se llena,
+ * frena a la anterior y al final la entrada rechaza ("servidor saturado").
+ *
+ * Configuración (Ice Properties), con Central.VotePipeline.<Etapa>.Threads para
+ * Validation, Registration, Ack y Persistence, más MaxBatch y QueueCapacity por etapa.
+ */
+public class VoteCommitPipeline {
+
+    private static final class PendingVote {
+        final String citizenId;
+        final String candidateId;
+        final String departmentalServerId;
+        final CompletableFuture<VoteOutcome> future = new CompletableFuture<>();
+        final long submittedNanos = System.nanoTime();
+        long stageStartNanos = submittedNanos;
+
+        int candidateOrdinal;
+        CentralVoteCommand command;        // aceptado: falta el ACK y la persistencia
+        String existingCandidate;          // duplicado detectado en el registro
+        String ackId;
+
+        PendingVote(String citizenId, String candidateId, String departmentalServerId) {
+            this.citizenId = citizenId;
+            this.candidateId = candidateId;
+            this.departmentalServerId = departmentalServerId;
+        }
+    }
+
+    private final String serverName;
+    private final CitizenDAO citizenDAO;
+    private final CentralVoteManager voteManager;
+    private final CentralACKManager ackManager;
+    private final CandidateRegistry candidateRegistry;
+    private final CandidateCatalog candidateCatalog;
+    private final VoteMetrics metrics = VoteMetrics.getInstance();
+
+    private final PipelineStage<PendingVote> validation;
+    private final PipelineStage<PendingVote> registration;
+    private final PipelineStage<PendingVote> persistence;
+    private final PipelineStage<PendingVote> ack;
+    private volatile boolean running = true;
+
+    // Métricas de entrada y salida
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final LongAdder finished = new LongAdder();
+
+    public VoteCommitPipeline(String serverName, CitizenDAO citizenDAO, com.zeroc.Ice.Properties properties) {
+        this.serverName = serverName;
+        this.citizenDAO = citizenDAO;
+        this.voteManager = CentralVoteManager.getInstance();
+        this.ackManager = CentralACKManager.getInstance();
+        this.candidateRegistry = CandidateRegistry.getInstance();
+        this.candidateCatalog = CandidateCatalog.getInstance();
+
+        int maxBatch = Math.max(1, properties.getPropertyAsIntWithDefault("Central.VotePipeline.MaxBatch", 256));
+        int capacity = Math.max(maxBatch, properties.getPropertyAsIntWithDefault("Central.VotePipeline.QueueCapacity", 20000));
+
+        this.validation = new PipelineStage<>("Validation",
+                threads(properties, "Validation", 2), capacity, maxBatch, false, this::validate, this::fail);
+        this.registration = new PipelineStage<>("Registration",
+                threads(properties, "Registration", 4), capacity, maxBatch, true, this::register, this::fail);
+        this.persistence = new PipelineStage<>("Persistence",
+                threads(properties, "Persistence", 1), capacity, maxBatch, false, this::persist, this::fail);
+        this.ack = new PipelineStage<>("Ack",
+                threads(properties, "Ack", 1), capacity, maxBatch, false, this::assignACKs, this::fail);
+
+        System.out.println("[VoteCommitPipeline] Iniciado: " + stageSummary() + ", lotes de hasta " +
+                maxBatch + " votos, colas de " + capacity);
+    }
+
+    private static int threads(com.zeroc.Ice.Properties properties, String stage, int defaultThreads) {
+        return Math.max(1, properties.getPropertyAsIntWithDefault("Central.VotePipeline." + stage + ".Threads",
+                defaultThreads));
+    }
+
+    /**
+     * Encolar un voto; el futuro se completa con su resultado (los aceptados, después del fsync).
+     * Con la cola de validación llena se rechaza de inmediato (el departamental lo guarda offline).
+     */
+    public CompletableFuture<VoteOutcome> submit(String citizenId, String candidateId, String departmentalServerId) {
+        PendingVote vote = new PendingVote(citizenId, candidateId, departmentalServerId);
+        if (!running || !validation.offer(vote, 0)) {
+            rejected.incrementAndGet();
+            vote.future.completeExceptionally(new CentralServerUnavailableException(
+                    "Servidor central saturado: cola de votos llena", System.currentTimeMillis()));
+            return vote.future;
+        }
+        submitted.incrementAndGet();
+        return vote.future;
+    }
+
+    // ============================================================================
+    // ETAPAS
+    // ============================================================================
+
+    /**
+     * Etapa 1: una consulta por lote para los ciudadanos que no están en caché
+     */
+    private void validate(List<PendingVote> batch) throws InterruptedException {
+        List<String> citizenIds = new ArrayList<>(batch.size());
+        for (PendingVote vote : batch) {
+            citizenIds.add(vote.citizenId);
+        }
+        Set<String> registered = citizenDAO.validateCitizens(citizenIds);
+
+        for (PendingVote vote : batch) {
+            if (!registered.contains(vote.citizenId)) {
+                finish(vote, VoteMetrics.Stage.VALIDATION, new VoteOutcome(VoteOutcomeKind.NotRegistered, "", "",
+                        "Ciudadano no está registrado en la base de datos electoral"));
+                continue;
+            }
+            advance(vote, VoteMetrics.Stage.VALIDATION, registration, voteManager.partitionOf(vote.citizenId));
+        }
+    }
+
+    /**
+     * Etapa 2: duplicados ya confirmados y registro en memoria. Cada hilo recibe siempre
+     * las mismas particiones, así los votos de un ciudadano se procesan en orden.
+     */
+    private void register(List<PendingVote> batch) throws InterruptedException {
+        List<PendingVote> pending = new ArrayList<>(batch.size());
+        List<PendingVote> confirmed = new ArrayList<>();
+        List<String> confirmedACKs = new ArrayList<>();
+        for (PendingVote vote : batch) {
+            String existingACK = ackManager.getACK(vote.citizenId);
+            if (existingACK != null) {
+                confirmed.add(vote);
+                confirmedACKs.add(existingACK);
+                continue;
+            }
+
+            // Solo se internan candidatos del catálogo: un ID arbitrario no crece la tabla de ordinales
+            int ordinal = candidateRegistry.lookup(vote.candidateId);
+            if (ordinal < 0 && candidateCatalog.contains(vote.candidateId)) {
+                try {
+                    ordinal = candidateRegistry.ordinalOf(vote.candidateId);
+                } catch (UncheckedIOException e) {
+                    failVote(vote, new CentralServerUnavailableException(
+                            "No se pudo registrar el candidato " + vote.candidateId, System.currentTimeMillis()));
+                    continue;
+                }
+            }
+            if (ordinal < 0) {
+                if (candidateCatalog.getVersion() == 0) {
+                    // Sin catálogo publicado todavía no se puede decidir: el departamental reintenta
+                    failVote(vote, new CentralServerUnavailableException(
+                            "Catálogo de candidatos aún no cargado en el servidor central", System.currentTimeMillis()));
+                } else {
+                    finish(vote, VoteMetrics.Stage.REGISTRATION, new VoteOutcome(VoteOutcomeKind.Invalid, "", "",
+                            "Candidato desconocido: " + vote.candidateId));
+                }
+                continue;
+            }
+            vote.candidateOrdinal = ordinal;
+            pending.add(vote);
+        }
+
+        // Duplicados ya confirmados: el voto existente de todos en una sola consulta
+        if (!confirmed.isEmpty()) {
+            String[] confirmedIds = new String[confirmed.size()];
+            for (int k = 0; k < confirmedIds.length; k++) {
+                confirmedIds[k] = confirmed.get(k).citizenId;
+            }
+            String[] existingVotes = voteManager.getExistingVotes(confirmedIds);
+            for (int k = 0; k < confirmedIds.length; k++) {
+                finish(confirmed.get(k), VoteMetrics.Stage.REGISTRATION, new VoteOutcome(VoteOutcomeKind.Duplicate,
+                        confirmedACKs.get(k), existingVotes[k] != null ? existingVotes[k] : "unknown",
+                        "Ciudadano ya votó"));
+            }
+        }
+        if (pending.isEmpty()) return;
+
+        int n = pending.size();
+        String[] citizenIds = new String[n];
+        int[] ordinals = new int[n];
+        String[] departmentIds = new String[n];
+        for (int k = 0; k < n; k++) {
+            PendingVote vote = pending.get(k);
+            citizenIds[k] = vote.citizenId;
+            ordinals[k] = vote.candidateOrdinal;
+            departmentIds[k] = vote.departmentalServerId;
+        }
+
+        List<CentralVoteCommand> accepted = new ArrayList<>(n);
+        CentralVoteManager.VoteResult[] results = voteManager.registerVotes(citizenIds, ordinals, departmentIds, accepted);
+        Map<String, CentralVoteCommand> commands = new HashMap<>(accepted.size() * 2);
+        for (CentralVoteCommand command : accepted) {
+            commands.put(command.getCitizenId(), command);
+        }
+
+        for (int k = 0; k < n; k++) {
+            PendingVote vote = pending.get(k);
+            if (results[k].success) {
+                vote.command = commands.get(vote.citizenId);
+                advance(vote, VoteMetrics.Stage.REGISTRATION, persistence, 0);
+            } else {
+                vote.existingCandidate = results[k].candidateId != null ? results[k].candidateId : vote.candidateId;
+                advance(vote, VoteMetrics.Stage.REGISTRATION, ack, 0);
+            }
+        }
+    }
+
+    /**
+     * Etapa 3: group commit. Si la escritura falla se deshace el registro en memoria del
+     * lote (el departamental reintenta y el voto vuelve a entrar como nuevo)
+     */
+    private void persist(List<PendingVote> batch) throws InterruptedException {
+        List<CentralVoteCommand> commands = new ArrayList<>(batch.size());
+        for (PendingVote vote : batch) {
+            commands.add(vote.command);
+        }
+        List<CentralVoteCommand> unsaved;
+        try {
+            unsaved = voteManager.persistVotes(commands);
+        } catch (RuntimeException e) {
+            voteManager.unregisterVotes(commands);
+            throw e;
+        }
+
+        Set<CentralVoteCommand> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (!unsaved.isEmpty()) {
+            voteManager.unregisterVotes(unsaved);
+            failed.addAll(unsaved);
+        }
+        committed.addAndGet(batch.size() - failed.size());
+
+        for (PendingVote vote : batch) {
+            if (failed.contains(vote.command)) {
+                failVote(vote, new CentralServerUnavailableException(
+                        "Error escribiendo el voto en disco", System.currentTimeMillis()));
+                continue;
+            }
+            advance(vote, VoteMetrics.Stage.PERSISTENCE, ack, 0);
+        }
+    }
+
+    /**
+     * Etapa 4: ACKs con un solo lock por departamento del lote; los aceptados ya están en disco.
+     * Los duplicados solo consultan el ACK del original, después de crear los del lote.
+     */
+    private void assignACKs(List<PendingVote> batch) {
+        Map<String, List<PendingVote>> byDepartment = new LinkedHashMap<>();
+        List<PendingVote> duplicates = new ArrayList<>();
+        for (PendingVote vote : batch) {
+            if (vote.command == null) {
+                duplicates.add(vote);
+                continue;
+            }
+            byDepartment.computeIfAbsent(vote.departmentalServerId, d -> new ArrayList<>()).add(vote);
+        }
+
+        int accepted = 0;
+        for (Map.Entry<String, List<PendingVote>> entry : byDepartment.entrySet()) {
+            List<PendingVote> votes = entry.getValue();
+            List<String> citizenIds = new ArrayList<>(votes.size());
+            for (PendingVote vote : votes) {
+                citizenIds.add(vote.citizenId);
+            }
+            Map<String, String> acks = ackManager.getOrCreateACKs(citizenIds, serverName + "-" + entry.getKey());
+
+            for (PendingVote vote : votes) {
+                String ackId = acks.get(vote.citizenId);
+                vote.ackId = ackId;
+                finish(vote, VoteMetrics.Stage.ACK, new VoteOutcome(VoteOutcomeKind.Accepted, ackId, "",
+                        "Voto registrado exitosamente"));
+                accepted++;
+            }
+        }
+
+        for (PendingVote vote : duplicates) {
+            String ackId = ackManager.getACK(vote.citizenId);
+            if (ackId == null) {
+                // El voto original sigue esperando su fsync (o falló y se deshizo): reintentar
+                failVote(vote, new CentralServerUnavailableException(
+                        "Voto original del ciudadano aún sin confirmar, reintente", System.currentTimeMillis()));
+                continue;
+            }
+            finish(vote, VoteMetrics.Stage.ACK, new VoteOutcome(VoteOutcomeKind.Duplicate, ackId, vote.existingCandidate,
+                    "Ciudadano ya votó"));
+        }
+
+        if (accepted > 1 || (accepted == 1 && AsyncLog.sampleVote())) {
+            AsyncLog.info(serverName, "✅ Lote confirmado: " + accepted + " votos aceptados");
+        }
+    }
+
+    /**
+     * Pasar el voto a la siguiente etapa registrando cuánto estuvo en esta (cola + servicio)
+     */
+    private void advance(PendingVote vote, VoteMetrics.Stage stage, PipelineStage<PendingVote> next, int key)
+            throws InterruptedException {
+        long now = System.nanoTime();
+        metrics.recordLatency(stage, now - vote.stageStartNanos);
+        vote.stageStartNanos = now;
+        next.put(vote, key);
+    }
+
+    private void finish(PendingVote vote, VoteMetrics.Stage stage, VoteOutcome outcome) {
+        long now = System.nanoTime();
+        metrics.recordLatency(stage, now - vote.stageStartNanos);
+        metrics.recordLatency(VoteMetrics.Stage.END_TO_END, now - vote.submittedNanos);
+        if (vote.future.complete(outcome)) {
+            finished.increment();
+        }
+    }
+
+    private void fail(List<PendingVote> batch, Exception error) {
+        AsyncLog.error("VoteCommitPipeline", "Error procesando lote de " + batch.size() + " votos: " +
+                error.getMessage());
+        CentralServerUnavailableException failure = new CentralServerUnavailableException(
+                "Error interno del servidor central: " + error.getMessage(), System.currentTimeMillis());
+        for (PendingVote vote : batch) {
+            failVote(vote, failure);
+        }
+    }
+
+    private void failVote(PendingVote vote, CentralServerUnavailableException failure) {
+        if (vote.future.completeExceptionally(failure)) {
+            finished.increment();
+        }
+    }
+
+    // ============================================================================
+    // CICLO DE VIDA Y MÉTRICAS
+    // ============================================================================
+
+    /**
+     * Detener las etapas en orden: cada una vacía su cola hacia la siguiente antes de parar
+     */
+    public void shutdown() {
+        running = false;
+        validation.shutdown();
+        registration.shutdown();
+        persistence.shutdown();
+        ack.shutdown();
+        System.out.println("[VoteCommitPipeline] Detenido. " + getStats());
+    }
+
+    private String stageSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (PipelineStage.StageStats stage : getStageStats()) {
+            if (summary.length() > 0) summary.append(", ");
+            summary.append(stage.name).append('=').append(stage.threads);
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Votos aceptados por el pipeline que aún no tienen respuesta (sin recorrer las colas)
+     */
+    public int getInFlightCount() {
+        return (int) Math.max(0, submitted.get() - finished.sum());
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public List<PipelineStage.StageStats> getStageStats() {
+        List<PipelineStage.StageStats> stages = new ArrayList<>(4);
+        stages.add(validation.getStats());
+        stages.add(registration.getStats());
+        stages.add(persistence.getStats());
+        stages.add(ack.getStats());
+        return stages;
+    }
+
+    public PipelineStats getStats() {
+        PipelineStage.StageStats persisted = persistence.getStats();
+        int queued = validation.getQueueDepth() + registration.getQueueDepth() + persistence.getQueueDepth()
+                + ack.getQueueDepth();
+        return new PipelineStats(submitted.get(), rejected.get(), persisted.batches, committed.get(), queued);
+    }
+
+    public void printStatus() {
+        System.out.println(String.format("   %-13s %7s %8s %8s %10s %9s %12s %12s",
+                "Etapa", "Hilos", "En cola", "Máx", "Lotes", "Lote med", "µs/voto", "µs/lote"));
+        for (PipelineStage.StageStats stage : getStageStats()) {
+            System.out.println(String.format("   %-13s %7d %8d %8d %,10d %9.1f %12.1f %12.1f",
+                    stage.name, stage.threads, stage.queueDepth, stage.peakQueueDepth, stage.batches,
+                    stage.averageBatchSize(), stage.serviceMicrosPerItem(), stage.serviceMicrosPerBatch()));
+        }
+    }
+
+    public static class PipelineStats {
+        public final long submitted;
+        public final long rejected;
+        public final long batches;
+        public final long committed;
+        public final int queued;
+
+        public PipelineStats(long submitted, long rejected, long batches, long committed, int queued) {
+            this.submitted = submitted;
+            this.rejected = rejected;
+            this.batches = batches;
+            this.committed = committed;
+            this.queued = queued;
+        }
+
+        public double averageBatchSize() {
+            return batches > 0 ? (double) committed / batches : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PipelineStats{submitted=%d, rejected=%d, batches=%d, committed=%d, avgBatch=%.1f, queued=%d}",
+                    submitted, rejected, batches, committed, averageBatchSize(), queued);
+        }
+    }
+}
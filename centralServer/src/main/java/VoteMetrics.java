@@ -0,0 +1,187 @@
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * VoteMetrics - Throughput en ventana deslizante y latencias por etapa del servidor central
+ *
+ * Throughput: un anillo de 64 celdas de un segundo. Cada celda guarda en un solo long el
+ * segundo al que pertenece (bits altos) y su conteo (bits bajos), así registrar es un CAS
+ * sin locks y una celda vieja se reinicia sola al reutilizarse. Las tasas se calculan
+ * sobre los últimos segundos completos (10 s y 60 s).
+ *
+ * Latencias: un Recorder de HdrHistogram por etapa del pipeline (escritura sin espera,
+ * en microsegundos). Cada TICK_SECONDS se toma el histograma del intervalo y se guardan
+ * los últimos WINDOW_TICKS; el resumen (p50/p90/p99/máx) de esa ventana queda precalculado
+ * para que consultarlo no cueste nada.
+ */
+public class VoteMetrics {
+    private static final VoteMetrics instance = new VoteMetrics();
+
+    // VOTE_FSYNC / ACK_FSYNC: escritura + force() de un lote en los archivos de votos y ACKs
+    public enum Stage { VALIDATION, REGISTRATION, ACK, PERSISTENCE, END_TO_END, VOTE_FSYNC, ACK_FSYNC }
+
+    // Ventana de throughput
+    private static final int SLOTS = 64;
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long SECOND_MASK = (1L << (64 - COUNT_BITS)) - 1;
+    private final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+
+    // Histogramas por etapa
+    private static final long MAX_MICROS = 60_000_000L;
+    private static final int TICK_SECONDS = 10;
+    private static final int WINDOW_TICKS = 6;
+    private final Recorder[] recorders = new Recorder[Stage.values().length];
+    private final List<List<Histogram>> intervals = new ArrayList<>();
+    private volatile List<StageLatency> latencySnapshot = Collections.emptyList();
+
+    private VoteMetrics() {
+        for (Stage stage : Stage.values()) {
+            recorders[stage.ordinal()] = new Recorder(MAX_MICROS, 2);
+            intervals.add(new ArrayList<>(WINDOW_TICKS));
+        }
+
+        Thread ticker = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(TICK_SECONDS * 1000L);
+                    rollLatencyWindow();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }, "VoteMetrics-Ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public static VoteMetrics getInstance() {
+        return instance;
+    }
+
+    // ============================================================================
+    // THROUGHPUT
+    // ============================================================================
+
+    /**
+     * Contar votos recibidos en el segundo actual
+     */
+    public void recordVotes(int count) {
+        if (count <= 0) return;
+        long second = System.currentTimeMillis() / 1000;
+        long tag = second & SECOND_MASK;
+        int index = (int) (second % SLOTS);
+
+        while (true) {
+            long current = slots.get(index);
+            long updated = (current >>> COUNT_BITS) == tag
+                    ? current + count
+                    : (tag << COUNT_BITS) | count;
+            if (slots.compareAndSet(index, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Votos por segundo en los últimos 'seconds' segundos completos (sin el actual)
+     */
+    public double getVotesPerSecond(int seconds) {
+        int window = Math.max(1, Math.min(seconds, SLOTS - 1));
+        long now = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (long second = now - window; second < now; second++) {
+            long value = slots.get((int) (second % SLOTS));
+            if ((value >>> COUNT_BITS) == (second & SECOND_MASK)) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return (double) total / window;
+    }
+
+    // ============================================================================
+    // LATENCIAS
+    // ============================================================================
+
+    /**
+     * Registrar la latencia de un voto en una etapa (cola + servicio), en nanosegundos
+     */
+    public void recordLatency(Stage stage, long nanos) {
+        long micros = Math.max(0, Math.min(MAX_MICROS, nanos / 1000));
+        recorders[stage.ordinal()].recordValue(micros);
+    }
+
+    /**
+     * Cerrar el intervalo actual de cada etapa y recalcular el resumen de la ventana
+     */
+    private synchronized void rollLatencyWindow() {
+        List<StageLatency> snapshot = new ArrayList<>(recorders.length);
+        for (Stage stage : Stage.values()) {
+            List<Histogram> window = intervals.get(stage.ordinal());
+            Histogram recycled = window.size() == WINDOW_TICKS ? window.remove(0) : null;
+            window.add(recorders[stage.ordinal()].getIntervalHistogram(recycled));
+
+            Histogram merged = new Histogram(MAX_MICROS, 2);
+            for (Histogram interval : window) {
+                merged.add(interval);
+            }
+            snapshot.add(new StageLatency(stage, merged.getTotalCount(),
+                    merged.getValueAtPercentile(50), merged.getValueAtPercentile(90),
+                    merged.getValueAtPercentile(99), merged.getMaxValue()));
+        }
+        latencySnapshot = Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * Resumen de latencias de la última ventana (TICK_SECONDS * WINDOW_TICKS segundos)
+     */
+    public List<StageLatency> getLatencySnapshot() {
+        return latencySnapshot;
+    }
+
+    public int getWindowSeconds() {
+        return TICK_SECONDS * WINDOW_TICKS;
+    }
+
+    public static class StageLatency {
+        public final Stage stage;
+        public final long count;
+        public final long p50Micros;
+        public final long p90Micros;
+        public final long p99Micros;
+        public final long maxMicros;
+
+        public StageLatency(Stage stage, long count, long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+            this.stage = stage;
+            this.count = count;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{count=%d, p50=%dus, p90=%dus, p99=%dus, max=%dus}",
+                    stage, count, p50Micros, p90Micros, p99Micros, maxMicros);
+        }
+    }
+
+    public void printStatus() {
+        System.out.println(String.format("   Throughput: %.1f v/s (10 s) | %.1f v/s (60 s)",
+                getVotesPerSecond(10), getVotesPerSecond(60)));
+        System.out.println(String.format("   %-13s %10s %10s %10s %10s %10s   (µs, últimos %d s)",
+                "Etapa", "Votos", "p50", "p90", "p99", "Máx", getWindowSeconds()));
+        for (StageLatency latency : latencySnapshot) {
+            System.out.println(String.format("   %-13s %,10d %,10d %,10d %,10d %,10d",
+                    latency.stage, latency.count, latency.p50Micros, latency.p90Micros,
+                    latency.p99Micros, latency.maxMicros));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AsyncLog - Registro asíncrono para el camino del voto
+ *
+ * Los hilos que procesan votos solo dejan el mensaje en un ring buffer sin locks
+ * (reservan posición con CAS) y siguen; un hilo en segundo plano formatea la hora y
+ * escribe en stdout/stderr por bloques, así System.out deja de ser un lock global.
+ * Si el buffer se llena el mensaje se descarta y se cuenta, nunca se bloquea un voto.
+ *
+ * Los eventos por voto pasan por sampleVote(): con Log.VoteSampleRate=N solo 1 de
+ * cada N (en promedio) se registra. Advertencias y errores no se muestrean.
+ *
+ * Configuración (Ice Properties): Log.Level, Log.VoteSampleRate. El tamaño del buffer
+ * se fija antes de arrancar el writer con la propiedad de sistema -DLog.BufferSize
+ * (cambiarlo con productores activos podría dejar un mensaje en el arreglo anterior).
+ */
+public final class AsyncLog {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final DateTimeFormatter timeFormatter =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final class Entry {
+        final long timestamp;
+        final Level level;
+        final String component;
+        final String message;
+
+        Entry(long timestamp, Level level, String component, String message) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.component = component;
+            this.message = message;
+        }
+    }
+
+    private static volatile Level minLevel = Level.INFO;
+    private static volatile int voteSampleRate = 1;
+
+    // Ring buffer multi-productor / un consumidor; capacidad fija desde el arranque
+    private static final int capacity = capacityFor(Integer.getInteger("Log.BufferSize", 1 << 16));
+    private static final AtomicReferenceArray<Entry> ring = new AtomicReferenceArray<>(capacity);
+    private static final int mask = capacity - 1;
+    private static final AtomicLong tail = new AtomicLong();   // próxima posición a reservar
+    private static volatile long head = 0;                      // próxima posición a escribir
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static final Thread writer;
+
+    static {
+        writer = new Thread(AsyncLog::runWriter, "AsyncLog-Writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncLog::flush, "AsyncLog-Flush"));
+    }
+
+    private AsyncLog() {
+    }
+
+    /**
+     * Potencia de 2 mayor o igual al tamaño pedido (mínimo 1024)
+     */
+    private static int capacityFor(int requested) {
+        return Integer.highestOneBit(Math.max(1024, requested) - 1) << 1;
+    }
+
+    /**
+     * Aplicar configuración de nivel y muestreo (el tamaño del buffer ya quedó fijo)
+     */
+    public static synchronized void configure(com.zeroc.Ice.Properties properties) {
+        try {
+            minLevel = Level.valueOf(properties.getPropertyWithDefault("Log.Level", "INFO").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            minLevel = Level.INFO;
+        }
+        voteSampleRate = Math.max(1, properties.getPropertyAsIntWithDefault("Log.VoteSampleRate", 1));
+
+        int requested = properties.getPropertyAsIntWithDefault("Log.BufferSize", capacity);
+        if (capacityFor(requested) != capacity) {
+            warn("AsyncLog", "Log.BufferSize se ignora en la configuración: el buffer ya tiene " + capacity +
+                    " posiciones (usar -DLog.BufferSize=" + requested + " al arrancar)");
+        }
+    }
+
+    // ============================================================================
+    // API
+    // ============================================================================
+
+    public static void debug(String component, String message) {
+        log(Level.DEBUG, component, message);
+    }
+
+    public static void info(String component, String message) {
+        log(Level.INFO, component, message);
+    }
+
+    public static void warn(String component, String message) {
+        log(Level.WARN, component, message);
+    }
+
+    public static void error(String component, String message) {
+        log(Level.ERROR, component, message);
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(minLevel) >= 0;
+    }
+
+    /**
+     * ¿Registrar este evento por voto? Usar antes de construir el mensaje:
+     * if (AsyncLog.sampleVote()) AsyncLog.info(...)
+     */
+    public static boolean sampleVote() {
+        int rate = voteSampleRate;
+        return isEnabled(Level.INFO) && (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0);
+    }
+
+    public static void log(Level level, String component, String message) {
+        if (!isEnabled(level)) return;
+
+        Entry entry = new Entry(System.currentTimeMillis(), level, component, message);
+        AtomicReferenceArray<Entry> buffer = ring;
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head >= capacity) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+
+        buffer.set((int) (slot & mask), entry);
+        if (slot == head) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public static int getPendingCount() {
+        return (int) (tail.get() - head);
+    }
+
+    /**
+     * Esperar a que el writer vacíe el buffer (shutdown)
+     */
+    public static void flush() {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (head < tail.get() && System.currentTimeMillis() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(1_000_000);
+        }
+        System.out.flush();
+        System.err.flush();
+    }
+
+    // ============================================================================
+    // WRITER
+    // ============================================================================
+
+    private static void runWriter() {
+        StringBuilder out = new StringBuilder(64 * 1024);
+        StringBuilder err = new StringBuilder(4 * 1024);
+        long reportedDrops = 0;
+
+        while (true) {
+            AtomicReferenceArray<Entry> buffer = ring;
+            long available = tail.get();
+            long position = head;
+
+            while (position < available) {
+                int index = (int) (position & mask);
+                Entry entry = buffer.get(index);
+                if (entry == null) {
+                    // Posición reservada pero aún no publicada por el productor
+                    Thread.onSpinWait();
+                    continue;
+                }
+                buffer.set(index, null);
+                position++;
+                head = position;
+
+                StringBuilder target = entry.level.compareTo(Level.WARN) >= 0 ? err : out;
+                format(target, entry);
+                if (out.length() > 60_000) {
+                    write(System.out, out);
+                }
+            }
+
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                err.append("[AsyncLog] ").append(drops - reportedDrops)
+                        .append(" mensajes descartados (buffer lleno)\n");
+                reportedDrops = drops;
+            }
+
+            write(System.out, out);
+            write(System.err, err);
+
+            if (head == tail.get()) {
+                LockSupport.parkNanos(50_000_000L);
+            }
+        }
+    }
+
+    private static void format(StringBuilder target, Entry entry) {
+        target.append('[').append(timeFormatter.format(Instant.ofEpochMilli(entry.timestamp))).append("] ");
+        if (entry.level != Level.INFO) {
+            target.append(entry.level).append(' ');
+        }
+        target.append('[').append(entry.component).append("] ").append(entry.message).append('\n');
+    }
+
+    private static void write(PrintStream stream, StringBuilder text) {
+        if (text.length() == 0) return;
+        stream.print(text);
+        stream.flush();
+        text.setLength(0);
+    }
+}
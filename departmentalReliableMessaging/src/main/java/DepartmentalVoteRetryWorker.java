@@ -13,6 +13,7 @@ public class DepartmentalVoteRetryWorker extends Thread {
     private final DepartmentalOfflineVoteQueue queue;
     private final DepartmentalVoteACKManager ackManager;
     private final long retryInterval;
+    private final int batchSize;
     private final boolean verboseLogging;
     private volatile boolean running = true;
     private int consecutiveFailures = 0;
@@ -26,6 +27,7 @@ public class DepartmentalVoteRetryWorker extends Thread {
 
         Properties props = communicator.getProperties();
         this.retryInterval = props.getPropertyAsIntWithDefault("DepartmentalReliableMessaging.RetryInterval", 8000);
+        this.batchSize = Math.max(1, props.getPropertyAsIntWithDefault("DepartmentalReliableMessaging.BatchSize", 500));
         this.verboseLogging = props.getPropertyAsIntWithDefault("DepartmentalReliableMessaging.VerboseLogging", 1) == 1;
 
         this.setDaemon(true);
@@ -35,6 +37,7 @@ public class DepartmentalVoteRetryWorker extends Thread {
             System.out.println("[DepartmentalReliableMessaging] Worker configurado:");
             System.out.println("  - Intervalo cuando hay votos pendientes: " + retryInterval + "ms");
             System.out.println("  - Estrategia: INTENTOS ILIMITADOS hacia CentralServer");
+            System.out.println("  - Votos por lote (processVotes): " + batchSize);
             System.out.println("  - Solo activo cuando CentralServer no disponible");
             System.out.println("  - Maneja validación de ciudadanos en PostgreSQL");
         }
@@ -133,48 +136,71 @@ public class DepartmentalVoteRetryWorker extends Thread {
         int duplicateCount = 0;
         int notRegisteredCount = 0; // NUEVO: Contador para ciudadanos no registrados
 
-        for (String[] vote : votes) {
+        // Entrega por lotes de hasta batchSize votos del mismo departamento (una RPC por lote)
+        for (int from = 0; from < votes.size() && errorCount == 0; ) {
+            String departmentalServerId = votes.get(from)[2];
+            int to = from;
+            while (to < votes.size() && to - from < batchSize && votes.get(to)[2].equals(departmentalServerId)) {
+                to++;
+            }
+            List<String[]> batch = votes.subList(from, to);
+            from = to;
+
+            VoteRequest[] requests = new VoteRequest[batch.size()];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new VoteRequest(batch.get(i)[0], batch.get(i)[1]);
+            }
+
             try {
                 long startTime = System.currentTimeMillis();
-                String ackId = centralProxy.processVote(vote[0], vote[1], vote[2]); // citizenId, candidateId, departmentalServerId
+                VoteOutcome[] outcomes = centralProxy.processVotes(requests, departmentalServerId);
                 long latency = System.currentTimeMillis() - startTime;
 
-                successCount++;
-                String voteKey = vote[0] + "|" + vote[1] + "|" + vote[2];
-                ackManager.confirmACK(voteKey, ackId, latency);
-
-                if (verboseLogging) {
-                    System.out.println("[DepartmentalReliableMessaging] Voto entregado a CentralServer: " +
-                            vote[0] + " -> " + vote[1] + " (desde " + vote[2] + ") | ACK: " + ackId + " (" + latency + "ms)");
+                for (int i = 0; i < outcomes.length; i++) {
+                    String[] vote = batch.get(i);
+                    String voteKey = vote[0] + "|" + vote[1] + "|" + vote[2];
+                    VoteOutcome outcome = outcomes[i];
+
+                    switch (outcome.kind) {
+                        case Accepted:
+                            successCount++;
+                            ackManager.confirmACK(voteKey, outcome.ackId, latency);
+                            break;
+
+                        case Duplicate:
+                            duplicateCount++;
+                            ackManager.confirmACK(voteKey, outcome.ackId, 0);
+                            if (verboseLogging && AsyncLog.sampleVote()) {
+                                AsyncLog.info("DepartmentalReliableMessaging", "Voto duplicado en CentralServer: " +
+                                        vote[0] + " | ACK: " + outcome.ackId);
+                            }
+                            break;
+
+                        case NotRegistered:
+                            notRegisteredCount++;
+                            ackManager.failVote(voteKey, "CITIZEN_NOT_REGISTERED: " + outcome.message);
+                            AsyncLog.warn("DepartmentalReliableMessaging", "❌ Ciudadano NO registrado en CentralServer: " +
+                                    vote[0] + " | Mensaje: " + outcome.message);
+                            break;
+
+                        case Unavailable:
+                            // El central no pudo procesar este voto: la cola no se vacía y se reenvía
+                            // (los ya aceptados del lote volverán como duplicados)
+                            errorCount++;
+                            AsyncLog.warn("DepartmentalReliableMessaging", "Voto no procesado por CentralServer, se reintentará: " +
+                                    vote[0] + " | Motivo: " + outcome.message);
+                            break;
+
+                        default:
+                            notRegisteredCount++;
+                            ackManager.failVote(voteKey, "INVALID_VOTE: " + outcome.message);
+                            break;
+                    }
                 }
 
-            } catch (AlreadyVotedCentralException e) {
-                long latency = System.currentTimeMillis() - System.currentTimeMillis();
-                String voteKey = vote[0] + "|" + vote[1] + "|" + vote[2];
-                ackManager.confirmACK(voteKey, e.ackId, latency);
-
-                duplicateCount++;
                 if (verboseLogging) {
-                    System.out.println("[DepartmentalReliableMessaging] Voto duplicado en CentralServer: " +
-                            vote[0] + " | ACK: " + e.ackId);
-                }
-
-            } catch (CitizenNotRegisteredException e) {
-                // NUEVO: Manejar ciudadano no registrado
-                long latency = System.currentTimeMillis() - System.currentTimeMillis();
-                String voteKey = vote[0] + "|" + vote[1] + "|" + vote[2];
-
-                // Generar ACK especial para ciudadano no registrado
-                String specialACK = "NOT-REGISTERED-" + e.citizenId + "-" + System.currentTimeMillis();
-                ackManager.failVote(voteKey, "CITIZEN_NOT_REGISTERED: " + e.message);
-
-                notRegisteredCount++;
-                System.out.println("[DepartmentalReliableMessaging] ❌ Ciudadano NO registrado en CentralServer: " +
-                        vote[0] + " | Mensaje: " + e.message);
-
-                if (verboseLogging) {
-                    System.out.println("[DepartmentalReliableMessaging] Voto rechazado por validación: " + e.citizenId +
-                            " no está en la base de datos PostgreSQL");
+                    AsyncLog.info("DepartmentalReliableMessaging", "Lote de " + outcomes.length +
+                            " votos entregado a CentralServer desde " + departmentalServerId + " (" + latency + "ms)");
                 }
 
             } catch (CentralServerUnavailableException e) {
@@ -183,32 +209,17 @@ public class DepartmentalVoteRetryWorker extends Thread {
                 errorCount++;
                 consecutiveFailures++; // Contar este como un fallo
 
-                // Si hay error de CentralServer, parar procesamiento y reintentar todo
-                break;
-
             } catch (LocalException e) {
                 System.out.println("[DepartmentalReliableMessaging] Error de conexion con CentralServer: " + e.getMessage());
                 System.out.println("[DepartmentalReliableMessaging] Posible fallo de CentralServer - reintentando todos los votos");
                 errorCount++;
                 consecutiveFailures++; // Contar este como un fallo
 
-                // Si hay error de conexión, parar procesamiento y reintentar todo
-                break;
-
             } catch (Exception e) {
-                // NUEVO: Capturar cualquier otra excepción no prevista
-                System.err.println("[DepartmentalReliableMessaging] Excepción inesperada procesando voto: " + e.getClass().getSimpleName());
-                System.err.println("[DepartmentalReliableMessaging] Mensaje: " + e.getMessage());
-
-                String voteKey = vote[0] + "|" + vote[1] + "|" + vote[2];
-                ackManager.failVote(voteKey, "UNEXPECTED_ERROR: " + e.getMessage());
-
+                // Excepción no prevista: el lote queda pendiente para la próxima iteración
+                System.err.println("[DepartmentalReliableMessaging] Excepción inesperada procesando lote: " +
+                        e.getClass().getSimpleName() + " - " + e.getMessage());
                 errorCount++;
-
-                // No romper el bucle para otras excepciones, continuar con el siguiente voto
-                if (verboseLogging) {
-                    System.out.println("[DepartmentalReliableMessaging] Continuando con siguiente voto después de error inesperado");
-                }
             }
         }
 
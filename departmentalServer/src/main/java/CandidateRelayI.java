@@ -0,0 +1,155 @@
+//
+// CandidateRelayI - Relay departamental de candidatos
+// Se suscribe al servidor central como una sola "máquina" y reenvía el catálogo a
+// las VotingMachine de su departamento con el mismo fan-out del servidor central
+//
+
+import Central.*;
+import CandidateNotification.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class CandidateRelayI implements CandidateRelay
+{
+    private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final String relayId;
+    private final CandidateCatalog catalog = CandidateCatalog.getInstance();
+    private final CandidateNotificationManager notificationManager = CandidateNotificationManager.getInstance();
+
+    private CentralVotationPrx centralProxy;
+    private VotingMachineCallbackPrx upstreamCallback;
+    private final int resubscribeIntervalMillis;
+
+    // El reenvío corre fuera del callback para responder al servidor central de inmediato
+    private final ExecutorService fanOutExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "relay-fanout");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService subscriber = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "relay-subscriber");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public CandidateRelayI(String relayId, com.zeroc.Ice.Properties properties)
+    {
+        this.relayId = relayId;
+        this.resubscribeIntervalMillis = Math.max(1000,
+                properties.getPropertyAsIntWithDefault("CandidateRelay.ResubscribeInterval", 30000));
+        notificationManager.configure(properties);
+    }
+
+    /**
+     * Suscribirse al servidor central y mantener la suscripción (se renueva periódicamente)
+     */
+    public void start(com.zeroc.Ice.ObjectAdapter adapter, String centralEndpoint)
+    {
+        com.zeroc.Ice.Communicator communicator = adapter.getCommunicator();
+        this.centralProxy = CentralVotationPrx.uncheckedCast(communicator.stringToProxy(centralEndpoint));
+        this.upstreamCallback = VotingMachineCallbackPrx.uncheckedCast(adapter.addWithUUID(new UpstreamCallbackI()));
+
+        subscriber.scheduleWithFixedDelay(this::subscribe, 0, resubscribeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown()
+    {
+        subscriber.shutdownNow();
+        fanOutExecutor.shutdownNow();
+        try {
+            if (centralProxy != null) {
+                centralProxy.unregisterVotingMachine(relayId);
+            }
+        } catch (Exception e) {
+            // Ignorar errores de limpieza
+        }
+    }
+
+    private void subscribe()
+    {
+        String timestamp = LocalDateTime.now().format(timeFormatter);
+        long before = catalog.getVersion();
+        try {
+            // Registrar con la versión local: el servidor central solo envía lo que falte
+            centralProxy.registerVotingMachine(relayId, upstreamCallback, before);
+            if (before == 0) {
+                System.out.println("[" + timestamp + "] [" + relayId + "] Suscrito al catálogo central (versión " + catalog.getVersion() + ")");
+            }
+        } catch (Exception e) {
+            System.err.println("[" + timestamp + "] [" + relayId + "] Servidor central no disponible para el catálogo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aplicar una actualización del servidor central; si el delta no aplica se pide lo que falte
+     */
+    private void applyFromCentral(CandidateCatalogUpdate update)
+    {
+        long before = catalog.getVersion();
+        if (!catalog.applyUpstream(update)) {
+            try {
+                catalog.applyUpstream(centralProxy.getCandidateCatalog(before));
+            } catch (Exception e) {
+                System.err.println("[" + relayId + "] Error obteniendo catálogo central: " + e.getMessage());
+                return;
+            }
+        }
+
+        if (catalog.getVersion() != before) {
+            fanOutExecutor.execute(notificationManager::notifyCatalogChanged);
+        }
+    }
+
+    // Callback que recibe las actualizaciones del servidor central
+    private class UpstreamCallbackI implements VotingMachineCallback
+    {
+        @Override
+        public void onCatalogUpdated(CandidateCatalogUpdate update, com.zeroc.Ice.Current current)
+        {
+            applyFromCentral(update);
+        }
+    }
+
+    // ============================================================================
+    // OPERACIONES PARA LAS MÁQUINAS DEL DEPARTAMENTO
+    // ============================================================================
+
+    @Override
+    public void registerVotingMachine(String machineId, VotingMachineCallbackPrx callback, long knownVersion,
+                                      com.zeroc.Ice.Current current)
+            throws CentralServerUnavailableException
+    {
+        if (catalog.getVersion() == 0) {
+            throw new CentralServerUnavailableException("Relay " + relayId + " aún sin catálogo del servidor central",
+                    System.currentTimeMillis());
+        }
+        try {
+            notificationManager.registerVotingMachine(machineId, callback, knownVersion);
+        } catch (Exception e) {
+            throw new CentralServerUnavailableException("Relay " + relayId + " no pudo registrar " + machineId +
+                    ": " + e.getMessage(), System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public CandidateCatalogUpdate getCandidateCatalog(long knownVersion, com.zeroc.Ice.Current current)
+            throws CentralServerUnavailableException
+    {
+        if (catalog.getVersion() == 0) {
+            throw new CentralServerUnavailableException("Relay " + relayId + " aún sin catálogo del servidor central",
+                    System.currentTimeMillis());
+        }
+        return catalog.updateFor(knownVersion);
+    }
+
+    @Override
+    public void unregisterVotingMachine(String machineId, com.zeroc.Ice.Current current)
+    {
+        notificationManager.unregisterVotingMachine(machineId);
+    }
+}
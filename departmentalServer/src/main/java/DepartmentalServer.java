@@ -25,6 +25,7 @@ public class DepartmentalServer
             } catch (Exception e) {
                 System.out.println("[DepartmentalServer] Usando configuración por defecto para DepartmentalReliableMessaging");
             }
+            AsyncLog.configure(communicator.getProperties());
 
             //
             // Install shutdown hook to (also) destroy communicator during JVM shutdown.
@@ -48,8 +49,19 @@ public class DepartmentalServer
                 votationServant.setCommunicator(communicator); // Pasar el communicator
 
                 adapter.add(votationServant, id);
+
+                // Relay de candidatos para las máquinas del departamento
+                String relayIdentity = properties.getPropertyWithDefault("CandidateRelay.Identity",
+                        "relay-" + properties.getProperty("Identity"));
+                CandidateRelayI relay = new CandidateRelayI(relayIdentity, properties);
+                adapter.add(relay, com.zeroc.Ice.Util.stringToIdentity(relayIdentity));
+
                 adapter.activate();
 
+                relay.start(adapter, properties.getPropertyWithDefault("CandidateRelay.Central",
+                        "CentralVotation:default -h 10.147.17.101 -p 8899"));
+                Runtime.getRuntime().addShutdownHook(new Thread(relay::shutdown));
+
                 communicator.waitForShutdown();
             }
         }
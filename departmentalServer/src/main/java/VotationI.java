@@ -86,19 +86,53 @@ public class VotationI implements Votation
         current.adapter.getCommunicator().shutdown();
     }
 
+    /**
+     * Operación original: mismo camino que castVote, traduciendo el resultado a excepciones
+     */
     @Override
     public String sendVote(String citizenId, String candidateId, com.zeroc.Ice.Current current) throws AlreadyVotedException, Demo.CitizenNotRegisteredException {
-        String timestamp = LocalDateTime.now().format(timeFormatter);
+        VoteResult result = castVote(citizenId, candidateId, current);
+
+        switch (result.status) {
+            case AlreadyVoted:
+                AlreadyVotedException duplicate = new AlreadyVotedException();
+                duplicate.ackId = result.ackId;
+                throw duplicate;
+
+            case NotRegistered:
+                Demo.CitizenNotRegisteredException notRegistered = new Demo.CitizenNotRegisteredException();
+                notRegistered.citizenId = citizenId.trim();
+                notRegistered.message = result.detail;
+                throw notRegistered;
+
+            case Invalid:
+                throw new RuntimeException("Parametros invalidos");
+
+            default:
+                // Accepted o Queued (ACK temporal departamental)
+                return result.ackId;
+        }
+    }
 
+    /**
+     * Enviar el voto al servidor central con resultado tipado: duplicados y no registrados
+     * se devuelven como VoteResult, sin construir ni atrapar excepciones
+     */
+    @Override
+    public VoteResult castVote(String citizenId, String candidateId, com.zeroc.Ice.Current current) {
         if (citizenId == null || citizenId.trim().isEmpty() || candidateId == null || candidateId.trim().isEmpty()) {
-            throw new RuntimeException("Parametros invalidos");
+            return new VoteResult(VoteStatus.Invalid, "", "Parametros invalidos");
         }
 
         String cleanCitizenId = citizenId.trim();
         String cleanCandidateId = candidateId.trim();
+        String voteKey = cleanCitizenId + "|" + cleanCandidateId + "|" + departmentalServerName;
 
-        System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Procesando voto hacia CentralServer");
-        System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Voto: " + cleanCitizenId + " -> " + cleanCandidateId);
+        // Eventos por voto muestreados (Log.VoteSampleRate); se decide una vez por voto
+        boolean traced = AsyncLog.sampleVote();
+        if (traced) {
+            AsyncLog.info(departmentalServerName, "Procesando voto hacia CentralServer: " + cleanCitizenId + " -> " + cleanCandidateId);
+        }
 
         // Verificar que tenemos conexión al servidor central
         if (centralServerProxy == null) {
@@ -106,72 +140,54 @@ public class VotationI implements Votation
         }
 
         try {
-            // INTENTAR ENVIO DIRECTO AL CENTRALSERVER CON VALIDACIÓN
-            if (centralServerProxy != null) {
-                long startTime = System.currentTimeMillis();
-                String ackId = centralServerProxy.processVote(cleanCitizenId, cleanCandidateId, departmentalServerName);
-                long latency = System.currentTimeMillis() - startTime;
-
-                System.out.println("[" + timestamp + "] [" + departmentalServerName + "] ACK recibido del servidor central: " + ackId);
-
-                // Confirmar en reliable messaging si está activo
-                if (messagingService != null) {
-                    try {
-                        String voteKey = cleanCitizenId + "|" + cleanCandidateId + "|" + departmentalServerName;
-                        java.lang.reflect.Method confirmVoteACK = messagingService.getClass().getMethod("confirmVoteACK", String.class, String.class, long.class);
-                        confirmVoteACK.invoke(messagingService, voteKey, ackId, latency);
-                    } catch (Exception ex) {
-                        // Ignorar errores de confirmación
-                    }
-                }
-
-                return ackId;
-            } else {
-                throw new CentralServerUnavailableException("CentralServer no disponible", System.currentTimeMillis());
+            if (centralServerProxy == null) {
+                AsyncLog.warn(departmentalServerName, "CentralServer no disponible - activando DepartmentalReliableMessaging");
+                return handleOfflineVote(cleanCitizenId, cleanCandidateId, "CentralServer no disponible");
             }
 
-        } catch (AlreadyVotedCentralException centralEx) {
-            // Convertir excepción central a excepción departmental
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Duplicado detectado en servidor central");
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Ciudadano " + centralEx.citizenId +
-                    " ya votó por " + centralEx.existingCandidate + " (ACK: " + centralEx.ackId + ")");
-
-            // Confirmar en reliable messaging
-            if (messagingService != null) {
-                try {
-                    String voteKey = cleanCitizenId + "|" + cleanCandidateId + "|" + departmentalServerName;
-                    java.lang.reflect.Method confirmVoteACK = messagingService.getClass().getMethod("confirmVoteACK", String.class, String.class, long.class);
-                    confirmVoteACK.invoke(messagingService, voteKey, centralEx.ackId, 0L);
-                } catch (Exception ex) {
-                    // Ignorar errores de confirmación
-                }
-            }
+            long startTime = System.currentTimeMillis();
+            VoteOutcome outcome = centralServerProxy.castVote(cleanCitizenId, cleanCandidateId, departmentalServerName);
+            long latency = System.currentTimeMillis() - startTime;
+
+            switch (outcome.kind) {
+                case Accepted:
+                    confirmVoteACK(voteKey, outcome.ackId, latency);
+                    if (traced) {
+                        AsyncLog.info(departmentalServerName, "ACK recibido del servidor central: " + outcome.ackId + " (" + latency + "ms)");
+                    }
+                    return new VoteResult(VoteStatus.Accepted, outcome.ackId, "");
+
+                case Duplicate:
+                    confirmVoteACK(voteKey, outcome.ackId, 0L);
+                    if (traced) {
+                        AsyncLog.info(departmentalServerName, "Duplicado en servidor central: " + cleanCitizenId +
+                                " ya votó por " + outcome.existingCandidate + " (ACK: " + outcome.ackId + ")");
+                    }
+                    return new VoteResult(VoteStatus.AlreadyVoted, outcome.ackId, outcome.existingCandidate);
 
-            AlreadyVotedException ex = new AlreadyVotedException();
-            ex.ackId = centralEx.ackId;
-            throw ex;
+                case NotRegistered:
+                    if (traced) {
+                        AsyncLog.info(departmentalServerName, "❌ Ciudadano NO registrado: " + cleanCitizenId + " (" + outcome.message + ")");
+                    }
+                    return new VoteResult(VoteStatus.NotRegistered, "", outcome.message);
 
-        } catch (CitizenNotRegisteredException citizenEx) {
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] ❌ Ciudadano NO registrado: " + citizenEx.citizenId);
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Mensaje: " + citizenEx.message);
+                case Unavailable:
+                    AsyncLog.warn(departmentalServerName, "CentralServer no procesó el voto: " + outcome.message +
+                            " - activando DepartmentalReliableMessaging");
+                    return handleOfflineVote(cleanCitizenId, cleanCandidateId, outcome.message);
 
-            // CREAR Y LANZAR LA EXCEPCIÓN CORRECTA DEL MÓDULO PROXY
-            Demo.CitizenNotRegisteredException ex = new Demo.CitizenNotRegisteredException();
-            ex.citizenId = citizenEx.citizenId;
-            ex.message = citizenEx.message;
-            throw ex;
+                default:
+                    return new VoteResult(VoteStatus.Invalid, "", outcome.message);
+            }
 
         } catch (CentralServerUnavailableException centralEx) {
-            // ACTIVAR RELIABLE MESSAGING
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] CentralServer no disponible: " + centralEx.reason);
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Activando DepartmentalReliableMessaging...");
-
+            AsyncLog.warn(departmentalServerName, "CentralServer no disponible: " + centralEx.reason +
+                    " - activando DepartmentalReliableMessaging");
             return handleOfflineVote(cleanCitizenId, cleanCandidateId, centralEx.reason);
 
         } catch (com.zeroc.Ice.LocalException localEx) {
-            // ERROR DE CONEXIÓN - ACTIVAR RELIABLE MESSAGING
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Error de conexión con CentralServer: " + localEx.getMessage());
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Activando DepartmentalReliableMessaging...");
+            AsyncLog.warn(departmentalServerName, "Error de conexión con CentralServer: " + localEx.getMessage() +
+                    " - activando DepartmentalReliableMessaging");
 
             // Resetear proxy
             centralServerProxy = null;
@@ -179,24 +195,30 @@ public class VotationI implements Votation
             return handleOfflineVote(cleanCitizenId, cleanCandidateId, "Error de conexión: " + localEx.getMessage());
 
         } catch (Exception e) {
-            System.err.println("[" + timestamp + "] [" + departmentalServerName + "] Error inesperado: " + e.getMessage());
-
-            // Verificar si es error de ciudadano no registrado
-            if (e.getMessage() != null && e.getMessage().startsWith("CITIZEN_NOT_REGISTERED:")) {
-                System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Reintentando en modo offline para ciudadano no registrado");
-                return handleOfflineVote(cleanCitizenId, cleanCandidateId, e.getMessage());
-            }
-
+            AsyncLog.error(departmentalServerName, "Error inesperado: " + e.getMessage());
             return handleOfflineVote(cleanCitizenId, cleanCandidateId, "Error inesperado: " + e.getMessage());
         }
     }
 
     /**
-     * Manejar voto offline usando DepartmentalReliableMessaging
+     * Confirmar en reliable messaging si está activo
      */
-    private String handleOfflineVote(String citizenId, String candidateId, String reason) throws AlreadyVotedException {
-        String timestamp = LocalDateTime.now().format(timeFormatter);
+    private void confirmVoteACK(String voteKey, String ackId, long latency) {
+        if (messagingService == null) {
+            return;
+        }
+        try {
+            java.lang.reflect.Method confirmVoteACK = messagingService.getClass().getMethod("confirmVoteACK", String.class, String.class, long.class);
+            confirmVoteACK.invoke(messagingService, voteKey, ackId, latency);
+        } catch (Exception ex) {
+            // Ignorar errores de confirmación
+        }
+    }
 
+    /**
+     * Manejar voto offline usando DepartmentalReliableMessaging
+     */
+    private VoteResult handleOfflineVote(String citizenId, String candidateId, String reason) {
         if (messagingService == null) {
             throw new RuntimeException("Servidor central no disponible y reliable messaging no inicializado");
         }
@@ -204,19 +226,18 @@ public class VotationI implements Votation
         try {
             // Guardar voto para procesamiento garantizado usando reflexión
             java.lang.reflect.Method storeOfflineVote = messagingService.getClass().getMethod("storeOfflineVoteWithACK", String.class, String.class, String.class);
-            String voteKey = (String) storeOfflineVote.invoke(messagingService, citizenId, candidateId, departmentalServerName);
+            storeOfflineVote.invoke(messagingService, citizenId, candidateId, departmentalServerName);
 
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Voto guardado en DepartmentalReliableMessaging");
-            System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Será procesado automáticamente cuando CentralServer esté disponible");
+            AsyncLog.info(departmentalServerName, "Voto guardado en DepartmentalReliableMessaging; se procesará cuando CentralServer esté disponible");
 
             // Generar ACK temporal departamental
             String tempACK = "DEPT-TEMP-" + departmentalServerName.substring(Math.max(0, departmentalServerName.length()-2)) +
                     "-" + Long.toHexString(System.currentTimeMillis()).toUpperCase();
 
-            return tempACK;
+            return new VoteResult(VoteStatus.Queued, tempACK, reason);
 
         } catch (Exception e) {
-            System.err.println("[" + timestamp + "] [" + departmentalServerName + "] Error crítico en reliable messaging: " + e.getMessage());
+            AsyncLog.error(departmentalServerName, "Error crítico en reliable messaging: " + e.getMessage());
             throw new RuntimeException("Sistema temporalmente no disponible");
         }
     }
@@ -275,14 +296,16 @@ public class VotationI implements Votation
 
         try {
             if (centralServerProxy != null) {
-                String status = centralServerProxy.getServerStatus();
-                int totalVotes = centralServerProxy.getTotalVotesCount();
-                int uniqueVoters = centralServerProxy.getUniqueVotersCount();
+                // Una sola llamada con todos los contadores
+                CentralServerStats stats = centralServerProxy.getServerStats();
 
                 System.out.println("\n[" + timestamp + "] [" + departmentalServerName + "] === ESTADO DEL SERVIDOR CENTRAL ===");
-                System.out.println("Estado: " + status);
-                System.out.println("Total de votos: " + totalVotes);
-                System.out.println("Votantes únicos: " + uniqueVoters);
+                System.out.println("Estado: OPERACIONAL");
+                System.out.println("Total de votos: " + stats.totalVotes);
+                System.out.println("Votantes únicos: " + stats.uniqueVoters);
+                System.out.println("Duplicados: " + stats.duplicateVotes);
+                System.out.println("Votos en proceso: " + stats.pipelineInFlight + " | ACKs sin escribir: " + stats.ackBacklog);
+                System.out.println("Throughput: " + String.format("%.2f", stats.votesPerSecond) + " v/s");
                 System.out.println("===============================");
             } else {
                 System.out.println("[" + timestamp + "] [" + departmentalServerName + "] Sin conexión al servidor central");
@@ -0,0 +1,137 @@
+package loadtester;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DocumentSampler - Selección de documentos con distribución realista
+ *
+ * Lee un archivo con un documento por línea. Cada línea puede traer un peso
+ * opcional ("documento,peso"); si el archivo no trae pesos se usa una
+ * distribución Zipf sobre el orden del archivo (exponente 0 = uniforme).
+ * Sin archivo, los documentos pueden tomarse al azar de la tabla ciudadano.
+ */
+public class DocumentSampler {
+    private final String[] documents;
+    private final double[] cumulative;
+
+    private DocumentSampler(String[] documents, double[] weights) {
+        this.documents = documents;
+        this.cumulative = new double[weights.length];
+
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    /**
+     * Cargar documentos desde archivo
+     */
+    public static DocumentSampler fromFile(Path file, double zipfExponent) throws IOException {
+        List<String> docs = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        boolean hasWeights = false;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                int comma = line.indexOf(',');
+                if (comma > 0) {
+                    String doc = line.substring(0, comma).trim();
+                    try {
+                        weights.add(Double.parseDouble(line.substring(comma + 1).trim()));
+                        hasWeights = true;
+                    } catch (NumberFormatException e) {
+                        // Primera línea no numérica = encabezado
+                        if (docs.isEmpty()) continue;
+                        weights.add(1.0);
+                    }
+                    docs.add(doc);
+                } else {
+                    docs.add(line);
+                    weights.add(1.0);
+                }
+            }
+        }
+
+        if (docs.isEmpty()) {
+            throw new IOException("El archivo de documentos está vacío: " + file);
+        }
+
+        double[] w = new double[docs.size()];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = hasWeights ? Math.max(0.0, weights.get(i)) : 1.0 / Math.pow(i + 1, zipfExponent);
+        }
+
+        return new DocumentSampler(docs.toArray(new String[0]), w);
+    }
+
+    /**
+     * Cargar hasta limit documentos al azar de la tabla ciudadano (Zipf sobre ese orden aleatorio)
+     */
+    public static DocumentSampler fromDatabase(String url, String user, String password, int limit,
+                                               double zipfExponent) throws SQLException {
+        List<String> docs = new ArrayList<>();
+        String sql = "SELECT documento FROM ciudadano WHERE documento IS NOT NULL AND documento <> '' " +
+                "ORDER BY random() LIMIT " + limit;
+
+        try (Connection conn = DriverManager.getConnection(url, user, password);
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                docs.add(rs.getString(1).trim());
+            }
+        }
+
+        if (docs.isEmpty()) {
+            throw new SQLException("La tabla ciudadano no tiene documentos: " + url);
+        }
+
+        double[] w = new double[docs.size()];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = 1.0 / Math.pow(i + 1, zipfExponent);
+        }
+        return new DocumentSampler(docs.toArray(new String[0]), w);
+    }
+
+    /**
+     * Documento siguiente según la distribución (seguro entre threads)
+     */
+    public String next() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < r) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return documents[lo];
+    }
+
+    public int size() {
+        return documents.length;
+    }
+}
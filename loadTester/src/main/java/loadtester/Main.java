@@ -2,17 +2,77 @@ package loadtester;
 
 import Query.QueryStationPrx;
 import com.zeroc.Ice.Communicator;
+import com.zeroc.Ice.InitializationData;
 import com.zeroc.Ice.ObjectPrx;
+import com.zeroc.Ice.Properties;
 import com.zeroc.Ice.Util;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+/**
+ * LoadTester - Generador de carga de lazo abierto para QueryStation
+ *
+ * Configuración vía propiedades Ice: config.loadTester del classpath salvo que se
+ * indique --Ice.Config, más argumentos --LoadTester.X=valor. QueryStation se
+ * resuelve vía el locator de IceGrid (grupo de réplicas de QueryServer).
+ * Si LoadTester.DocumentsFile no existe, los documentos salen de LoadTester.Database.*.
+ */
 public class Main {
 
     public static void main(String[] args) {
-        int[] tandas = {100, 500, 1000, 2000, 2666};
+        java.util.List<String> extraArgs = new java.util.ArrayList<>();
 
-        try (Communicator communicator = Util.initialize(args)) {
-            ObjectPrx base = communicator.stringToProxy("QueryStation:default -h 10.147.17.101 -p 8888");
+        InitializationData initData = new InitializationData();
+        initData.properties = Util.createProperties(args);
+        if (initData.properties.getProperty("Ice.Config").isEmpty()) {
+            initData.properties.load("config.loadTester");
+        }
+
+        try (Communicator communicator = Util.initialize(args, initData, extraArgs)) {
+            Properties props = communicator.getProperties();
+            String[] remaining = props.parseCommandLineOptions("LoadTester", extraArgs.toArray(new String[0]));
+            if (remaining.length > 0) {
+                System.err.println("Argumentos no reconocidos: " + String.join(" ", remaining));
+                return;
+            }
+
+            if (props.getProperty("LoadTester.Proxy").isEmpty()) {
+                props.setProperty("LoadTester.Proxy", "QueryStation");
+            }
+            String proxyString = props.getProperty("LoadTester.Proxy");
+            Path documentsFile = Paths.get(props.getPropertyWithDefault("LoadTester.DocumentsFile",
+                    "config/db/query-documents.csv"));
+            double zipfExponent = Double.parseDouble(props.getPropertyWithDefault("LoadTester.ZipfExponent", "1.0"));
+            String[] rates = props.getPropertyWithDefault("LoadTester.Rates", "100,500,1000,2000,2666").split(",");
+            int stepDuration = props.getPropertyAsIntWithDefault("LoadTester.StepDuration", 30);
+            int warmup = props.getPropertyAsIntWithDefault("LoadTester.Warmup", 5);
+            int maxInFlight = props.getPropertyAsIntWithDefault("LoadTester.MaxInFlight", 20000);
+            boolean poisson = "poisson".equalsIgnoreCase(props.getPropertyWithDefault("LoadTester.Arrivals", "poisson"));
+
+            DocumentSampler sampler;
+            String documentsSource;
+            if (Files.isRegularFile(documentsFile)) {
+                sampler = DocumentSampler.fromFile(documentsFile, zipfExponent);
+                documentsSource = documentsFile.toString();
+            } else {
+                String url = props.getProperty("LoadTester.Database.Url");
+                if (url.isEmpty()) {
+                    System.err.println(" No existe " + documentsFile + " y LoadTester.Database.Url está vacío.");
+                    return;
+                }
+                System.out.println(" " + documentsFile + " no existe; cargando documentos desde " + url + "...");
+                sampler = DocumentSampler.fromDatabase(url,
+                        props.getPropertyWithDefault("LoadTester.Database.User", "postgres"),
+                        props.getPropertyWithDefault("LoadTester.Database.Password", "postgres"),
+                        props.getPropertyAsIntWithDefault("LoadTester.Database.Limit", 100000),
+                        zipfExponent);
+                documentsSource = url;
+            }
+
+            // LoadTester.Proxy.* permite ajustar el proxy (ConnectionCached, LocatorCacheTimeout...)
+            ObjectPrx base = communicator.propertyToProxy("LoadTester.Proxy");
             QueryStationPrx proxy = QueryStationPrx.checkedCast(base);
 
             if (proxy == null) {
@@ -20,36 +80,23 @@ public class Main {
                 return;
             }
 
-            for (int total : tandas) {
-                System.out.println("\n Iniciando tanda de " + total + " solicitudes...");
-
-                Thread[] threads = new Thread[total];
-                long start = System.currentTimeMillis();
-
-                for (int i = 0; i < total; i++) {
-                    final int id = i;
-                    threads[i] = new Thread(() -> {
-                        try {
-                            String response = proxy.query("12345678");
-                            if (response == null) {
-                                System.out.println("[" + id + "] ");
-                            } else {
-                                System.out.println(response);
-                                System.out.println("[" + id + "] ");
-                            }
-                        } catch (Exception e) {
-                            System.out.println("[" + id + "]  Error: " + e.getMessage());
-                        }
-                    });
-                    threads[i].start();
-                }
+            System.out.println("═".repeat(70));
+            System.out.println("LOAD TESTER - LAZO ABIERTO");
+            System.out.println("   Destino:        " + proxyString);
+            System.out.println("   Documentos:     " + sampler.size() + " (" + documentsSource + ", zipf=" + zipfExponent + ")");
+            System.out.println("   Llegadas:       " + (poisson ? "Poisson" : "tasa constante"));
+            System.out.println("   Tandas (req/s): " + String.join(", ", rates));
+            System.out.println("   Duración tanda: " + stepDuration + "s (+" + warmup + "s calentamiento)");
+            System.out.println("═".repeat(70));
 
-                for (Thread t : threads) {
-                    t.join();
-                }
+            OpenLoopGenerator generator = new OpenLoopGenerator(proxy, sampler, maxInFlight, poisson);
+
+            for (String rate : rates) {
+                double target = Double.parseDouble(rate.trim());
+                System.out.println("\n Iniciando tanda a " + target + " req/s...");
 
-                long end = System.currentTimeMillis();
-                System.out.println("Tanda de " + total + " completada en " + (end - start) + " ms");
+                OpenLoopGenerator.StepResult result = generator.run(target, stepDuration, warmup);
+                result.printSummary();
             }
 
         } catch (Exception e) {
@@ -0,0 +1,250 @@
+package loadtester;
+
+import Query.QueryStationPrx;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * OpenLoopGenerator - Generador de carga de lazo abierto contra QueryStation
+ *
+ * Las solicitudes se emiten según un calendario fijo (tasa constante o llegadas
+ * Poisson) sin esperar respuestas, usando invocaciones asíncronas de Ice. La
+ * latencia se mide desde el instante PLANEADO de envío, lo que corrige la
+ * omisión coordinada: si el cliente o el servidor se atrasan, ese atraso
+ * aparece en los percentiles en lugar de desaparecer.
+ *
+ * Las solicitudes descartadas por MaxInFlight tampoco desaparecen: quedan en
+ * espera de un hueco y, cuando una respuesta lo libera, se registran con el
+ * tiempo transcurrido desde su envío planeado (cota inferior de su latencia).
+ */
+public class OpenLoopGenerator {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final QueryStationPrx proxy;
+    private final DocumentSampler sampler;
+    private final int maxInFlight;
+    private final boolean poissonArrivals;
+
+    public OpenLoopGenerator(QueryStationPrx proxy, DocumentSampler sampler, int maxInFlight, boolean poissonArrivals) {
+        this.proxy = proxy;
+        this.sampler = sampler;
+        this.maxInFlight = maxInFlight;
+        this.poissonArrivals = poissonArrivals;
+    }
+
+    /**
+     * Ejecutar una tanda a tasa fija; el calentamiento no se incluye en el reporte
+     */
+    public StepResult run(double ratePerSecond, int durationSeconds, int warmupSeconds) throws InterruptedException {
+        if (warmupSeconds > 0) {
+            System.out.println("[LoadTester] Calentamiento de " + warmupSeconds + "s a " + ratePerSecond + " req/s...");
+            runSchedule(ratePerSecond, warmupSeconds, new StepResult(ratePerSecond), false);
+        }
+
+        StepResult result = new StepResult(ratePerSecond);
+        runSchedule(ratePerSecond, durationSeconds, result, true);
+        return result;
+    }
+
+    private void runSchedule(double ratePerSecond, int durationSeconds, StepResult result, boolean report)
+            throws InterruptedException {
+        final double meanIntervalNanos = 1_000_000_000.0 / ratePerSecond;
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        final long start = System.nanoTime();
+        final long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long nextReport = start + TimeUnit.SECONDS.toNanos(1);
+        double next = start;
+
+        while (next < end) {
+            long now = System.nanoTime();
+
+            if (report && now >= nextReport) {
+                result.printInterval((now - start) / 1_000_000_000.0, inFlight.get());
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+            }
+
+            if (now < (long) next) {
+                LockSupport.parkNanos(Math.min((long) next - now, 1_000_000L));
+                continue;
+            }
+
+            final long intendedStart = (long) next;
+            next += poissonArrivals
+                    ? -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos
+                    : meanIntervalNanos;
+
+            result.scheduled.increment();
+
+            // Protección de memoria: el generador no espera, pero tampoco acumula sin límite
+            if (inFlight.get() >= maxInFlight) {
+                result.saturated.increment();
+                result.awaitingSlot.add(intendedStart);
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            final long sentAt = System.nanoTime();
+            String document = sampler.next();
+
+            try {
+                proxy.queryAsync(document).whenComplete((response, error) -> {
+                    long done = System.nanoTime();
+                    inFlight.decrementAndGet();
+
+                    if (error == null) {
+                        result.responseTime.recordValue(toMicros(done - intendedStart));
+                        result.serviceTime.recordValue(toMicros(done - sentAt));
+                        result.completed.increment();
+                        if (response != null) {
+                            result.found.increment();
+                        } else {
+                            result.notFound.increment();
+                        }
+                    } else {
+                        result.recordError(error);
+                    }
+                    result.slotFreed(done);
+                });
+            } catch (Exception e) {
+                inFlight.decrementAndGet();
+                result.recordError(e);
+                result.slotFreed(System.nanoTime());
+            }
+        }
+
+        // Esperar las respuestas pendientes (máximo 30s)
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        result.lostInFlight = inFlight.get();
+
+        // Descartadas que nunca encontraron hueco: esperaron al menos hasta el cierre
+        long closedAt = System.nanoTime();
+        result.flushAwaitingSlot(closedAt);
+        result.elapsedNanos = closedAt - start;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(Math.max(1, nanos / 1000), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    /**
+     * Resultado de una tanda
+     */
+    public static class StepResult {
+        public final double targetRate;
+        final Recorder responseTime = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final Recorder serviceTime = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder scheduled = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder found = new LongAdder();
+        final LongAdder notFound = new LongAdder();
+        final LongAdder saturated = new LongAdder();
+        // Envíos planeados descartados por saturación, en espera de un hueco (orden de llegada)
+        final ConcurrentLinkedQueue<Long> awaitingSlot = new ConcurrentLinkedQueue<>();
+        final AtomicLong errors = new AtomicLong();
+        final Map<String, AtomicLong> errorsByType = new ConcurrentHashMap<>();
+        volatile int lostInFlight;
+        volatile long elapsedNanos;
+
+        private final Histogram totalResponse = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram totalService = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private long lastCompleted = 0;
+
+        StepResult(double targetRate) {
+            this.targetRate = targetRate;
+        }
+
+        /**
+         * Un hueco se liberó: la descartada más antigua cuenta en la latencia corregida
+         * con el tiempo esperado hasta ahora
+         */
+        void slotFreed(long now) {
+            Long intendedStart = awaitingSlot.poll();
+            if (intendedStart != null) {
+                responseTime.recordValue(toMicros(now - intendedStart));
+            }
+        }
+
+        void flushAwaitingSlot(long now) {
+            Long intendedStart;
+            while ((intendedStart = awaitingSlot.poll()) != null) {
+                responseTime.recordValue(toMicros(now - intendedStart));
+            }
+        }
+
+        void recordError(Throwable error) {
+            errors.incrementAndGet();
+            errorsByType.computeIfAbsent(error.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+        }
+
+        /**
+         * Línea de progreso por segundo (solo el hilo generador la invoca)
+         */
+        void printInterval(double elapsedSeconds, int inFlight) {
+            Histogram interval = responseTime.getIntervalHistogram();
+            totalResponse.add(interval);
+            totalService.add(serviceTime.getIntervalHistogram());
+
+            long done = completed.sum();
+            System.out.println(String.format("[LoadTester] t=%5.1fs  completadas/s=%,7d  en vuelo=%,6d  p50=%8.2fms  p99=%8.2fms  errores=%,d  descartadas=%,d",
+                    elapsedSeconds, done - lastCompleted, inFlight,
+                    interval.getValueAtPercentile(50) / 1000.0,
+                    interval.getValueAtPercentile(99) / 1000.0,
+                    errors.get(), saturated.sum()));
+            lastCompleted = done;
+        }
+
+        /**
+         * Reporte final con percentiles corregidos por omisión coordinada
+         */
+        public void printSummary() {
+            totalResponse.add(responseTime.getIntervalHistogram());
+            totalService.add(serviceTime.getIntervalHistogram());
+
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            long done = completed.sum();
+
+            System.out.println("\n" + "═".repeat(70));
+            System.out.println(String.format("RESULTADO TANDA - tasa objetivo %.0f req/s", targetRate));
+            System.out.println("═".repeat(70));
+            System.out.println(String.format("   Programadas:               %,d", scheduled.sum()));
+            System.out.println(String.format("   Completadas:               %,d (%.1f req/s)", done, done / seconds));
+            System.out.println(String.format("   Encontradas / no encontr.: %,d / %,d", found.sum(), notFound.sum()));
+            System.out.println(String.format("   Errores:                   %,d %s", errors.get(), new TreeMap<>(errorsByType)));
+            System.out.println(String.format("   Descartadas (saturación):  %,d", saturated.sum()));
+            System.out.println(String.format("   Sin respuesta al cierre:   %,d", lostInFlight));
+            System.out.println();
+            System.out.println("   LATENCIA (ms)            corregida CO      servicio");
+            printPercentile("p50", 50);
+            printPercentile("p90", 90);
+            printPercentile("p99", 99);
+            printPercentile("p99.9", 99.9);
+            printPercentile("p99.99", 99.99);
+            System.out.println(String.format("   %-24s %12.2f  %12.2f", "max",
+                    totalResponse.getMaxValue() / 1000.0, totalService.getMaxValue() / 1000.0));
+            System.out.println("   (corregida CO = desde el envío planeado, incluye las descartadas hasta que hubo hueco;");
+            System.out.println("    servicio = desde el envío real, solo completadas)");
+            System.out.println("═".repeat(70));
+        }
+
+        private void printPercentile(String label, double percentile) {
+            System.out.println(String.format("   %-24s %12.2f  %12.2f", label,
+                    totalResponse.getValueAtPercentile(percentile) / 1000.0,
+                    totalService.getValueAtPercentile(percentile) / 1000.0));
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import Query.QueryStationPrx;
+import Query.QueryUnavailableException;
 import com.zeroc.Ice.*;
 import com.zeroc.Ice.Exception;
 
@@ -6,9 +7,16 @@ import java.util.Scanner;
 
 public class Main {
     public static void main(String[] args) {
-        try (Communicator communicator = Util.initialize(args)) {
-            ObjectPrx base = communicator.stringToProxy("QueryStation:default -h 10.147.17.101 -p 8899");
-            //ObjectPrx base = communicator.stringToProxy("QueryStation:default -h localhost -p 8888");
+        // config.queryMachine (classpath) salvo que se indique --Ice.Config
+        InitializationData initData = new InitializationData();
+        initData.properties = Util.createProperties(args);
+        if (initData.properties.getProperty("Ice.Config").isEmpty()) {
+            initData.properties.load("config.queryMachine");
+        }
+
+        try (Communicator communicator = Util.initialize(args, initData)) {
+            // QueryStation se resuelve vía el locator de IceGrid (grupo de réplicas)
+            ObjectPrx base = communicator.propertyToProxy("QueryMachine.Proxy");
             QueryStationPrx proxy = QueryStationPrx.checkedCast(base);
 
             if (proxy == null) {
@@ -49,6 +57,8 @@ public class Main {
                         System.out.println(resultado);
                     }
 
+                } catch (QueryUnavailableException e) {
+                    System.out.println("   Consulta no disponible en este momento, intente de nuevo (" + e.reason + ")");
                 } catch (Exception e) {
                     System.out.println(e.getMessage());
                 }
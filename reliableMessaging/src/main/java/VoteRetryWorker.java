@@ -126,25 +126,34 @@ public class VoteRetryWorker extends Thread {
         for (String[] vote : votes) {
             try {
                 long startTime = System.currentTimeMillis();
-                String ackId = votationProxy.sendVote(vote[0], vote[1]);
+                VoteResult result = votationProxy.castVote(vote[0], vote[1]);
                 long latency = System.currentTimeMillis() - startTime;
-
-                successCount++;
                 String voteKey = vote[0] + "|" + vote[1];
-                ackManager.confirmACK(voteKey, ackId, latency);
 
-                if (verboseLogging) {
-                    System.out.println("[ReliableMessaging] Voto entregado: " + vote[0] + " -> " + vote[1] + " | ACK: " + ackId + " (" + latency + "ms)");
-                }
-
-            } catch (AlreadyVotedException e) {
-                long latency = System.currentTimeMillis() - System.currentTimeMillis();
-                String voteKey = vote[0] + "|" + vote[1];
-                ackManager.confirmACK(voteKey, e.ackId, latency);
+                switch (result.status) {
+                    case Accepted:
+                    case Queued:
+                        successCount++;
+                        ackManager.confirmACK(voteKey, result.ackId, latency);
+                        if (verboseLogging && AsyncLog.sampleVote()) {
+                            AsyncLog.info("ReliableMessaging", "Voto entregado: " + vote[0] + " -> " + vote[1] + " | ACK: " + result.ackId + " (" + latency + "ms)");
+                        }
+                        break;
 
-                duplicateCount++;
-                if (verboseLogging) {
-                    System.out.println("[ReliableMessaging] Voto duplicado procesado: " + vote[0] + " | ACK: " + e.ackId);
+                    case AlreadyVoted:
+                        duplicateCount++;
+                        ackManager.confirmACK(voteKey, result.ackId, 0);
+                        if (verboseLogging && AsyncLog.sampleVote()) {
+                            AsyncLog.info("ReliableMessaging", "Voto duplicado procesado: " + vote[0] + " | ACK: " + result.ackId);
+                        }
+                        break;
+
+                    default:
+                        // Ciudadano no registrado o voto inválido - no reintentar
+                        ackManager.timeoutVote(voteKey);
+                        AsyncLog.warn("ReliableMessaging", "❌ Voto rechazado (" + result.status + "): " + vote[0]);
+                        // No incrementar errorCount - es un rechazo válido, no un error de sistema
+                        break;
                 }
 
             } catch (LocalException e) {
@@ -155,13 +164,6 @@ public class VoteRetryWorker extends Thread {
 
                 // Si hay error de conexión, parar procesamiento y reintentar todo
                 break;
-            } catch (CitizenNotRegisteredException e) {
-                // Ciudadano no registrado - no reintentar
-                String voteKey = vote[0] + "|" + vote[1];
-                ackManager.timeoutVote(voteKey);  // ← Cambiar a timeoutVote
-
-                System.out.println("[ReliableMessaging] ❌ Ciudadano NO registrado: " + vote[0]);
-                // No incrementar errorCount - es un rechazo válido, no un error de sistem
             }
         }
 
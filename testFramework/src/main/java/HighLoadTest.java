@@ -1,7 +1,7 @@
 import Proxy.*;
 import java.sql.*;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import Database.DatabaseRouter;
+import Database.PoolRegistry;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -30,7 +30,6 @@ public class HighLoadTest {
     private static volatile long testStartTime = 0;
 
     // BASE DE DATOS - Pool de documentos reales
-    private static HikariDataSource dataSource;
     private static List<String> realDocuments = Collections.synchronizedList(new ArrayList<>());
     private static final AtomicInteger documentIndex = new AtomicInteger(0);
 
@@ -46,7 +45,7 @@ public class HighLoadTest {
         System.out.println("████████████████████████████████████████████████████████████");
 
         // Inicializar conexión a base de datos
-        if (!initializeDatabase()) {
+        if (!initializeDatabase(args)) {
             System.err.println("❌ ERROR CRÍTICO: No se pudo conectar a la base de datos");
             System.exit(1);
         }
@@ -60,9 +59,7 @@ public class HighLoadTest {
         boolean testPassed = executeLoadTest();
 
         // Cerrar conexión a BD
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
-        }
+        DatabaseRouter.getInstance().shutdown();
 
         System.out.println("\n████████████████████████████████████████████████████████████");
         if (testPassed) {
@@ -80,27 +77,24 @@ public class HighLoadTest {
     /**
      * Inicializar pool de conexiones a PostgreSQL
      */
-    private static boolean initializeDatabase() {
+    private static boolean initializeDatabase(String[] args) {
         try {
-            System.out.println("🔌 Conectando a PostgreSQL para obtener documentos reales...");
-
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl("jdbc:postgresql://10.147.17.101:5432/votacion");
-            config.setUsername("postgres");
-            config.setPassword("postgres");
-            config.setMaximumPoolSize(5);
-            config.setMinimumIdle(1);
-            config.setConnectionTimeout(3000);
+            System.out.println("🔌 Conectando a PostgreSQL...");
 
-            dataSource = new HikariDataSource(config);
+            // Pool compartido configurado desde config.testFramework (o --Ice.Config)
+            com.zeroc.Ice.Properties props = com.zeroc.Ice.Util.createProperties(args);
+            if (props.getProperty("Ice.Config").isEmpty()) {
+                props.load("config.testFramework");
+            }
+            DatabaseRouter.initialize(props);
 
-            // Verificar conexión
-            try (Connection conn = dataSource.getConnection()) {
+            if (DatabaseRouter.getInstance().executeOnPrimary(PoolRegistry.LOADTEST, conn -> conn.isValid(2))) {
                 System.out.println("✅ Conexión a PostgreSQL establecida");
                 return true;
             }
+            return false;
 
-        } catch (Exception e) {
+        } catch (java.lang.Exception e) {
             System.err.println("❌ Error conectando a PostgreSQL: " + e.getMessage());
             return false;
         }
@@ -115,30 +109,31 @@ public class HighLoadTest {
 
             String sql = "SELECT documento FROM ciudadano WHERE documento IS NOT NULL AND documento != '' LIMIT 500000";
 
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement ps = conn.prepareStatement(sql);
-                 ResultSet rs = ps.executeQuery()) {
-
-                int count = 0;
-                while (rs.next()) {
-                    String documento = rs.getString("documento");
-                    if (documento != null && !documento.trim().isEmpty()) {
-                        realDocuments.add(documento.trim());
-                        count++;
+            int count = DatabaseRouter.getInstance().executeRead(PoolRegistry.LOADTEST, conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql);
+                     ResultSet rs = ps.executeQuery()) {
+
+                    int loaded = 0;
+                    while (rs.next()) {
+                        String documento = rs.getString("documento");
+                        if (documento != null && !documento.trim().isEmpty()) {
+                            realDocuments.add(documento.trim());
+                            loaded++;
+                        }
                     }
+                    return loaded;
                 }
+            });
 
-                System.out.println("✅ Documentos cargados: " + String.format("%,d", count));
-
-                if (count == 0) {
-                    System.err.println("❌ No se encontraron documentos en la base de datos");
-                    return false;
-                }
-
-                return true;
+            System.out.println("✅ Documentos cargados: " + String.format("%,d", count));
 
+            if (count == 0) {
+                System.err.println("❌ No se encontraron documentos en la base de datos");
+                return false;
             }
 
+            return true;
+
         } catch (Exception e) {
             System.err.println("❌ Error cargando documentos: " + e.getMessage());
             e.printStackTrace();
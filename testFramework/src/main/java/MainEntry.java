@@ -12,6 +12,8 @@ public class MainEntry {
             System.out.println("══════════════════════════════════════════════");
             System.out.println("1. Ejecutar Test de Alta Carga de Votación");
             System.out.println("2. Ejecutar Test de Alta Carga de Consultas");
+            System.out.println("3. Benchmark de particiones (StampedLock vs. dueño de partición)");
+            System.out.println("4. Prueba de scrape de /metrics (Prometheus)");
             System.out.println("0. Salir");
             System.out.print("👉 Selecciona una opción: ");
 
@@ -26,6 +28,22 @@ public class MainEntry {
                     System.out.println("\n🔹 Ejecutando QueryLoadTest...");
                     QueryLoadTest.main(new String[]{});
                     break;
+                case "3":
+                    System.out.println("\n🔹 Ejecutando PartitionModeBenchmark...");
+                    try {
+                        PartitionModeBenchmark.main(new String[]{});
+                    } catch (Exception e) {
+                        System.err.println("❌ Error en benchmark: " + e.getMessage());
+                    }
+                    break;
+                case "4":
+                    System.out.println("\n🔹 Ejecutando MetricsScrapeTest...");
+                    try {
+                        MetricsScrapeTest.run();
+                    } catch (Exception e) {
+                        System.err.println("❌ Error en prueba de scrape: " + e.getMessage());
+                    }
+                    break;
                 case "0":
                     System.out.println("👋 Cerrando módulo de pruebas. ¡Hasta luego!");
                     running = false;
@@ -0,0 +1,175 @@
+import Database.DatabaseRouter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prueba local del endpoint /metrics del servidor central (sin servidor desplegado).
+ *
+ * Levanta MetricsHttpServer en un puerto libre con los componentes reales del servidor
+ * central y un communicator de Ice con IceThreadPoolObserver, hace GET /metrics y valida:
+ * código y Content-Type, cada línea contra el formato de texto de Prometheus (0.0.4),
+ * HELP/TYPE una sola vez y antes de sus muestras, familias contiguas, escape de etiquetas
+ * y presencia de las métricas esperadas. main sale con código 1 si algo falla.
+ *
+ * Crea los archivos de estado de votos/ACKs en el directorio actual: correr en uno temporal.
+ */
+public class MetricsScrapeTest {
+
+    private static final String NAME = "[a-zA-Z_:][a-zA-Z0-9_:]*";
+    private static final String LABEL = "[a-zA-Z_][a-zA-Z0-9_]*=\"(?:\\\\.|[^\"\\\\])*\"";
+    private static final Pattern COMMENT = Pattern.compile("^# (HELP|TYPE) (" + NAME + ") (.*)$");
+    private static final Pattern SAMPLE = Pattern.compile(
+            "^(" + NAME + ")(\\{" + LABEL + "(?:," + LABEL + ")*\\})? (NaN|[+-]Inf|[-+]?[0-9]+(?:\\.[0-9]+)?(?:[eE][-+]?[0-9]+)?)$");
+    private static final Set<String> TYPES = Set.of("counter", "gauge", "summary", "histogram", "untyped");
+
+    private static final String[] REQUIRED = {
+            "central_votes_total", "central_unique_voters", "central_duplicate_votes_total",
+            "central_votes_per_second",
+            "central_pipeline_rejected_total", "central_pipeline_in_flight", "central_pipeline_queue_depth",
+            "central_stage_latency_microseconds", "central_ack_pending_writes",
+            "central_citizen_cache_hit_ratio", "central_db_pool_active_connections",
+            "central_db_pool_pending_threads", "central_db_pool_wait_p99_microseconds",
+            "central_ice_threadpool_threads", "central_ice_threadpool_in_use", "test_escape"
+    };
+
+    private static final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        System.exit(run() ? 0 : 1);
+    }
+
+    /**
+     * Ejecutar la prueba; true si /metrics es válido
+     */
+    public static boolean run() throws Exception {
+        failures.clear();
+        System.out.println("████████████████████████████████████████████████████████████");
+        System.out.println("█           PRUEBA DE SCRAPE - /metrics (Prometheus)        █");
+        System.out.println("████████████████████████████████████████████████████████████");
+
+        IceThreadPoolObserver iceObserver = new IceThreadPoolObserver();
+        com.zeroc.Ice.InitializationData initData = new com.zeroc.Ice.InitializationData();
+        initData.properties = com.zeroc.Ice.Util.createProperties();
+        initData.properties.setProperty("MetricsScrape.Endpoints", "tcp -h 127.0.0.1");
+        initData.observer = iceObserver;
+
+        MetricsHttpServer server = null;
+        VoteCommitPipeline pipeline = null;
+        try (com.zeroc.Ice.Communicator communicator = com.zeroc.Ice.Util.initialize(initData)) {
+            // Un adaptador activo para que exista el thread pool de servidor
+            communicator.createObjectAdapter("MetricsScrape").activate();
+            DatabaseRouter.initialize(communicator.getProperties());
+
+            pipeline = new VoteCommitPipeline("MetricsScrapeTest", new CitizenDAO(), communicator.getProperties());
+            CentralMetricsCollector central = new CentralMetricsCollector(CentralVoteManager.getInstance(),
+                    CentralACKManager.getInstance(), pipeline, DatabaseRouter.getInstance(), null, iceObserver);
+            MetricsHttpServer.Collector escaping = out -> out.family("test_escape", "gauge", "Etiqueta con \"comillas\"")
+                    .sample(1.5, "value", "a\"b\\c\nd");
+
+            server = new MetricsHttpServer("127.0.0.1", 0, List.of(central, escaping));
+            server.start();
+
+            String url = "http://127.0.0.1:" + server.getPort() + "/metrics";
+            System.out.println("🌐 GET " + url);
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            int status = connection.getResponseCode();
+            String contentType = connection.getContentType();
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                body = readAll(in);
+            }
+
+            check(status == 200, "código HTTP " + status);
+            check(contentType != null && contentType.startsWith("text/plain; version=0.0.4"),
+                    "Content-Type " + contentType);
+            validate(body);
+
+            HttpURLConnection post = (HttpURLConnection) new URL(url).openConnection();
+            post.setRequestMethod("POST");
+            check(post.getResponseCode() == 405, "POST debería responder 405, respondió " + post.getResponseCode());
+
+            System.out.println("📄 " + body.split("\n").length + " líneas, " + body.length() + " bytes");
+        } finally {
+            if (server != null) server.stop();
+            if (pipeline != null) pipeline.shutdown();
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("✅ /metrics válido");
+            return true;
+        }
+        System.out.println("❌ " + failures.size() + " fallos:");
+        for (String failure : failures) {
+            System.out.println("   - " + failure);
+        }
+        return false;
+    }
+
+    private static void validate(String body) {
+        check(body.endsWith("\n"), "el cuerpo debe terminar en salto de línea");
+
+        Set<String> helped = new HashSet<>();
+        Set<String> typed = new HashSet<>();
+        Set<String> closed = new HashSet<>();
+        String current = null;
+        int lineNumber = 0;
+
+        for (String line : body.split("\n")) {
+            lineNumber++;
+            Matcher comment = COMMENT.matcher(line);
+            Matcher sample = SAMPLE.matcher(line);
+            String family;
+
+            if (comment.matches()) {
+                family = comment.group(2);
+                if ("HELP".equals(comment.group(1))) {
+                    check(helped.add(family), "línea " + lineNumber + ": HELP repetido para " + family);
+                } else {
+                    check(typed.add(family), "línea " + lineNumber + ": TYPE repetido para " + family);
+                    check(TYPES.contains(comment.group(3)), "línea " + lineNumber + ": tipo inválido " + comment.group(3));
+                }
+            } else if (sample.matches()) {
+                family = sample.group(1);
+                check(typed.contains(family), "línea " + lineNumber + ": muestra de " + family + " sin TYPE previo");
+            } else {
+                check(false, "línea " + lineNumber + " no cumple el formato: " + line);
+                continue;
+            }
+
+            if (!family.equals(current)) {
+                check(!closed.contains(family), "línea " + lineNumber + ": la familia " + family + " no es contigua");
+                if (current != null) closed.add(current);
+                current = family;
+            }
+        }
+
+        for (String name : REQUIRED) {
+            check(typed.contains(name), "falta la métrica " + name);
+        }
+        check(body.contains("test_escape{value=\"a\\\"b\\\\c\\nd\"} 1.5"), "escape de etiquetas incorrecto");
+        check(Pattern.compile("(?m)^central_ice_threadpool_threads\\{pool=\"[^\"]+\"\\} [1-9]").matcher(body).find(),
+                "sin hilos de Ice registrados por el observer");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures.add(message);
+        }
+    }
+
+    private static String readAll(InputStream in) throws java.io.IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        in.transferTo(buffer);
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
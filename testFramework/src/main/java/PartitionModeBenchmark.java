@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark en proceso de CentralVoteManager.registerVotes:
+ * particiones con StampedLock vs. hilos dueños de partición (sin locks en los mapas).
+ *
+ * Solo mide el registro en memoria (no persiste votos), con varios hilos productores
+ * enviando lotes como lo hace la etapa de registro del pipeline. Un 10% de los votos
+ * repite un ciudadano ya registrado para ejercitar el camino de duplicados.
+ *
+ * Uso: PartitionModeBenchmark [productores] [votosPorProductor] [tamañoLote] [hilosDueños]
+ * Limpia el estado en memoria de CentralVoteManager: no correr contra un servidor en uso.
+ */
+public class PartitionModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int votesPerProducer = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int owners = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        System.out.println("████████████████████████████████████████████████████████████");
+        System.out.println("█      BENCHMARK DE PARTICIONES - CentralVoteManager       █");
+        System.out.println("████████████████████████████████████████████████████████████");
+        System.out.println("🧵 Productores: " + producers + " | Votos por productor: " + votesPerProducer +
+                " | Lote: " + batchSize + " | Hilos dueños: " + owners);
+
+        CentralVoteManager manager = CentralVoteManager.getInstance();
+
+        // Calentamiento del JIT en el modo actual
+        runRound(manager, producers, Math.min(votesPerProducer, 20_000), batchSize, "warmup");
+
+        Result locked = runRound(manager, producers, votesPerProducer, batchSize, "locked");
+
+        manager.enablePartitionOwners(owners);
+        runRound(manager, producers, Math.min(votesPerProducer, 20_000), batchSize, "warmup-owned");
+        Result owned = runRound(manager, producers, votesPerProducer, batchSize, "owned");
+
+        manager.clearForTesting();
+
+        System.out.println();
+        System.out.println("📊 RESULTADOS:");
+        System.out.println("   " + locked);
+        System.out.println("   " + owned);
+        System.out.println(String.format("   Relación owned/locked: %.2fx", owned.votesPerSecond / locked.votesPerSecond));
+    }
+
+    private static Result runRound(CentralVoteManager manager, int producers, int votesPerProducer,
+                                   int batchSize, String label) throws InterruptedException {
+        manager.clearForTesting();
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(producers);
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong duplicates = new AtomicLong();
+        long[][] latencies = new long[producers][];
+
+        for (int t = 0; t < producers; t++) {
+            int producer = t;
+            Thread thread = new Thread(() -> {
+                int batches = (votesPerProducer + batchSize - 1) / batchSize;
+                long[] producerLatencies = new long[batches];
+                List<CentralVoteCommand> acceptedCommands = new ArrayList<>(batchSize);
+                try {
+                    start.await();
+                    int sent = 0;
+                    for (int b = 0; b < batches; b++) {
+                        int n = Math.min(batchSize, votesPerProducer - sent);
+                        String[] citizenIds = new String[n];
+                        int[] ordinals = new int[n];
+                        String[] departments = new String[n];
+                        for (int i = 0; i < n; i++) {
+                            int vote = sent + i;
+                            // 1 de cada 10 repite un ciudadano anterior de este productor
+                            int citizen = (vote % 10 == 9 && vote > 0) ? vote / 2 : vote;
+                            citizenIds[i] = label + "-" + producer + "-" + citizen;
+                            ordinals[i] = vote % 5;
+                            departments[i] = "bench-" + (producer % 4);
+                        }
+
+                        acceptedCommands.clear();
+                        long begin = System.nanoTime();
+                        CentralVoteManager.VoteResult[] results =
+                                manager.registerVotes(citizenIds, ordinals, departments, acceptedCommands);
+                        producerLatencies[b] = System.nanoTime() - begin;
+
+                        accepted.addAndGet(acceptedCommands.size());
+                        duplicates.addAndGet(results.length - acceptedCommands.size());
+                        sent += n;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[producer] = producerLatencies;
+                    done.countDown();
+                }
+            }, "Bench-" + label + "-" + t);
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        Result result = new Result(manager.getPartitionMode(), (long) producers * votesPerProducer, elapsed,
+                accepted.get(), duplicates.get(), percentile(all, 0.50), percentile(all, 0.99));
+        if (!label.startsWith("warmup")) {
+            System.out.println("✅ Ronda " + label + ": " + result);
+        }
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    static class Result {
+        final String mode;
+        final long votes;
+        final long accepted;
+        final long duplicates;
+        final double votesPerSecond;
+        final long p50Nanos;
+        final long p99Nanos;
+
+        Result(String mode, long votes, long elapsedNanos, long accepted, long duplicates, long p50Nanos, long p99Nanos) {
+            this.mode = mode;
+            this.votes = votes;
+            this.accepted = accepted;
+            this.duplicates = duplicates;
+            this.votesPerSecond = votes / (elapsedNanos / 1e9);
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-30s %,12.0f votos/s | lote p50=%,.1fus p99=%,.1fus | aceptados=%,d duplicados=%,d",
+                    mode, votesPerSecond, p50Nanos / 1000.0, p99Nanos / 1000.0, accepted, duplicates);
+        }
+    }
+}
@@ -1,8 +1,9 @@
 import Query.QueryStationPrx;
+import Query.QueryUnavailableException;
 import com.zeroc.Ice.*;
 import java.sql.*;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import Database.DatabaseRouter;
+import Database.PoolRegistry;
 import com.zeroc.Ice.Exception;
 
 import java.sql.Connection;
@@ -34,7 +35,6 @@ public class QueryLoadTest {
     private static volatile long testStartTime = 0;
 
     // BASE DE DATOS - Pool de documentos reales
-    private static HikariDataSource dataSource;
     private static List<String> realDocuments = Collections.synchronizedList(new ArrayList<>());
 
     public static void main(String[] args) {
@@ -49,16 +49,14 @@ public class QueryLoadTest {
         System.out.println("████████████████████████████████████████████████████████████");
 
         // Inicializar BD y cargar documentos
-        if (!initializeDatabase() || !loadRealDocuments()) {
+        if (!initializeDatabase(args) || !loadRealDocuments()) {
             System.err.println("❌ ERROR: No se pudo inicializar la base de datos");
             System.exit(1);
         }
 
         boolean testPassed = executeLoadTest();
 
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
-        }
+        DatabaseRouter.getInstance().shutdown();
 
         System.out.println("\n████████████████████████████████████████████████████████████");
         if (testPassed) {
@@ -73,26 +71,24 @@ public class QueryLoadTest {
         System.exit(testPassed ? 0 : 1);
     }
 
-    private static boolean initializeDatabase() {
+    private static boolean initializeDatabase(String[] args) {
         try {
             System.out.println("🔌 Conectando a PostgreSQL...");
 
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl("jdbc:postgresql://10.147.17.101:5432/votacion");
-            config.setUsername("postgres");
-            config.setPassword("postgres");
-            config.setMaximumPoolSize(5);
-            config.setMinimumIdle(1);
-            config.setConnectionTimeout(3000);
-
-            dataSource = new HikariDataSource(config);
+            // Pool compartido configurado desde config.testFramework (o --Ice.Config)
+            com.zeroc.Ice.Properties props = com.zeroc.Ice.Util.createProperties(args);
+            if (props.getProperty("Ice.Config").isEmpty()) {
+                props.load("config.testFramework");
+            }
+            DatabaseRouter.initialize(props);
 
-            try (Connection conn = dataSource.getConnection()) {
+            if (DatabaseRouter.getInstance().executeOnPrimary(PoolRegistry.LOADTEST, conn -> conn.isValid(2))) {
                 System.out.println("✅ Conexión a PostgreSQL establecida");
                 return true;
             }
+            return false;
 
-        } catch (Exception | SQLException e) {
+        } catch (java.lang.Exception e) {
             System.err.println("❌ Error conectando a PostgreSQL: " + e.getMessage());
             return false;
         }
@@ -104,27 +100,26 @@ public class QueryLoadTest {
 
             String sql = "SELECT documento FROM ciudadano WHERE documento IS NOT NULL AND documento != '' LIMIT 100000";
 
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement ps = conn.prepareStatement(sql);
-                 ResultSet rs = ps.executeQuery()) {
-
-                int count = 0;
-                while (rs.next()) {
-                    String documento = rs.getString("documento");
-                    if (documento != null && !documento.trim().isEmpty()) {
-                        realDocuments.add(documento.trim());
-                        count++;
+            int count = DatabaseRouter.getInstance().executeRead(PoolRegistry.LOADTEST, conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql);
+                     ResultSet rs = ps.executeQuery()) {
+
+                    int loaded = 0;
+                    while (rs.next()) {
+                        String documento = rs.getString("documento");
+                        if (documento != null && !documento.trim().isEmpty()) {
+                            realDocuments.add(documento.trim());
+                            loaded++;
+                        }
                     }
+                    return loaded;
                 }
+            });
 
-                System.out.println("✅ Documentos cargados para consultas: " + String.format("%,d", count));
-                return count > 0;
+            System.out.println("✅ Documentos cargados para consultas: " + String.format("%,d", count));
+            return count > 0;
 
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-
-        } catch (Exception e) {
+        } catch (java.lang.Exception e) {
             System.err.println("❌ Error cargando documentos: " + e.getMessage());
             return false;
         }
@@ -141,9 +136,16 @@ public class QueryLoadTest {
     private static boolean executeLoadTest() {
         ExecutorService queryPool = Executors.newFixedThreadPool(CONCURRENT_CLIENTS + 10);
 
-        try (Communicator communicator = Util.initialize()) {
+        // El locator se fija antes de inicializar: el communicator lo lee al arrancar
+        InitializationData initData = new InitializationData();
+        initData.properties = Util.createProperties();
+        initData.properties.setProperty("Ice.Default.Locator",
+                "DemoIceGrid-grpmcc/Locator:default -h 10.147.17.101 -p 4071");
+
+        try (Communicator communicator = Util.initialize(initData)) {
             System.out.println("\n🔌 Conectando al QueryServer...");
-            ObjectPrx base = communicator.stringToProxy("QueryStation:default -h 10.147.17.101 -p 8899");
+            // Grupo de réplicas de QueryServer; sin caché de conexión se reparte entre réplicas
+            ObjectPrx base = communicator.stringToProxy("QueryStation").ice_connectionCached(false);
             QueryStationPrx proxy = QueryStationPrx.checkedCast(base);
 
             if (proxy == null) {
@@ -219,7 +221,7 @@ public class QueryLoadTest {
                 try {
                     String documento = getRealDocument();
                     proxy.query(documento);
-                } catch (Exception e) {
+                } catch (Exception | QueryUnavailableException e) {
                     // Ignorar errores de warmup
                 } finally {
                     warmupLatch.countDown();
@@ -265,7 +267,7 @@ public class QueryLoadTest {
                     queriesCompleted.incrementAndGet();
                     queriesSuccessful.incrementAndGet();
 
-                } catch (Exception e) {
+                } catch (Exception | QueryUnavailableException e) {
                     long latency = System.currentTimeMillis() - queryStartTime;
                     totalLatency.addAndGet(latency);
 
@@ -0,0 +1,118 @@
+import CandidateNotification.CandidateCatalogUpdate;
+import CandidateNotification.CandidateData;
+import CandidateNotification.CatalogUpdateKind;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * CandidateCatalogCache - Copia local del último catálogo de candidatos recibido
+ *
+ * Permite arrancar la estación con los candidatos de la sesión anterior y luego
+ * preguntar al servidor central solo "¿cambió desde la versión X?". La escritura
+ * va a un archivo temporal que se renombra, así un corte de luz no deja el cache
+ * a medio escribir.
+ *
+ * Formato: número de formato, largo y una encapsulación Ice con el catálogo como
+ * CandidateCatalogUpdate completo (la misma codificación que usa la red), así el
+ * archivo no depende de la serialización Java de las clases generadas.
+ */
+public class CandidateCatalogCache {
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Catálogo guardado en disco
+     */
+    public static class CachedCatalog {
+        public final long version;
+        public final long updateTimestamp;
+        public final CandidateData[] candidates;
+
+        CachedCatalog(long version, long updateTimestamp, CandidateData[] candidates) {
+            this.version = version;
+            this.updateTimestamp = updateTimestamp;
+            this.candidates = candidates;
+        }
+    }
+
+    private final File file;
+    // Versión más nueva ya escrita: una escritura atrasada no la pisa
+    private long savedVersion = -1;
+
+    public CandidateCatalogCache(String filePath) {
+        this.file = new File(filePath);
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+    }
+
+    /**
+     * Leer el catálogo guardado; null si no existe, está dañado o tiene otro formato
+     */
+    public synchronized CachedCatalog load() {
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                System.out.println("[CandidateCatalogCache] Cache local con formato anterior, se ignora");
+                return null;
+            }
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+
+            com.zeroc.Ice.InputStream stream = new com.zeroc.Ice.InputStream(data);
+            stream.startEncapsulation();
+            CandidateCatalogUpdate catalog = CandidateCatalogUpdate.ice_read(stream);
+            stream.endEncapsulation();
+
+            savedVersion = catalog.version;
+            return new CachedCatalog(catalog.version, catalog.updateTimestamp, catalog.candidates);
+        } catch (Exception e) {
+            System.err.println("[CandidateCatalogCache] Cache local inválido, se ignora: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Guardar el catálogo actual (escritura atómica); se omite si ya hay una versión más nueva
+     */
+    public synchronized void save(long version, long updateTimestamp, CandidateData[] candidates) {
+        if (version < savedVersion) {
+            return;
+        }
+
+        CandidateCatalogUpdate catalog = new CandidateCatalogUpdate();
+        catalog.kind = CatalogUpdateKind.Full;
+        catalog.version = version;
+        catalog.updateTimestamp = updateTimestamp;
+        catalog.candidates = candidates;
+        catalog.removed = new String[0];
+        catalog.totalCandidates = candidates.length;
+
+        com.zeroc.Ice.OutputStream stream = new com.zeroc.Ice.OutputStream();
+        stream.startEncapsulation();
+        CandidateCatalogUpdate.ice_write(stream, catalog);
+        stream.endEncapsulation();
+        byte[] data = stream.finished();
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(data.length);
+            out.write(data);
+        } catch (IOException e) {
+            System.err.println("[CandidateCatalogCache] Error guardando cache local: " + e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            savedVersion = version;
+        } catch (IOException e) {
+            System.err.println("[CandidateCatalogCache] Error reemplazando cache local: " + e.getMessage());
+        }
+    }
+}
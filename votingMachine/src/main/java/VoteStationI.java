@@ -49,43 +49,22 @@ public class VoteStationI implements VotingStation.VoteStation {
         }
 
         try {
-            // Procesar voto a través del sistema
-            String ackId = votingProxy.submitVote(document.trim(), candidateString);
-            return 0; // Éxito
-
-        } catch (VotingSystemUnavailableException e) {
-            // Sistema no disponible pero voto guardado para procesamiento
-            return 0; // Éxito (será procesado automáticamente)
-
-        } catch (InvalidVoteException e) {
-            // Verificar si es duplicado
-            if (e.reason != null && (e.reason.toLowerCase().contains("already voted") ||
-                    e.reason.toLowerCase().contains("ya votó") ||
-                    e.reason.toLowerCase().contains("duplicado") ||
-                    e.reason.contains("ACK:"))) {
-                return 2; // Ciudadano ya votó
-            }
-            return 5; // Error: voto inválido
-
-        } catch (Proxy.CitizenNotRegisteredException e) {
-            return 3; // Ciudadano no registrado en base de datos
-
-        } catch (Exception e) {
-            // Verificar mensajes de error para casos especiales
-            String errorMsg = e.getMessage();
-            if (errorMsg != null) {
-                if (errorMsg.contains("already voted") || errorMsg.contains("ya votó") ||
-                        errorMsg.contains("duplicado")) {
+            // Procesar voto a través del sistema; el resultado tipado evita excepciones y parseo de mensajes
+            Demo.VoteResult result = votingProxy.castVote(document.trim(), candidateString);
+
+            switch (result.status) {
+                case Accepted:
+                case Queued:
+                    return 0; // Éxito (Queued: será procesado automáticamente)
+                case AlreadyVoted:
                     return 2; // Ciudadano ya votó
-                }
-
-                if (errorMsg.contains("CITIZEN_NOT_REGISTERED") ||
-                        errorMsg.contains("no está registrado") ||
-                        errorMsg.contains("not registered")) {
-                    return 3; // Ciudadano no registrado
-                }
+                case NotRegistered:
+                    return 3; // Ciudadano no registrado en base de datos
+                default:
+                    return 5; // Error: voto inválido
             }
 
+        } catch (Exception e) {
             return 9; // Error interno del sistema
         }
     }
@@ -13,6 +13,10 @@ import java.util.*;
 public class VotingMachine {
     private static VotingProxyPrx votingProxy;
     private static CentralVotationPrx centralProxy;
+    // Relay departamental de candidatos (VotingMachine.CandidateRelay); null = directo al servidor central
+    private static CandidateRelayPrx relayProxy;
+    // Dónde quedó registrada la estación (el relay puede fallar y registrarse directo al central)
+    private static volatile boolean registeredViaRelay;
     private static String machineId;
     private static com.zeroc.Ice.Communicator communicator;
     private static VoteStationI voteStationServant;
@@ -21,6 +25,19 @@ public class VotingMachine {
     private static volatile List<CandidateData> currentCandidates = new ArrayList<>();
     private static final Object candidatesLock = new Object();
 
+    // Catálogo versionado: versión conocida y candidatos por ID para aplicar deltas
+    private static long catalogVersion = 0;
+    private static long catalogTimestamp = 0;
+    private static final Map<String, CandidateData> catalogById = new HashMap<>();
+
+    // Cache local del catálogo y ventana aleatoria para la verificación al arrancar
+    private static CandidateCatalogCache catalogCache;
+    private static int refreshJitterMillis;
+
+    // Reintento de registro/catálogo en segundo plano (uno solo a la vez)
+    private static final java.util.concurrent.atomic.AtomicBoolean registrationRetrying =
+            new java.util.concurrent.atomic.AtomicBoolean(false);
+
     public static void main(String[] args) {
         System.out.println("═══════════════════════════════════");
         System.out.println("🗳️  ESTACIÓN DE VOTACIÓN");
@@ -75,10 +92,18 @@ public class VotingMachine {
         try {
             System.out.println("📡 Conectando al servidor central...");
 
+            // Arrancar con el último catálogo conocido mientras se consulta al servidor
+            boolean cached = loadCachedCatalog();
+
             centralProxy = CentralVotationPrx.checkedCast(
                     communicator.stringToProxy("CentralVotation:default -h 10.147.17.101 -p 8899"));
 
             if (centralProxy != null) {
+                if (!communicator.getProperties().getProperty("VotingMachine.CandidateRelay").isEmpty()) {
+                    relayProxy = CandidateRelayPrx.uncheckedCast(communicator.propertyToProxy("VotingMachine.CandidateRelay"));
+                    System.out.println("📡 Candidatos vía relay: " + relayProxy);
+                }
+
                 // Crear adaptador para callbacks
                 com.zeroc.Ice.ObjectAdapter callbackAdapter = communicator.createObjectAdapterWithEndpoints(
                         "VotingMachineCallback", "tcp");
@@ -93,41 +118,248 @@ public class VotingMachine {
                 VotingMachineCallbackPrx callbackProxy = VotingMachineCallbackPrx.checkedCast(
                         callbackAdapter.createProxy(callbackId));
 
-                // Registrarse para notificaciones
-                centralProxy.registerVotingMachine(machineId, callbackProxy);
-                System.out.println("✅ Registrado para notificaciones automáticas");
-
-                // Obtener candidatos actuales
-                loadCandidates();
+                if (cached && refreshJitterMillis > 0) {
+                    // Con cache local no hay apuro: repartir las consultas de todas las estaciones en la ventana
+                    long delay = java.util.concurrent.ThreadLocalRandom.current().nextLong(refreshJitterMillis);
+                    System.out.println("⏳ Verificando cambios del catálogo en " + delay + " ms");
+                    Thread refresh = new Thread(() -> {
+                        try {
+                            Thread.sleep(delay);
+                            registerAndRefresh(callbackProxy);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }, "catalog-refresh");
+                    refresh.setDaemon(true);
+                    refresh.start();
+                } else {
+                    registerAndRefresh(callbackProxy);
+                }
             } else {
                 System.out.println("⚠️  CentralServer no disponible");
-                useDefaultCandidates();
+                if (!cached) useDefaultCandidates();
             }
 
         } catch (Exception e) {
             System.out.println("⚠️  Error con CentralServer: " + e.getMessage());
-            useDefaultCandidates();
+            synchronized (candidatesLock) {
+                if (catalogVersion == 0) useDefaultCandidates();
+            }
+        }
+    }
+
+    /**
+     * Registrarse para notificaciones y refrescar el catálogo. Si el registro falla o sigue
+     * sin catálogo, se reintenta en segundo plano hasta lograr ambos.
+     */
+    private static void registerAndRefresh(VotingMachineCallbackPrx callbackProxy) {
+        boolean registered = tryRegister(callbackProxy);
+
+        // Consulta condicional: "sin cambios" si el cache ya estaba al día
+        loadCandidates();
+
+        boolean hasCatalog;
+        synchronized (candidatesLock) {
+            hasCatalog = catalogVersion != 0;
+        }
+        if (!registered || !hasCatalog) {
+            scheduleRegistrationRetry(callbackProxy);
+        }
+    }
+
+    /**
+     * Registro para notificaciones (el servidor envía solo lo que falte desde la versión conocida):
+     * vía relay si hay, y si no responde directo al servidor central, igual que fetchCatalog
+     */
+    private static boolean tryRegister(VotingMachineCallbackPrx callbackProxy) {
+        long knownVersion;
+        synchronized (candidatesLock) {
+            knownVersion = catalogVersion;
+        }
+
+        if (relayProxy != null) {
+            try {
+                relayProxy.registerVotingMachine(machineId, callbackProxy, knownVersion);
+                registeredViaRelay = true;
+                System.out.println("✅ Registrado para notificaciones automáticas vía relay departamental");
+                return true;
+            } catch (Exception e) {
+                System.out.println("⚠️  Relay sin respuesta al registrarse, usando el servidor central: " + e.getMessage());
+            }
+        }
+        try {
+            centralProxy.registerVotingMachine(machineId, callbackProxy, knownVersion);
+            registeredViaRelay = false;
+            System.out.println("✅ Registrado para notificaciones automáticas");
+            return true;
+        } catch (Exception e) {
+            System.out.println("⚠️  No se pudo registrar para notificaciones: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reintentar registro y catálogo cada VotingMachine.RegisterRetryInterval ms hasta lograrlo
+     */
+    private static void scheduleRegistrationRetry(VotingMachineCallbackPrx callbackProxy) {
+        if (!registrationRetrying.compareAndSet(false, true)) {
+            return;
+        }
+        int interval = Math.max(1000, communicator.getProperties()
+                .getPropertyAsIntWithDefault("VotingMachine.RegisterRetryInterval", 10000));
+        System.out.println("⏳ Reintentando registro y catálogo cada " + interval + " ms");
+
+        Thread retry = new Thread(() -> {
+            boolean registered = false;
+            try {
+                while (true) {
+                    Thread.sleep(interval);
+                    if (!registered) {
+                        registered = tryRegister(callbackProxy);
+                    }
+                    boolean hasCatalog;
+                    synchronized (candidatesLock) {
+                        hasCatalog = catalogVersion != 0;
+                    }
+                    if (!hasCatalog) {
+                        loadCandidates();
+                        synchronized (candidatesLock) {
+                            hasCatalog = catalogVersion != 0;
+                        }
+                    }
+                    if (registered && hasCatalog) {
+                        System.out.println("✅ Registro y catálogo recuperados");
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                registrationRetrying.set(false);
+            }
+        }, "registration-retry");
+        retry.setDaemon(true);
+        retry.start();
+    }
+
+    /**
+     * Consultar el catálogo al relay departamental, o al servidor central si no hay relay o no responde
+     */
+    private static CandidateCatalogUpdate fetchCatalog(long knownVersion) throws Exception {
+        if (relayProxy != null) {
+            try {
+                return relayProxy.getCandidateCatalog(knownVersion);
+            } catch (Exception e) {
+                System.out.println("⚠️  Relay sin respuesta, consultando al servidor central: " + e.getMessage());
+            }
+        }
+        return centralProxy.getCandidateCatalog(knownVersion);
+    }
+
+    /**
+     * Cargar el catálogo guardado en disco (VotingMachine.CatalogCache.File)
+     */
+    private static boolean loadCachedCatalog() {
+        com.zeroc.Ice.Properties props = communicator.getProperties();
+        catalogCache = new CandidateCatalogCache(
+                props.getPropertyWithDefault("VotingMachine.CatalogCache.File", "config/db/candidate-catalog.cache"));
+        refreshJitterMillis = props.getPropertyAsIntWithDefault("VotingMachine.CatalogCache.RefreshJitter", 30000);
+
+        CandidateCatalogCache.CachedCatalog cachedCatalog = catalogCache.load();
+        if (cachedCatalog == null || cachedCatalog.candidates.length == 0) {
+            return false;
         }
+
+        CandidateCatalogUpdate update = new CandidateCatalogUpdate();
+        update.kind = CatalogUpdateKind.Full;
+        update.version = cachedCatalog.version;
+        update.updateTimestamp = cachedCatalog.updateTimestamp;
+        update.candidates = cachedCatalog.candidates;
+        update.removed = new String[0];
+        update.totalCandidates = cachedCatalog.candidates.length;
+        applyCatalogUpdate(update, false);
+
+        System.out.println("💾 Catálogo local: " + cachedCatalog.candidates.length + " candidatos (versión " +
+                cachedCatalog.version + ", " + new Date(cachedCatalog.updateTimestamp) + ")");
+        return true;
     }
 
     // Callback servant para recibir notificaciones
     public static class VotingMachineCallbackI implements VotingMachineCallback {
         @Override
-        public void onCandidatesUpdated(CandidateUpdateNotification notification, com.zeroc.Ice.Current current) {
+        public void onCatalogUpdated(CandidateCatalogUpdate update, com.zeroc.Ice.Current current) {
+            if (update.kind == CatalogUpdateKind.Unchanged) {
+                return;
+            }
             System.out.println("\n🔔 CANDIDATOS ACTUALIZADOS");
-            System.out.println("Nuevos candidatos: " + notification.totalCandidates);
+            System.out.println("Versión " + update.version + " (" + update.kind + "): " + update.totalCandidates + " candidatos");
 
-            synchronized (candidatesLock) {
-                currentCandidates = Arrays.asList(notification.candidates);
+            if (applyCatalogUpdate(update, true)) {
+                System.out.println("✅ Candidatos actualizados automáticamente");
             }
+        }
+    }
 
-            // Actualizar también el servicio ICE
-            if (voteStationServant != null) {
-                voteStationServant.updateCandidates(Arrays.asList(notification.candidates), notification.updateTimestamp);
+    /**
+     * Aplicar una actualización del catálogo; si el delta no parte de nuestra versión se pide la lista completa.
+     * La consulta remota se hace fuera de candidatesLock y la versión se vuelve a comprobar al instalar.
+     */
+    private static boolean applyCatalogUpdate(CandidateCatalogUpdate update, boolean persist) {
+        if (update.kind == CatalogUpdateKind.Unchanged) {
+            return true;
+        }
+
+        long localVersion;
+        synchronized (candidatesLock) {
+            localVersion = catalogVersion;
+        }
+        if (update.version < localVersion) {
+            return true; // ya hay una versión más nueva
+        }
+        if (update.kind == CatalogUpdateKind.Delta && update.baseVersion != localVersion) {
+            try {
+                update = fetchCatalog(0);
+            } catch (Exception e) {
+                System.out.println("⚠️  No se pudo obtener el catálogo completo: " + e.getMessage());
+                return false;
             }
+        }
 
-            System.out.println("✅ Candidatos actualizados automáticamente");
+        List<CandidateData> updated;
+        synchronized (candidatesLock) {
+            if (update.kind == CatalogUpdateKind.Unchanged || update.version < catalogVersion) {
+                return true; // otra actualización más nueva se instaló mientras se consultaba
+            }
+            if (update.kind == CatalogUpdateKind.Delta) {
+                if (update.baseVersion != catalogVersion) {
+                    System.out.println("⚠️  El catálogo local cambió antes de aplicar el delta; se corrige en el próximo refresco");
+                    return false;
+                }
+                for (String removedId : update.removed) {
+                    catalogById.remove(removedId);
+                }
+            } else {
+                catalogById.clear();
+            }
+            for (CandidateData c : update.candidates) {
+                catalogById.put(c.candidateId, c);
+            }
+            catalogVersion = update.version;
+            catalogTimestamp = update.updateTimestamp;
+
+            updated = new ArrayList<>(catalogById.values());
+            updated.sort(Comparator.comparingInt(c -> c.position));
+            currentCandidates = updated;
+        }
+
+        // Actualizar también el servicio ICE
+        if (voteStationServant != null) {
+            voteStationServant.updateCandidates(updated, update.updateTimestamp);
+        }
+        if (persist && catalogCache != null) {
+            catalogCache.save(update.version, update.updateTimestamp, updated.toArray(new CandidateData[0]));
         }
+        return true;
     }
 
     private static void initializeICEService() {
@@ -136,6 +368,11 @@ public class VotingMachine {
                     "VoteStationAdapter", "tcp -p " + (10000 + (int)(System.currentTimeMillis() % 1000)));
 
             voteStationServant = new VoteStationI(votingProxy, centralProxy, machineId);
+            synchronized (candidatesLock) {
+                if (!currentCandidates.isEmpty()) {
+                    voteStationServant.updateCandidates(currentCandidates, catalogTimestamp);
+                }
+            }
             com.zeroc.Ice.Identity iceIdentity = com.zeroc.Ice.Util.stringToIdentity("VoteStation-" + machineId);
             iceAdapter.add(voteStationServant, iceIdentity);
             iceAdapter.activate();
@@ -269,20 +506,29 @@ public class VotingMachine {
 
     private static void loadCandidates() {
         try {
-            CandidateListResponse response = centralProxy.getCurrentCandidates();
+            long knownVersion;
             synchronized (candidatesLock) {
-                currentCandidates = Arrays.asList(response.candidates);
+                knownVersion = catalogVersion;
             }
-            System.out.println("📋 Candidatos cargados: " + currentCandidates.size());
+            applyCatalogUpdate(fetchCatalog(knownVersion), true);
+            System.out.println("📋 Candidatos cargados: " + currentCandidates.size() + " (versión " + catalogVersion + ")");
         } catch (Exception e) {
-            System.out.println("⚠️  Usando candidatos por defecto");
-            useDefaultCandidates();
+            synchronized (candidatesLock) {
+                if (catalogVersion != 0) {
+                    System.out.println("⚠️  Servidor sin respuesta, se mantiene el catálogo versión " + catalogVersion);
+                    return;
+                }
+                System.out.println("⚠️  Usando candidatos por defecto");
+                useDefaultCandidates();
+            }
         }
     }
 
     private static void useDefaultCandidates() {
         synchronized (candidatesLock) {
-            currentCandidates.clear();
+            currentCandidates = new ArrayList<>();
+            catalogById.clear();
+            catalogVersion = 0;
         }
     }
 
@@ -290,7 +536,11 @@ public class VotingMachine {
     private static void cleanup() {
         try {
             if (centralProxy != null) {
-                centralProxy.unregisterVotingMachine(machineId);
+                if (registeredViaRelay) {
+                    relayProxy.unregisterVotingMachine(machineId);
+                } else {
+                    centralProxy.unregisterVotingMachine(machineId);
+                }
                 System.out.println("✅ Desregistrado del CentralServer");
             }
         } catch (Exception e) {
@@ -6,14 +6,11 @@ import Proxy.*;
 import Demo.*;
 import Proxy.CitizenNotRegisteredException;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
 public class VotingProxyI implements VotingProxy {
     private final VotationPrx votationTarget;
     private final ReliableMessagingService messagingService;
     private final com.zeroc.IceGrid.QueryPrx query;
-    private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final String COMPONENT = "VotingSite-Proxy";
 
     public VotingProxyI(VotationPrx votationTarget, ReliableMessagingService messagingService, com.zeroc.IceGrid.QueryPrx query) {
         this.votationTarget = votationTarget;
@@ -21,79 +18,113 @@ public class VotingProxyI implements VotingProxy {
         this.query = query;
     }
 
+    /**
+     * Operación original: mismo camino que castVote, traduciendo el resultado a excepciones
+     */
     @Override
     public String submitVote(String citizenId, String candidateId, com.zeroc.Ice.Current current)
             throws VotingSystemUnavailableException, InvalidVoteException, CitizenNotRegisteredException {
 
-        String timestamp = LocalDateTime.now().format(timeFormatter);
-        String clientEndpoint = current.con != null ? current.con.toString() : "unknown";
+        VoteResult result = castVote(citizenId, candidateId, current);
+
+        switch (result.status) {
+            case Accepted:
+                return result.ackId;
+
+            case AlreadyVoted:
+                throw new InvalidVoteException("Ciudadano ya votó - ACK: " + result.ackId);
+
+            case NotRegistered:
+                Proxy.CitizenNotRegisteredException proxyEx = new Proxy.CitizenNotRegisteredException();
+                proxyEx.citizenId = citizenId.trim();
+                proxyEx.message = result.detail;
+                throw proxyEx;
 
-        System.out.println("[" + timestamp + "] [VotingSite-Proxy] Voto recibido desde VotingMachine");
-        System.out.println("[" + timestamp + "] [VotingSite-Proxy] Cliente: " + clientEndpoint);
-        System.out.println("[" + timestamp + "] [VotingSite-Proxy] Ciudadano: " + citizenId + " -> Candidato: " + candidateId);
+            case Queued:
+                // ACK temporal del departamental: el voto ya quedó en su cola confiable
+                if (result.ackId != null && !result.ackId.isEmpty()) {
+                    return result.ackId;
+                }
+                // Guardado offline en este proxy (sin ACK): se informa como antes
+                throw new VotingSystemUnavailableException("Sistema de votación temporalmente no disponible. Su voto será procesado automáticamente.");
+
+            default:
+                throw new InvalidVoteException(result.detail);
+        }
+    }
 
+    /**
+     * Voto con resultado tipado: duplicados y no registrados llegan del servidor
+     * departamental como VoteResult y se devuelven igual, sin excepciones
+     */
+    @Override
+    public VoteResult castVote(String citizenId, String candidateId, com.zeroc.Ice.Current current) {
         // Validación básica
         if (citizenId == null || citizenId.trim().isEmpty()) {
-            throw new InvalidVoteException("Cédula del ciudadano no puede estar vacía");
+            return new VoteResult(VoteStatus.Invalid, "", "Cédula del ciudadano no puede estar vacía");
         }
 
         if (candidateId == null || candidateId.trim().isEmpty()) {
-            throw new InvalidVoteException("ID del candidato no puede estar vacío");
+            return new VoteResult(VoteStatus.Invalid, "", "ID del candidato no puede estar vacío");
+        }
+
+        String cleanCitizenId = citizenId.trim();
+        String cleanCandidateId = candidateId.trim();
+
+        // Eventos por voto muestreados (Log.VoteSampleRate); se decide una vez por voto
+        boolean traced = AsyncLog.sampleVote();
+        if (traced) {
+            String clientEndpoint = current.con != null ? current.con.toString() : "unknown";
+            AsyncLog.info(COMPONENT, "Voto recibido desde " + clientEndpoint + ": " + cleanCitizenId + " -> " + cleanCandidateId);
         }
 
         // Obtener proxy actualizado del servidor de votación
         VotationPrx currentTarget = getCurrentVotationProxy();
 
         try {
-            long startTime = System.currentTimeMillis();
             if (currentTarget == null) {
-                throw new VotingSystemUnavailableException("No hay servidores disponibles");
+                return storeOffline(cleanCitizenId, cleanCandidateId, "No hay servidores disponibles");
             }
-            String ackId = currentTarget.sendVote(citizenId.trim(), candidateId.trim());
-            long latency = System.currentTimeMillis() - startTime;
 
-            timestamp = LocalDateTime.now().format(timeFormatter);
-            System.out.println("[" + timestamp + "] [VotingSite-Proxy] Voto enviado exitosamente");
-            System.out.println("[" + timestamp + "] [VotingSite-Proxy] ACK recibido: " + ackId + " (" + latency + "ms)");
-            System.out.println("[" + timestamp + "] [VotingSite-Proxy] Retornando confirmación a VotingMachine");
-
-            String voteKey = citizenId + "|" + candidateId;
-            messagingService.confirmVoteACK(voteKey, ackId, latency);
-
-            return ackId;
-
-        } catch (AlreadyVotedException e) {
-            long latency = System.currentTimeMillis() - System.currentTimeMillis();
-            timestamp = LocalDateTime.now().format(timeFormatter);
-            System.out.println("[" + timestamp + "] [VotingSite-Proxy] Ciudadano ya votó - ACK: " + e.ackId);
+            long startTime = System.currentTimeMillis();
+            VoteResult result = currentTarget.castVote(cleanCitizenId, cleanCandidateId);
+            long latency = System.currentTimeMillis() - startTime;
 
             String voteKey = citizenId + "|" + candidateId;
-            messagingService.confirmVoteACK(voteKey, e.ackId, latency);
-
-            // CAMBIAR ESTO: En lugar de retornar, lanzar excepción
-            InvalidVoteException duplicateEx = new InvalidVoteException("Ciudadano ya votó - ACK: " + e.ackId);
-            throw duplicateEx;
-
-        }  catch (Demo.CitizenNotRegisteredException e) {  // ← Cambiar de Proxy a Demo
-            timestamp = LocalDateTime.now().format(timeFormatter);
-            System.out.println("[" + timestamp + "] [VotingSite-Proxy] Ciudadano no registrado: " + e.citizenId);
+            switch (result.status) {
+                case Accepted:
+                case Queued:
+                    messagingService.confirmVoteACK(voteKey, result.ackId, latency);
+                    break;
+
+                case AlreadyVoted:
+                    messagingService.confirmVoteACK(voteKey, result.ackId, 0);
+                    break;
+
+                default:
+                    break;
+            }
 
-            // Convertir de Demo a Proxy para lanzar al VoteStationI
-            Proxy.CitizenNotRegisteredException proxyEx = new Proxy.CitizenNotRegisteredException();
-            proxyEx.citizenId = e.citizenId;
-            proxyEx.message = e.message;
-            throw proxyEx;
+            if (traced) {
+                AsyncLog.info(COMPONENT, "Resultado: " + result.status + " - ACK: " + result.ackId + " (" + latency + "ms)");
+            }
+            return result;
 
         } catch (com.zeroc.Ice.LocalException e) {
-            timestamp = LocalDateTime.now().format(timeFormatter);
-            System.out.println("[" + timestamp + "] [VotingSite-Proxy] Sistema de votación no disponible");
-            System.out.println("[" + timestamp + "] [VotingSite-Proxy] Guardando voto para procesamiento automático");
+            return storeOffline(cleanCitizenId, cleanCandidateId, e.getMessage());
+        }
+    }
 
-            String offlineVoteKey = messagingService.storeOfflineVoteWithACK(citizenId.trim(), candidateId.trim());
-            messagingService.timeoutVote(offlineVoteKey);
+    /**
+     * Guardar el voto en ReliableMessaging para envío automático
+     */
+    private VoteResult storeOffline(String citizenId, String candidateId, String reason) {
+        AsyncLog.warn(COMPONENT, "Sistema de votación no disponible - guardando voto para procesamiento automático");
 
-            throw new VotingSystemUnavailableException("Sistema de votación temporalmente no disponible. Su voto será procesado automáticamente.");
-        }
+        String offlineVoteKey = messagingService.storeOfflineVoteWithACK(citizenId, candidateId);
+        messagingService.timeoutVote(offlineVoteKey);
+
+        return new VoteResult(VoteStatus.Queued, "", reason != null ? reason : "Sistema de votación no disponible");
     }
 
     @Override
@@ -131,7 +162,7 @@ public class VotingProxyI implements VotingProxy {
         try {
             return VotationPrx.checkedCast(query.findObjectByType("::Demo::Votation"));
         } catch (Exception e) {
-            System.out.println("[VotingSite-Proxy] Error obteniendo proxy de votación: " + e.getMessage());
+            AsyncLog.warn(COMPONENT, "Error obteniendo proxy de votación: " + e.getMessage());
             return votationTarget; // Fallback al original
         }
     }
@@ -19,6 +19,7 @@ public class VotingSite {
                 System.out.println("[VotingSite] Usando configuración por defecto para ReliableMessaging");
                 communicator.getProperties().setProperty("Ice.Default.Locator", "DemoIceGrid/Locator:default -h 10.147.17.101 -p 4071");
             }
+            AsyncLog.configure(communicator.getProperties());
 
             if (!extraArgs.isEmpty()) {
                 System.err.println("too many arguments");